@@ -1,7 +1,9 @@
 plugins {
 	java
 	id("org.springframework.boot") version "4.0.0"
+	id("org.springframework.boot.aot") version "4.0.0"
 	id("io.spring.dependency-management") version "1.1.7"
+	id("org.graalvm.buildtools.native") version "0.11.3" apply false
 }
 
 group = "com.familycashcard"
@@ -22,7 +24,11 @@ dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-security")
 	implementation("org.springframework.boot:spring-boot-starter-data-jpa")
 	implementation("org.springframework.boot:spring-boot-starter-validation")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
 	implementation("com.h2database:h2")
+	// Binary encodings negotiated through Accept/Content-Type alongside JSON
+	implementation("tools.jackson.dataformat:jackson-dataformat-cbor")
+	implementation("tools.jackson.dataformat:jackson-dataformat-smile")
 
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 	testImplementation("org.springframework.boot:spring-boot-test")
@@ -32,7 +38,13 @@ dependencies {
 
 
 tasks.test {
-	useJUnitPlatform()
+	useJUnitPlatform {
+		excludeTags("benchmark")
+	}
+	// ./gradlew test -PupdateSqlBaselines rewrites src/test/resources/sql-baselines from this run
+	if (project.hasProperty("updateSqlBaselines")) {
+		systemProperty("sql.baselines.update", "true")
+	}
 
 	testLogging {
 		events("passed", "skipped", "failed")
@@ -43,3 +55,72 @@ tasks.test {
 		showStandardStreams = false
 	}
 }
+
+// Native profile: ./gradlew -Pnative nativeCompile builds build/native/nativeCompile/family-cashcard,
+// ./gradlew -Pnative nativeTest runs the HTTP integration suites inside a native image.
+if (project.hasProperty("native")) {
+	apply(plugin = "org.graalvm.buildtools.native")
+
+	configure<org.graalvm.buildtools.gradle.dsl.GraalVMExtension> {
+		metadataRepository {
+			enabled = true
+		}
+		binaries.named("main") {
+			imageName = project.name
+			buildArgs.add("--no-fallback")
+		}
+	}
+
+	tasks.test {
+		filter {
+			includeTestsMatching("example.cashcard.CashCardApplicationTests")
+			includeTestsMatching("example.user.UserTests")
+		}
+	}
+}
+
+// Benchmarks are tagged JUnit tests that seed large datasets; run them with ./gradlew benchmark
+tasks.register<Test>("benchmark") {
+	description = "Runs the tests tagged as benchmarks."
+	group = "verification"
+	testClassesDirs = sourceSets.test.get().output.classesDirs
+	classpath = sourceSets.test.get().runtimeClasspath
+	useJUnitPlatform {
+		includeTags("benchmark")
+	}
+	testLogging {
+		events("passed", "failed")
+		showStandardStreams = true
+	}
+}
+
+// Class-data sharing: extract the boot jar into the layout the JVM can archive, then do a
+// training run that stops right after the context refreshes and dumps the loaded classes.
+// Start with: java -XX:SharedArchiveFile=build/cds/application.jsa -jar build/cds/application/family-cashcard-0.0.1-SNAPSHOT.jar
+val cdsDirectory = layout.buildDirectory.dir("cds")
+val cdsJava = javaToolchains.launcherFor { languageVersion = JavaLanguageVersion.of(25) }
+
+val extractBootJar by tasks.registering(Exec::class) {
+	description = "Extracts the boot jar into build/cds/application for class-data sharing."
+	group = "build"
+	dependsOn(tasks.bootJar)
+	val jar = tasks.bootJar.flatMap { it.archiveFile }
+	inputs.file(jar)
+	outputs.dir(cdsDirectory.map { it.dir("application") })
+	executable = cdsJava.get().executablePath.asFile.absolutePath
+	argumentProviders.add(CommandLineArgumentProvider {
+		listOf("-Djarmode=tools", "-jar", jar.get().asFile.absolutePath,
+			"extract", "--force", "--destination", cdsDirectory.get().dir("application").asFile.absolutePath)
+	})
+}
+
+tasks.register<Exec>("cdsArchive") {
+	description = "Creates build/cds/application.jsa from a training run of the extracted application."
+	group = "build"
+	dependsOn(extractBootJar)
+	outputs.file(cdsDirectory.map { it.file("application.jsa") })
+	workingDir(cdsDirectory)
+	executable = cdsJava.get().executablePath.asFile.absolutePath
+	args("-XX:ArchiveClassesAtExit=application.jsa", "-Dspring.context.exit=onRefresh",
+		"-jar", "application/${project.name}-${project.version}.jar")
+}
@@ -0,0 +1,26 @@
+package example.reactive;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A row of {@code cash_cards}. {@code createdAt} is filled in by the database default and,
+ * as in the servlet application, kept out of the JSON contract.
+ */
+@Table("cash_cards")
+public record CashCard(
+        @Id Long id,
+        Double amount,
+        String owner,
+        @JsonIgnore @ReadOnlyProperty @Column("created_at") Instant createdAt) {
+
+    public CashCard(Long id, Double amount, String owner) {
+        this(id, amount, owner, null);
+    }
+}
@@ -0,0 +1,98 @@
+package example.reactive;
+
+import java.net.URI;
+import java.security.Principal;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/cashcards")
+public class CashCardController {
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "amount", "createdAt");
+
+    private final CashCardService cashCardService;
+    private final FamilyAccess familyAccess;
+    private final int maxIds;
+
+    public CashCardController(CashCardService cashCardService, FamilyAccess familyAccess,
+                              @Value("${cashcard.multi-get.max-ids:100}") int maxIds) {
+        this.cashCardService = cashCardService;
+        this.familyAccess = familyAccess;
+        this.maxIds = maxIds;
+    }
+
+    @GetMapping("/{requestedId}")
+    private Mono<ResponseEntity<CashCard>> findById(@PathVariable Long requestedId, Principal principal) {
+        return cashCardService.findAccessible(requestedId, principal.getName())
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(params = "ids")
+    private Mono<ResponseEntity<CashCardLookup>> findByIds(@RequestParam List<Long> ids, Principal principal) {
+        if(ids.isEmpty() || ids.size() > maxIds) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return cashCardService.findAccessible(ids, principal.getName()).map(ResponseEntity::ok);
+    }
+
+    @GetMapping
+    private Mono<ResponseEntity<List<CashCard>>> findAllByOwner(@RequestParam(required = false) Long family, CashCardFilter filter, Pageable pageable, Principal principal) {
+        var sort = pageable.getSortOr(Sort.by(Sort.Direction.ASC, "amount"));
+        if(!filter.isValid() || !sort.stream().allMatch(order -> SORTABLE_PROPERTIES.contains(order.getProperty()))) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        Mono<List<String>> owners = family == null
+                ? Mono.just(List.of(principal.getName()))
+                : familyAccess.visibleMembers(principal.getName(), family);
+        var page = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+        return owners
+                .flatMap(visible -> cashCardService.findPage(visible, filter, page).collectList())
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    private Mono<ResponseEntity<Void>> createCashCard(@RequestBody CashCard cashCard, UriComponentsBuilder ucb, Principal principal) {
+        return cashCardService.create(cashCard.amount(), principal.getName())
+                .map(newCashCard -> {
+                    URI locationOfNewCashCard = ucb
+                            .path("/cashcards/{id}")
+                            .buildAndExpand(newCashCard.id())
+                            .toUri();
+                    return ResponseEntity.created(locationOfNewCashCard).build();
+                });
+    }
+
+    @PutMapping("/{requestedId}")
+    private Mono<ResponseEntity<Void>> updateCashCard(@PathVariable Long requestedId, @RequestBody CashCard cashCard, Principal principal) {
+        return cashCardService.update(requestedId, cashCard.amount(), principal.getName())
+                .map(CashCardController::noContentOrNotFound);
+    }
+
+    @PostMapping("/{requestedId}/restore")
+    private Mono<ResponseEntity<Void>> restoreCashCard(@PathVariable Long requestedId, Principal principal) {
+        return cashCardService.restore(requestedId, principal.getName())
+                .map(CashCardController::noContentOrNotFound);
+    }
+
+    @DeleteMapping("/{requestedId}")
+    private Mono<ResponseEntity<Void>> deleteCashCard(@PathVariable Long requestedId, Principal principal) {
+        return cashCardService.delete(requestedId, principal.getName())
+                .map(CashCardController::noContentOrNotFound);
+    }
+
+    private static ResponseEntity<Void> noContentOrNotFound(boolean done) {
+        return done ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+}
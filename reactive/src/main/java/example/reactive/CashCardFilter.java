@@ -0,0 +1,37 @@
+package example.reactive;
+
+import java.time.Instant;
+import java.util.Collection;
+
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.format.annotation.DateTimeFormat;
+
+/**
+ * Optional range filters accepted by {@code GET /cashcards}. Bounds are inclusive
+ * except {@code createdAfter}, which is strict.
+ */
+public record CashCardFilter(
+        Double minAmount,
+        Double maxAmount,
+        Long minId,
+        Long maxId,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdAfter) {
+
+    public boolean isValid() {
+        return isOrdered(minAmount, maxAmount) && isOrdered(minId, maxId);
+    }
+
+    public Criteria toCriteria(Collection<String> owners) {
+        var criteria = Criteria.where("owner").in(owners);
+        if (minAmount != null) criteria = criteria.and("amount").greaterThanOrEquals(minAmount);
+        if (maxAmount != null) criteria = criteria.and("amount").lessThanOrEquals(maxAmount);
+        if (minId != null) criteria = criteria.and("id").greaterThanOrEquals(minId);
+        if (maxId != null) criteria = criteria.and("id").lessThanOrEquals(maxId);
+        if (createdAfter != null) criteria = criteria.and("createdAt").greaterThan(createdAfter);
+        return criteria;
+    }
+
+    private static <T extends Comparable<T>> boolean isOrdered(T min, T max) {
+        return min == null || max == null || min.compareTo(max) <= 0;
+    }
+}
@@ -0,0 +1,10 @@
+package example.reactive;
+
+import java.util.List;
+
+/**
+ * Response of a multi-get: the cards the caller may see, in request order, and the
+ * requested ids that do not exist or belong to someone else.
+ */
+public record CashCardLookup(List<CashCard> found, List<Long> notFound) {
+}
@@ -0,0 +1,39 @@
+package example.reactive;
+
+import java.util.Collection;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface CashCardRepository extends ReactiveCrudRepository<CashCard, Long> {
+    Mono<Boolean> existsByOwner(String owner);
+
+    @Query("SELECT id, amount, owner, created_at FROM cash_cards WHERE id IN (:ids) AND owner IN (:owners)")
+    Flux<CashCard> findByIds(Collection<Long> ids, Collection<String> owners);
+
+    @Query("SELECT id, amount, owner, created_at FROM cash_cards_archive WHERE id = :id")
+    Mono<CashCard> findArchivedById(Long id);
+
+    @Query("SELECT id, amount, owner, created_at FROM cash_cards_archive WHERE id IN (:ids) AND owner IN (:owners)")
+    Flux<CashCard> findArchivedByIds(Collection<Long> ids, Collection<String> owners);
+
+    // updated_at is what the archiver looks at, so every write touches it
+    @Modifying
+    @Query("UPDATE cash_cards SET amount = :amount, updated_at = CURRENT_TIMESTAMP WHERE id = :id")
+    Mono<Integer> updateAmount(Long id, Double amount);
+
+    @Modifying
+    @Query("DELETE FROM cash_cards_archive WHERE id = :id")
+    Mono<Integer> deleteArchivedById(Long id);
+
+    @Modifying
+    @Query("""
+            INSERT INTO cash_cards (id, amount, owner, created_at, updated_at)
+            SELECT id, amount, owner, created_at, CURRENT_TIMESTAMP FROM cash_cards_archive WHERE id = :id
+            """)
+    Mono<Integer> copyFromArchive(Long id);
+}
@@ -0,0 +1,114 @@
+package example.reactive;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class CashCardService {
+    private final CashCardRepository cashCardRepository;
+    private final R2dbcEntityTemplate template;
+    private final FamilyAccess familyAccess;
+
+    public CashCardService(CashCardRepository cashCardRepository, R2dbcEntityTemplate template, FamilyAccess familyAccess) {
+        this.cashCardRepository = cashCardRepository;
+        this.template = template;
+        this.familyAccess = familyAccess;
+    }
+
+    /**
+     * Looks in the hot table first and falls back to the archive, like the servlet API.
+     */
+    public Mono<CashCard> findAccessible(Long id, String username) {
+        return cashCardRepository.findById(id)
+                .switchIfEmpty(Mono.defer(() -> cashCardRepository.findArchivedById(id)))
+                .filterWhen(cashCard -> familyAccess.canAccess(username, cashCard.owner()));
+    }
+
+    public Flux<CashCard> findPage(List<String> owners, CashCardFilter filter, Pageable pageable) {
+        return template.select(CashCard.class)
+                .matching(Query.query(filter.toCriteria(owners)).with(pageable))
+                .all();
+    }
+
+    /**
+     * Resolves many ids with one query scoped to the owners {@code username} may see; the
+     * archive is only queried for ids the hot table did not have.
+     */
+    public Mono<CashCardLookup> findAccessible(List<Long> ids, String username) {
+        var requested = ids.stream().distinct().toList();
+        return familyAccess.delegatedOwners(username).flatMap(delegated -> {
+            var owners = new HashSet<>(delegated);
+            owners.add(username);
+            Map<Long, CashCard> found = new HashMap<>();
+            return cashCardRepository.findByIds(requested, owners)
+                    .doOnNext(cashCard -> found.put(cashCard.id(), cashCard))
+                    .thenMany(Flux.defer(() -> {
+                        var missing = requested.stream().filter(id -> !found.containsKey(id)).toList();
+                        return missing.isEmpty() ? Flux.empty() : cashCardRepository.findArchivedByIds(missing, owners);
+                    }))
+                    .doOnNext(cashCard -> found.put(cashCard.id(), cashCard))
+                    .then(Mono.fromSupplier(() -> {
+                        List<CashCard> cashCards = new ArrayList<>();
+                        List<Long> notFound = new ArrayList<>();
+                        for (Long id : requested) {
+                            var cashCard = found.get(id);
+                            if (cashCard == null) {
+                                notFound.add(id);
+                            } else {
+                                cashCards.add(cashCard);
+                            }
+                        }
+                        return new CashCardLookup(cashCards, notFound);
+                    }));
+        });
+    }
+
+    @Transactional
+    public Mono<CashCard> create(Double amount, String owner) {
+        return cashCardRepository.save(new CashCard(null, amount, owner));
+    }
+
+    /**
+     * @return false when the card does not exist or {@code username} may not manage it
+     */
+    @Transactional
+    public Mono<Boolean> update(Long id, Double amount, String username) {
+        // Archived cards have to be restored before they can be changed; a parent editing a
+        // child's card does not take ownership of it
+        return cashCardRepository.findById(id)
+                .filterWhen(cashCard -> familyAccess.canAccess(username, cashCard.owner()))
+                .flatMap(cashCard -> cashCardRepository.updateAmount(id, amount))
+                .map(updated -> updated == 1)
+                .defaultIfEmpty(false);
+    }
+
+    @Transactional
+    public Mono<Boolean> delete(Long id, String username) {
+        return findAccessible(id, username)
+                .flatMap(cashCard -> cashCardRepository.deleteById(id)
+                        .then(cashCardRepository.deleteArchivedById(id))
+                        .thenReturn(true))
+                .defaultIfEmpty(false);
+    }
+
+    @Transactional
+    public Mono<Boolean> restore(Long id, String username) {
+        return cashCardRepository.findArchivedById(id)
+                .filterWhen(cashCard -> familyAccess.canAccess(username, cashCard.owner()))
+                .flatMap(cashCard -> cashCardRepository.copyFromArchive(id))
+                .flatMap(restored -> cashCardRepository.deleteArchivedById(id).thenReturn(restored == 1))
+                .defaultIfEmpty(false);
+    }
+}
@@ -0,0 +1,34 @@
+package example.reactive;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Mono;
+
+@Service
+public class DatabaseUserDetailsService implements ReactiveUserDetailsService {
+    private final DatabaseClient databaseClient;
+    private final CashCardRepository cashcards;
+
+    public DatabaseUserDetailsService(DatabaseClient databaseClient, CashCardRepository cashcards) {
+        this.databaseClient = databaseClient;
+        this.cashcards = cashcards;
+    }
+
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        // Accounts waiting for deletion can no longer sign in
+        return databaseClient.sql("SELECT username, password, deletion_requested_at IS NOT NULL AS disabled FROM users WHERE username = :username")
+                .bind("username", username)
+                .map(row -> User.withUsername(row.get("username", String.class))
+                        .password(row.get("password", String.class))
+                        .disabled(Boolean.TRUE.equals(row.get("disabled", Boolean.class))))
+                .one()
+                .zipWith(cashcards.existsByOwner(username), (user, isOwner) -> user
+                        .roles(isOwner ? "CARD_OWNER" : "NON_OWNER")
+                        .build());
+    }
+}
@@ -0,0 +1,61 @@
+package example.reactive;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * The family rules of the servlet application's {@code FamilyService}: parents act for
+ * everyone in their families, children only for themselves.
+ */
+@Component
+public class FamilyAccess {
+    private final DatabaseClient databaseClient;
+
+    public FamilyAccess(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Boolean> canAccess(String username, String owner) {
+        if (username.equals(owner)) {
+            return Mono.just(true);
+        }
+        return delegatedOwners(username).map(owners -> owners.contains(owner));
+    }
+
+    public Mono<Set<String>> delegatedOwners(String username) {
+        return databaseClient.sql("""
+                        SELECT DISTINCT other.username FROM family_members member
+                        JOIN family_members other ON other.family_id = member.family_id
+                        WHERE member.username = :username AND member.role = 'PARENT'
+                        """)
+                .bind("username", username)
+                .map(row -> row.get("username", String.class))
+                .all()
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Owners whose cards {@code username} sees in the family view: every member for a
+     * parent, only themselves for a child, and empty when they do not belong to the family.
+     */
+    public Mono<List<String>> visibleMembers(String username, Long familyId) {
+        return databaseClient.sql("SELECT role FROM family_members WHERE family_id = :familyId AND username = :username")
+                .bind("familyId", familyId)
+                .bind("username", username)
+                .map(row -> row.get("role", String.class))
+                .one()
+                .flatMap(role -> "PARENT".equals(role)
+                        ? databaseClient.sql("SELECT username FROM family_members WHERE family_id = :familyId")
+                                .bind("familyId", familyId)
+                                .map(row -> row.get("username", String.class))
+                                .all()
+                                .collectList()
+                        : Mono.just(List.of(username)));
+    }
+}
@@ -0,0 +1,18 @@
+package example.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * The {@code /cashcards} API on WebFlux and R2DBC, for deployments that hold very many
+ * concurrent connections open. It shares the schema and HTTP contract of the servlet
+ * application; outbox events, idempotency keys, caches and sharding stay there.
+ */
+@SpringBootApplication
+public class ReactiveCashCardApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactiveCashCardApplication.class, args);
+	}
+
+}
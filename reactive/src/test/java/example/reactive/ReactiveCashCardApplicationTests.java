@@ -0,0 +1,319 @@
+package example.reactive;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import net.minidev.json.JSONArray;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.client.RestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+
+/**
+ * The HTTP scenarios of the servlet application's {@code CashCardApplicationTests}, run
+ * against the WebFlux + R2DBC variant over the same fixtures.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ReactiveCashCardApplicationTests {
+
+    @LocalServerPort
+    int port;
+
+    RestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = clientFor("sarah1", "abc123");
+    }
+
+    @Test
+    void shouldReturnACashCardWhenDataIsSaved() {
+        ResponseEntity<String> response = client.get()
+                .uri("/cashcards/99")
+                .retrieve()
+                .toEntity(String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        DocumentContext doc = JsonPath.parse(response.getBody());
+        assertThat(doc.read("$.id", Integer.class)).isEqualTo(99);
+        assertThat(doc.read("$.amount", Double.class)).isEqualTo(123.45);
+    }
+
+    @Test
+    void shouldNotReturnACashCardWithAnUnknownId() {
+        assertThat(statusOf(client.get().uri("/cashcards/70"))).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    @DirtiesContext
+    void shouldCreateANewCashCard() {
+        ResponseEntity<Void> response = client.post()
+                .uri("/cashcards")
+                .body(new CashCard(null, 250.00, null))
+                .retrieve()
+                .toEntity(Void.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+        URI locationOfNewCashCard = response.getHeaders().getLocation();
+        ResponseEntity<String> getResponse = client.get()
+                .uri(locationOfNewCashCard)
+                .retrieve()
+                .toEntity(String.class);
+
+        assertThat(getResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(JsonPath.parse(getResponse.getBody()).read("$.owner", String.class)).isEqualTo("sarah1");
+    }
+
+    @Test
+    void shouldReturnAllCashCardsWhenListIsRequested() {
+        ResponseEntity<String> response = client.get()
+                .uri("/cashcards")
+                .retrieve()
+                .toEntity(String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        DocumentContext documentContext = JsonPath.parse(response.getBody());
+        int cashCardCount = documentContext.read("$.length()");
+        assertThat(cashCardCount).isEqualTo(3);
+
+        JSONArray ids = documentContext.read("$..id");
+        assertThat(ids).containsExactlyInAnyOrder(99, 100, 101);
+
+        JSONArray amounts = documentContext.read("$..amount");
+        assertThat(amounts).containsExactlyInAnyOrder(123.45, 1.00, 150.00);
+    }
+
+    @Test
+    void shouldReturnASortedPageOfCashCards() {
+        ResponseEntity<String> response = client.get()
+                .uri("/cashcards?page=0&size=1&sort=amount,desc")
+                .retrieve()
+                .toEntity(String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        DocumentContext documentContext = JsonPath.parse(response.getBody());
+        JSONArray read = documentContext.read("$[*]");
+        assertThat(read.size()).isEqualTo(1);
+
+        double amount = documentContext.read("$[0].amount");
+        assertThat(amount).isEqualTo(150.00);
+    }
+
+    @Test
+    void shouldReturnASortedPageOfCashCardsWithNoParametersAndUseDefaultValues() {
+        ResponseEntity<String> response = client.get()
+                .uri("/cashcards")
+                .retrieve()
+                .toEntity(String.class);
+
+        JSONArray amounts = JsonPath.parse(response.getBody()).read("$..amount");
+        assertThat(amounts).containsExactly(1.00, 123.45, 150.00);
+    }
+
+    @Test
+    void shouldNotReturnACashCardWhenUsingBadCredentials() {
+        assertThat(statusOf(clientFor("wrongUser", "abc123").get().uri("/cashcards/99")))
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(statusOf(clientFor("sarah1", "badPass").get().uri("/cashcards/99")))
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void shouldNotAllowAccessToCashCardsTheyDoNotOwn() {
+        assertThat(statusOf(client.get().uri("/cashcards/102"))).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    @DirtiesContext
+    void shouldUpdateAnExistingCashCard() {
+        ResponseEntity<Void> response = client.put()
+                .uri("/cashcards/99")
+                .body(new CashCard(null, 69.0, null))
+                .retrieve()
+                .toEntity(Void.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+    }
+
+    @Test
+    void shouldNotUpdateACashCardThatDoesNotExist() {
+        assertThat(statusOf(client.put().uri("/cashcards/299").body(new CashCard(null, 69.0, null))))
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldNotUpdateACashCardThatIsOwnedBySomeoneElse() {
+        assertThat(statusOf(client.put().uri("/cashcards/102").body(new CashCard(null, 69.0, null))))
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    @DirtiesContext
+    void shouldDeleteAnExistingCashCard() {
+        ResponseEntity<Void> response = client.delete()
+                .uri("/cashcards/99")
+                .retrieve()
+                .toEntity(Void.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        assertThat(statusOf(client.get().uri("/cashcards/99"))).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldNotDeleteACashCardThatDoesNotExist() {
+        assertThat(statusOf(client.delete().uri("/cashcards/999"))).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldNotAllowDeletionOfCashCardsTheyDoNotOwn() {
+        assertThat(statusOf(client.delete().uri("/cashcards/102"))).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldAllowAParentToReadTheirChildsCashCard() {
+        ResponseEntity<String> response = client.get()
+                .uri("/cashcards/103")
+                .retrieve()
+                .toEntity(String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(JsonPath.parse(response.getBody()).read("$.owner", String.class)).isEqualTo("timmy");
+    }
+
+    @Test
+    void shouldNotAllowAChildToReadTheirParentsCashCard() {
+        assertThat(statusOf(clientFor("timmy", "abc123").get().uri("/cashcards/99")))
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldReturnAllFamilyCashCardsForAParent() {
+        ResponseEntity<String> response = client.get()
+                .uri("/cashcards?family=10")
+                .retrieve()
+                .toEntity(String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONArray ids = JsonPath.parse(response.getBody()).read("$..id");
+        assertThat(ids).containsExactly(100, 103, 99, 101);
+    }
+
+    @Test
+    void shouldOnlyReturnTheirOwnCashCardsInTheFamilyViewForAChild() {
+        ResponseEntity<String> response = clientFor("timmy", "abc123").get()
+                .uri("/cashcards?family=10")
+                .retrieve()
+                .toEntity(String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONArray ids = JsonPath.parse(response.getBody()).read("$..id");
+        assertThat(ids).containsExactly(103);
+    }
+
+    @Test
+    void shouldNotReturnTheFamilyViewToNonMembers() {
+        assertThat(statusOf(clientFor("kumar2", "xyz789").get().uri("/cashcards?family=10")))
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    @DirtiesContext
+    void shouldKeepTheChildAsOwnerWhenAParentUpdatesTheirCashCard() {
+        ResponseEntity<Void> response = client.put()
+                .uri("/cashcards/103")
+                .body(new CashCard(null, 30.0, null))
+                .retrieve()
+                .toEntity(Void.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        ResponseEntity<String> getResponse = client.get()
+                .uri("/cashcards/103")
+                .retrieve()
+                .toEntity(String.class);
+        DocumentContext doc = JsonPath.parse(getResponse.getBody());
+        assertThat(doc.read("$.owner", String.class)).isEqualTo("timmy");
+        assertThat(doc.read("$.amount", Double.class)).isEqualTo(30.0);
+    }
+
+    @Test
+    void shouldFilterCashCardsByAmountRange() {
+        ResponseEntity<String> response = client.get()
+                .uri("/cashcards?minAmount=100&maxAmount=150")
+                .retrieve()
+                .toEntity(String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONArray ids = JsonPath.parse(response.getBody()).read("$..id");
+        assertThat(ids).containsExactly(99, 101);
+    }
+
+    @Test
+    void shouldFilterCashCardsByIdRangeAndCreationTime() {
+        ResponseEntity<String> response = client.get()
+                .uri("/cashcards?minId=100&maxId=101&createdAfter=2000-01-01T00:00:00Z")
+                .retrieve()
+                .toEntity(String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONArray ids = JsonPath.parse(response.getBody()).read("$..id");
+        assertThat(ids).containsExactly(100, 101);
+    }
+
+    @Test
+    void shouldRejectAnInvertedRange() {
+        assertThat(statusOf(client.get().uri("/cashcards?minAmount=150&maxAmount=100")))
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void shouldRejectSortingOnAFieldOutsideTheAllowlist() {
+        assertThat(statusOf(client.get().uri("/cashcards?sort=owner,asc"))).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void shouldReturnManyCashCardsByIdInOneCall() {
+        ResponseEntity<String> response = client.get()
+                .uri("/cashcards?ids=99,103,102,70,99")
+                .retrieve()
+                .toEntity(String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        DocumentContext documentContext = JsonPath.parse(response.getBody());
+        JSONArray found = documentContext.read("$.found[*].id");
+        assertThat(found).containsExactly(99, 103);
+        JSONArray notFound = documentContext.read("$.notFound");
+        assertThat(notFound).containsExactly(102, 70);
+    }
+
+    @Test
+    void shouldRejectAMultiGetOverTheIdLimit() {
+        var ids = new StringBuilder("1");
+        for (int id = 2; id <= 101; id++) {
+            ids.append(',').append(id);
+        }
+        assertThat(statusOf(client.get().uri("/cashcards?ids=" + ids))).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private RestClient clientFor(String username, String password) {
+        return RestClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .defaultHeaders(headers -> headers.setBasicAuth(username, password))
+                .build();
+    }
+
+    private static HttpStatus statusOf(RestClient.RequestHeadersSpec<?> request) {
+        return HttpStatus.valueOf(request
+                .exchange((req, res) -> ResponseEntity.status(res.getStatusCode()).build())
+                .getStatusCode().value());
+    }
+}
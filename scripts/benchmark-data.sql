@@ -0,0 +1,4 @@
+-- Seed shared by both applications in reactive-benchmark.sh: one user (password abc123)
+-- owning 100 cards
+INSERT INTO users (username, password) VALUES ('bench', '$2a$10$1VWQBQGgFurYEeMvFT2NDem.Gt2rU/wqyiBraRCJOCRaxPFn6IlUi');
+INSERT INTO cash_cards (amount, owner) SELECT x, 'bench' FROM SYSTEM_RANGE(1, 100);
@@ -0,0 +1,60 @@
+#!/usr/bin/env bash
+# Compares throughput and latency of the servlet application and its WebFlux + R2DBC
+# variant (the :reactive subproject) under many concurrent connections.
+#
+#   ./scripts/reactive-benchmark.sh [connections]
+#
+# Both applications start on the same H2 schema with scripts/benchmark-data.sql (a user
+# owning 100 cards), then GET /cashcards?size=20 is driven with wrk for $DURATION after a
+# warm-up of the same length. Requires wrk, and an open-files limit above the connection
+# count (the script raises its own soft limit when it can).
+set -euo pipefail
+
+CONNECTIONS=${1:-10000}
+THREADS=${THREADS:-8}
+PORT=${PORT:-18080}
+DURATION=${DURATION:-30s}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAVA=${JAVA:-java}
+DATA="--spring.sql.init.data-locations=file:$ROOT/scripts/benchmark-data.sql"
+
+cd "$ROOT"
+ulimit -n "$(( CONNECTIONS * 2 + 1024 ))" 2>/dev/null || true
+./gradlew -q bootJar :reactive:bootJar
+
+# Tomcat accepts 8192 connections by default; the rest would wait in the backlog
+declare -A MODES=(
+    [servlet]="$JAVA -jar build/libs/family-cashcard-0.0.1-SNAPSHOT.jar --server.tomcat.max-connections=$CONNECTIONS --spring.sql.init.mode=always"
+    [reactive]="$JAVA -jar reactive/build/libs/reactive-0.0.1-SNAPSHOT.jar"
+)
+ORDER=(servlet reactive)
+
+wait_until_up() {
+    until curl -sf "http://localhost:$PORT/actuator/health" >/dev/null; do
+        sleep 0.1
+    done
+}
+
+measure() {
+    local pid auth
+    # shellcheck disable=SC2086
+    ${MODES[$1]} --server.port="$PORT" "$DATA" >/dev/null 2>&1 &
+    pid=$!
+    wait_until_up
+    auth="Authorization: Basic $(printf 'bench:abc123' | base64)"
+    wrk -t"$THREADS" -c"$CONNECTIONS" -d"$DURATION" -H "$auth" "http://localhost:$PORT/cashcards?size=20" >/dev/null
+    wrk -t"$THREADS" -c"$CONNECTIONS" -d"$DURATION" --latency -H "$auth" "http://localhost:$PORT/cashcards?size=20" \
+        | awk '/Requests\/sec/ { rps = int($2) }
+               /^ +50%/ { p50 = $2 }
+               /^ +99%/ { p99 = $2 }
+               /Socket errors/ { errors = $0 }
+               END { printf "%s %s %s %s\n", rps, p50, p99, (errors ? "yes" : "no") }'
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+}
+
+printf '%-10s %12s %10s %10s %14s\n' mode 'req/s' p50 p99 'socket errors'
+for mode in "${ORDER[@]}"; do
+    read -r rps p50 p99 errors < <(measure "$mode")
+    printf '%-10s %12s %10s %10s %14s\n' "$mode" "$rps" "$p50" "$p99" "$errors"
+done
@@ -0,0 +1,102 @@
+#!/usr/bin/env bash
+# Measures time-to-first-request and resident memory of the service in each startup mode.
+#
+#   ./scripts/startup-benchmark.sh [runs]
+#
+# Modes: plain JVM, JVM with Spring AOT initializers, JVM with a CDS archive, both, and
+# the GraalVM native executable when it has been built (./gradlew -Pnative nativeCompile).
+# Time-to-first-request is measured from process launch to the first successful
+# GET /actuator/health; RSS is read from /proc right after that request.
+#
+# With wrk installed, each mode also gets a steady-state run: a user with 100 cards is
+# created and GET /cashcards is driven for $DURATION after a warm-up of the same length.
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAR_NAME=family-cashcard-0.0.1-SNAPSHOT.jar
+JAVA=${JAVA:-java}
+NATIVE=build/native/nativeCompile/family-cashcard
+DURATION=${DURATION:-15s}
+
+cd "$ROOT"
+./gradlew -q cdsArchive
+
+APP="-jar build/cds/application/$JAR_NAME"
+declare -A MODES=(
+    [jvm]="$JAVA $APP"
+    [aot]="$JAVA -Dspring.aot.enabled=true $APP"
+    [cds]="$JAVA -XX:SharedArchiveFile=build/cds/application.jsa $APP"
+    [aot+cds]="$JAVA -Dspring.aot.enabled=true -XX:SharedArchiveFile=build/cds/application.jsa $APP"
+    [native]="$NATIVE"
+)
+ORDER=(jvm aot cds aot+cds)
+if [[ -x $NATIVE ]]; then
+    ORDER+=(native)
+fi
+
+now_ms() { date +%s%3N; }
+
+start_app() {
+    # shellcheck disable=SC2086
+    ${MODES[$1]} --server.port="$PORT" >/dev/null 2>&1 &
+    echo $!
+}
+
+wait_until_up() {
+    until curl -sf "http://localhost:$PORT/actuator/health" >/dev/null; do
+        sleep 0.01
+    done
+}
+
+stop_app() {
+    kill "$1"
+    wait "$1" 2>/dev/null || true
+}
+
+measure_startup() {
+    local start pid elapsed rss
+    start=$(now_ms)
+    pid=$(start_app "$1")
+    wait_until_up
+    elapsed=$(( $(now_ms) - start ))
+    rss=$(awk '/VmRSS/ { print $2 }' "/proc/$pid/status")
+    stop_app "$pid"
+    echo "$elapsed $rss"
+}
+
+measure_throughput() {
+    local pid auth rps rss
+    pid=$(start_app "$1")
+    wait_until_up
+    curl -sf -o /dev/null -H 'Content-Type: application/json' \
+        -d '{"username":"bench","password":"benchpass1"}' "http://localhost:$PORT/users/register"
+    auth="Authorization: Basic $(printf 'bench:benchpass1' | base64)"
+    for i in $(seq 100); do
+        curl -sf -o /dev/null -H "$auth" -H 'Content-Type: application/json' \
+            -d "{\"amount\":$i}" "http://localhost:$PORT/cashcards"
+    done
+    wrk -t2 -c32 -d"$DURATION" -H "$auth" "http://localhost:$PORT/cashcards?size=20" >/dev/null
+    rps=$(wrk -t2 -c32 -d"$DURATION" -H "$auth" "http://localhost:$PORT/cashcards?size=20" | awk '/Requests\/sec/ { print int($2) }')
+    rss=$(awk '/VmRSS/ { print $2 }' "/proc/$pid/status")
+    stop_app "$pid"
+    echo "$rps $rss"
+}
+
+printf '%-8s %12s %12s %12s %16s\n' mode 'ttfr (ms)' 'rss (MiB)' 'req/s' 'loaded rss (MiB)'
+for mode in "${ORDER[@]}"; do
+    total_ms=0
+    total_kb=0
+    for _ in $(seq "$RUNS"); do
+        read -r ms kb < <(measure_startup "$mode")
+        total_ms=$(( total_ms + ms ))
+        total_kb=$(( total_kb + kb ))
+    done
+    rps=- loaded=-
+    if command -v wrk >/dev/null; then
+        read -r rps loaded_kb < <(measure_throughput "$mode")
+        loaded=$(( loaded_kb / 1024 ))
+    fi
+    printf '%-8s %12d %12d %12s %16s\n' "$mode" $(( total_ms / RUNS )) $(( total_kb / RUNS / 1024 )) "$rps" "$loaded"
+done
@@ -1 +1,4 @@
 rootProject.name = "family-cashcard"
+
+// Non-blocking WebFlux + R2DBC variant of the /cashcards API: ./gradlew :reactive:bootRun
+include("reactive")
@@ -0,0 +1,65 @@
+package example;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import example.bulkimport.ImportReport;
+import example.cashcard.ArchivedCashCard;
+import example.cashcard.CashCard;
+import example.cashcard.CashCardFilter;
+import example.cashcard.CashCardLookup;
+import example.cashcard.CashCardView;
+import example.family.AddFamilyMemberRequest;
+import example.family.CreateFamilyRequest;
+import example.family.Family;
+import example.family.FamilyInvite;
+import example.family.FamilyMember;
+import example.family.FamilyMemberId;
+import example.history.BalancePoint;
+import example.history.BalanceSeries;
+import example.idempotency.IdempotencyRecord;
+import example.idempotency.IdempotencyRecordId;
+import example.outbox.OutboxEvent;
+import example.report.CardTransaction;
+import example.report.SpendingReport;
+import example.shard.RebalanceReport;
+import example.user.ChangePasswordRequest;
+import example.user.User;
+import example.user.UserRegistrationRequest;
+
+/**
+ * Reachability metadata for a native image. Spring AOT already covers most of these;
+ * listing them keeps the JPA entities, the Jackson-bound request and response types and
+ * the SQL scripts reachable even when they are only touched reflectively.
+ */
+class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final Class<?>[] ENTITIES = {
+            CashCard.class, ArchivedCashCard.class, User.class, Family.class, FamilyMember.class, FamilyMemberId.class,
+            IdempotencyRecord.class, IdempotencyRecordId.class, OutboxEvent.class, CardTransaction.class,
+            BalancePoint.class
+    };
+
+    private static final Class<?>[] BOUND_TYPES = {
+            UserRegistrationRequest.class, ChangePasswordRequest.class,
+            CreateFamilyRequest.class, AddFamilyMemberRequest.class, FamilyInvite.class, CashCardFilter.class, CashCardView.class,
+            CashCardLookup.class, SpendingReport.class, SpendingReport.CardSpend.class, SpendingReport.CategorySpend.class,
+            SpendingReport.WeekSpend.class, SpendingReport.MonthSpend.class, BalanceSeries.class, BalanceSeries.Point.class,
+            ImportReport.class, ImportReport.Rejection.class, RebalanceReport.class
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> entity : ENTITIES) {
+            hints.reflection().registerType(entity, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS, MemberCategory.ACCESS_DECLARED_FIELDS);
+        }
+        for (Class<?> type : BOUND_TYPES) {
+            hints.reflection().registerType(type, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.ACCESS_DECLARED_FIELDS);
+        }
+        hints.resources().registerPattern("schema.sql");
+        hints.resources().registerPattern("static/**");
+    }
+}
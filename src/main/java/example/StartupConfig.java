@@ -0,0 +1,20 @@
+package example;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.bind.annotation.RestController;
+
+@Configuration
+public class StartupConfig {
+
+    // With lazy initialization on, controllers (and everything they depend on) are still
+    // built at startup so the first request does not pay for wiring the request path.
+    // Scheduled beans are kept eager by Spring Boot itself.
+    @Bean
+    static LazyInitializationExcludeFilter eagerRequestPath() {
+        return (beanName, beanDefinition, beanType) ->
+                AnnotatedElementUtils.hasAnnotation(beanType, RestController.class);
+    }
+}
@@ -0,0 +1,59 @@
+package example.bulkimport;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Admin-only bulk loading for migrations. The request body is read as a stream, so
+ * arbitrarily large files are never buffered in memory. The client names every import
+ * with an {@code importId} before it starts, so even a request that never gets its
+ * response can be retried under the same id without inserting a row twice.
+ */
+@RestController
+@RequestMapping("/admin/import")
+public class BulkImportController {
+    private static final Pattern IMPORT_ID = Pattern.compile("^[A-Za-z0-9-]{1,36}$");
+
+    private final BulkImportService bulkImportService;
+
+    public BulkImportController(BulkImportService bulkImportService) {
+        this.bulkImportService = bulkImportService;
+    }
+
+    @PostMapping(path = "/users", consumes = { "text/csv", "application/x-ndjson" })
+    private ResponseEntity<ImportReport> importUsers(@RequestParam String importId,
+                                                     @RequestParam(defaultValue = "0") long skip,
+                                                     HttpServletRequest request) throws IOException {
+        var format = ImportFormat.of(request.getContentType()).orElse(null);
+        if(format == null) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+        }
+        if (!IMPORT_ID.matcher(importId).matches()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(bulkImportService.importUsers(request.getInputStream(), format, importId, skip));
+    }
+
+    @PostMapping(path = "/cashcards", consumes = { "text/csv", "application/x-ndjson" })
+    private ResponseEntity<ImportReport> importCashCards(@RequestParam String importId,
+                                                         @RequestParam(defaultValue = "0") long skip,
+                                                         HttpServletRequest request) throws IOException {
+        var format = ImportFormat.of(request.getContentType()).orElse(null);
+        if(format == null) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+        }
+        if (!IMPORT_ID.matcher(importId).matches()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(bulkImportService.importCashCards(request.getInputStream(), format, importId, skip));
+    }
+}
@@ -0,0 +1,314 @@
+package example.bulkimport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import example.shard.ShardRouter;
+import example.user.UsernameFilter;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Streams CSV or NDJSON rows into {@code users} and {@code cash_cards} with JDBC batches.
+ * The input is cut into chunks that are inserted by a pool of workers, each chunk in its
+ * own transaction. A chunk the database refuses is replayed row by row so only the
+ * offending rows are rejected. A chunk that fails for any other reason has its rows
+ * rejected with the cause and holds the checkpoint back, so a resumed run retries it.
+ * <p>
+ * Every commit also records the input lines it covered in {@code import_chunks} on the
+ * same shard. Chunks finish out of order, so rows past the reported checkpoint may already
+ * be in; resuming with the same import id skips them instead of inserting them twice. The
+ * ranges are dropped once an import runs to the end without a failed chunk.
+ */
+@Service
+public class BulkImportService {
+    private static final Pattern USERNAME = Pattern.compile("^[a-zA-Z0-9_-]{3,50}$");
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+
+    private static final String INSERT_USER = "INSERT INTO users (username, password) VALUES (?, ?)";
+    private static final String INSERT_CASH_CARD = "INSERT INTO cash_cards (owner, amount) VALUES (?, ?)";
+    private static final String INSERT_CHUNK = "INSERT INTO import_chunks (import_id, first_line, last_line) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonMapper jsonMapper;
+    private final ShardRouter shards;
+    private final UsernameFilter usernames;
+    private final int chunkSize;
+    private final int workers;
+
+    public BulkImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, JsonMapper jsonMapper, ShardRouter shards, UsernameFilter usernames,
+                             @Value("${cashcard.import.chunk-size:1000}") int chunkSize,
+                             @Value("${cashcard.import.workers:4}") int workers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jsonMapper = jsonMapper;
+        this.shards = shards;
+        this.usernames = usernames;
+        this.chunkSize = chunkSize;
+        this.workers = workers;
+    }
+
+    /**
+     * Rows carry {@code username} and an already BCrypt-hashed {@code password}.
+     */
+    public ImportReport importUsers(InputStream input, ImportFormat format, String importId, long skip) throws IOException {
+        return run("users", INSERT_USER, input, format, importId, skip, row -> usernames.add((String) row[0]), fields -> {
+            var username = required(fields, "username");
+            var password = required(fields, "password");
+            if (!USERNAME.matcher(username).matches()) {
+                throw new IllegalArgumentException("invalid username");
+            }
+            if (!BCRYPT_HASH.matcher(password).matches()) {
+                throw new IllegalArgumentException("password is not a BCrypt hash");
+            }
+            return new Object[] { username, password };
+        });
+    }
+
+    /**
+     * Rows carry {@code owner} and {@code amount}; owners must already exist.
+     */
+    public ImportReport importCashCards(InputStream input, ImportFormat format, String importId, long skip) throws IOException {
+        return run("cash_cards", INSERT_CASH_CARD, input, format, importId, skip, row -> { }, fields -> {
+            var owner = required(fields, "owner");
+            double amount;
+            try {
+                amount = Double.parseDouble(required(fields, "amount"));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("amount is not a number");
+            }
+            if (amount < 0) {
+                throw new IllegalArgumentException("amount is negative");
+            }
+            return new Object[] { owner, amount };
+        });
+    }
+
+    /**
+     * @param importId chosen by the client, so a run that breaks off can be resumed under it
+     * @param inserted told about every row once it has been committed
+     */
+    private ImportReport run(String table, String sql, InputStream input, ImportFormat format, String importId, long skip,
+                             Consumer<Object[]> inserted, Function<Map<String, String>, Object[]> toParameters) throws IOException {
+        var batch = new Batch(importId, sql, inserted, committedLines(importId));
+        var progress = new ImportProgress(table, batch.importId(), skip);
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        // Bounds the parsed-but-not-inserted rows held in memory
+        var inFlight = new Semaphore(workers * 2);
+        long line = 0;
+        try (var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String[] header = null;
+            if (format == ImportFormat.CSV) {
+                var headerLine = reader.readLine();
+                header = headerLine == null ? new String[0] : headerLine.trim().split(",");
+            }
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (line <= skip || text.isBlank()) {
+                    continue;
+                }
+                try {
+                    var fields = format == ImportFormat.CSV ? parseCsv(header, text) : parseJson(text);
+                    chunk.add(new Row(line, toParameters.apply(fields)));
+                } catch (IllegalArgumentException | JacksonException e) {
+                    progress.reject(line, e.getMessage());
+                }
+                if (chunk.size() == chunkSize) {
+                    submit(executor, inFlight, progress, batch, chunk, line);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            submit(executor, inFlight, progress, batch, chunk, line);
+        } finally {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(1, TimeUnit.HOURS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Every line is committed or rejected for good, nothing is left to resume
+        if (!progress.hasFailedChunks()) {
+            shards.forEachShard(shard -> jdbcTemplate.update("DELETE FROM import_chunks WHERE import_id = ?", batch.importId()));
+        }
+        return progress.report(line);
+    }
+
+    /**
+     * The line ranges an earlier run of the import committed, per shard.
+     */
+    private Map<String, NavigableMap<Long, Long>> committedLines(String importId) {
+        Map<String, NavigableMap<Long, Long>> committed = new ConcurrentHashMap<>();
+        shards.forEachShard(shard -> {
+            NavigableMap<Long, Long> ranges = new TreeMap<>();
+            jdbcTemplate.query("SELECT first_line, last_line FROM import_chunks WHERE import_id = ?", row -> {
+                ranges.put(row.getLong(1), row.getLong(2));
+            }, importId);
+            committed.put(shard, ranges);
+        });
+        return committed;
+    }
+
+    private void submit(ExecutorService executor, Semaphore inFlight, ImportProgress progress, Batch batch,
+                        List<Row> rows, long lastLine) {
+        var chunk = progress.chunkStarted(lastLine);
+        inFlight.acquireUninterruptibly();
+        executor.execute(() -> {
+            boolean complete = false;
+            try {
+                complete = insert(progress, batch, rows);
+            } catch (RuntimeException e) {
+                fail(progress, rows, e);
+            } finally {
+                if (complete) {
+                    progress.chunkCompleted(chunk);
+                } else {
+                    progress.chunkFailed();
+                }
+                inFlight.release();
+            }
+        });
+    }
+
+    /**
+     * @return false when rows were rejected for a reason other than the database refusing them
+     */
+    private boolean insert(ImportProgress progress, Batch batch, List<Row> rows) {
+        // Both tables lead with the owning username, which picks the shard
+        var byShard = rows.stream().collect(Collectors.groupingBy(row -> shards.shardFor((String) row.parameters()[0])));
+        boolean complete = true;
+        for (var entry : byShard.entrySet()) {
+            var pending = entry.getValue().stream().filter(row -> !batch.isCommitted(entry.getKey(), row.line())).toList();
+            if (pending.isEmpty()) {
+                continue;
+            }
+            try (var binding = shards.bindShard(entry.getKey())) {
+                complete &= insertOnShard(progress, batch, pending);
+            }
+        }
+        return complete;
+    }
+
+    private boolean insertOnShard(ImportProgress progress, Batch batch, List<Row> rows) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(batch.sql(), rows.stream().map(Row::parameters).toList());
+                jdbcTemplate.update(INSERT_CHUNK, batch.importId(), rows.getFirst().line(), rows.getLast().line());
+            });
+        } catch (DataAccessException batchFailure) {
+            return insertRowByRow(progress, batch, rows);
+        } catch (RuntimeException e) {
+            fail(progress, rows, e);
+            return false;
+        }
+        progress.inserted(rows.size());
+        rows.forEach(row -> batch.inserted().accept(row.parameters()));
+        return true;
+    }
+
+    private boolean insertRowByRow(ImportProgress progress, Batch batch, List<Row> rows) {
+        boolean complete = true;
+        for (Row row : rows) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.update(batch.sql(), row.parameters());
+                    jdbcTemplate.update(INSERT_CHUNK, batch.importId(), row.line(), row.line());
+                });
+            } catch (DataAccessException rowFailure) {
+                progress.reject(row.line(), NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                continue;
+            } catch (RuntimeException e) {
+                fail(progress, List.of(row), e);
+                complete = false;
+                continue;
+            }
+            progress.inserted(1);
+            batch.inserted().accept(row.parameters());
+        }
+        return complete;
+    }
+
+    private static void fail(ImportProgress progress, List<Row> rows, RuntimeException failure) {
+        var cause = NestedExceptionUtils.getMostSpecificCause(failure);
+        var reason = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName();
+        rows.forEach(row -> progress.reject(row.line(), reason));
+    }
+
+    private static Map<String, String> parseCsv(String[] header, String text) {
+        var values = text.split(",", -1);
+        if (values.length != header.length) {
+            throw new IllegalArgumentException("expected " + header.length + " columns but found " + values.length);
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            fields.put(header[i].trim(), values[i].trim());
+        }
+        return fields;
+    }
+
+    private Map<String, String> parseJson(String text) {
+        JsonNode node = jsonMapper.readTree(text);
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("line is not a JSON object");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (var property : node.properties()) {
+            fields.put(property.getKey(), property.getValue().asString());
+        }
+        return fields;
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        var value = fields.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        return value;
+    }
+
+    private record Row(long line, Object[] parameters) {
+    }
+
+    /**
+     * What every chunk of one import needs to insert its rows.
+     */
+    private record Batch(String importId, String sql, Consumer<Object[]> inserted,
+                         Map<String, NavigableMap<Long, Long>> committed) {
+
+        boolean isCommitted(String shard, long line) {
+            var ranges = committed.get(shard);
+            var range = ranges == null ? null : ranges.floorEntry(line);
+            return range != null && line <= range.getValue();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package example.bulkimport;
+
+import java.util.Optional;
+
+import org.springframework.http.MediaType;
+
+public enum ImportFormat {
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final MediaType mediaType;
+
+    ImportFormat(String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    static Optional<ImportFormat> of(String contentType) {
+        if (contentType == null) {
+            return Optional.empty();
+        }
+        var requested = MediaType.parseMediaType(contentType);
+        for (ImportFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(requested)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,77 @@
+package example.bulkimport;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Counters shared by the partitions of one import. Chunks complete out of order, so the
+ * checkpoint only advances over the contiguous prefix of finished chunks; it stops for
+ * good in front of a chunk that failed.
+ */
+class ImportProgress {
+    private static final Logger log = LoggerFactory.getLogger(ImportProgress.class);
+    private static final int MAX_REPORTED_REJECTIONS = 100;
+    private static final int LOG_EVERY_CHUNKS = 50;
+
+    private final String table;
+    private final String importId;
+    private final AtomicLong inserted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final List<ImportReport.Rejection> rejections = new ArrayList<>();
+    private final BitSet completedChunks = new BitSet();
+    private final List<Long> chunkLastLines = new ArrayList<>();
+    private int contiguousChunks;
+    private long checkpointLine;
+    private boolean failedChunks;
+
+    ImportProgress(String table, String importId, long skippedLines) {
+        this.table = table;
+        this.importId = importId;
+        this.checkpointLine = skippedLines;
+    }
+
+    void inserted(int rows) {
+        inserted.addAndGet(rows);
+    }
+
+    synchronized void reject(long line, String reason) {
+        rejected.incrementAndGet();
+        if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+            rejections.add(new ImportReport.Rejection(line, reason));
+        }
+    }
+
+    synchronized int chunkStarted(long lastLine) {
+        chunkLastLines.add(lastLine);
+        return chunkLastLines.size() - 1;
+    }
+
+    synchronized void chunkCompleted(int chunk) {
+        completedChunks.set(chunk);
+        while (completedChunks.get(contiguousChunks)) {
+            checkpointLine = chunkLastLines.get(contiguousChunks);
+            contiguousChunks++;
+        }
+        if (contiguousChunks > 0 && contiguousChunks % LOG_EVERY_CHUNKS == 0) {
+            log.info("Import {} into {}: {} inserted, {} rejected, committed through line {}",
+                    importId, table, inserted.get(), rejected.get(), checkpointLine);
+        }
+    }
+
+    synchronized void chunkFailed() {
+        failedChunks = true;
+    }
+
+    synchronized boolean hasFailedChunks() {
+        return failedChunks;
+    }
+
+    synchronized ImportReport report(long linesRead) {
+        return new ImportReport(importId, linesRead, inserted.get(), rejected.get(), checkpointLine, List.copyOf(rejections));
+    }
+}
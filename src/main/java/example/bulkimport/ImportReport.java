@@ -0,0 +1,15 @@
+package example.bulkimport;
+
+import java.util.List;
+
+/**
+ * Outcome of an import. {@code checkpointLine} is the last input line up to which every
+ * row is committed or rejected; an interrupted import can be resumed from there with
+ * {@code ?skip=} and the same {@code ?importId=}, which skips the later rows that were
+ * committed too.
+ */
+public record ImportReport(String importId, long linesRead, long inserted, long rejected, long checkpointLine, List<Rejection> rejections) {
+
+    public record Rejection(long line, String reason) {
+    }
+}
@@ -0,0 +1,8 @@
+package example.cache;
+
+/**
+ * A cache entry, or with a {@code null} key a whole cache, that changed on node
+ * {@code origin}.
+ */
+public record Invalidation(String origin, String cache, String key) {
+}
@@ -0,0 +1,14 @@
+package example.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidations between the nodes of a deployment. Delivery to every subscribed
+ * node, including the sender, is expected; nodes ignore their own messages.
+ */
+public interface InvalidationTransport {
+
+    void publish(Invalidation invalidation);
+
+    void subscribe(Consumer<Invalidation> listener);
+}
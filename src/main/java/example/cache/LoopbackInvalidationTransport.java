@@ -0,0 +1,30 @@
+package example.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers invalidations synchronously to every subscriber in this JVM. Enough for a single
+ * instance, and for tests that run several {@link NearCaches} nodes side by side; a
+ * multi-instance deployment provides its own {@link InvalidationTransport} bean over a
+ * message broker and sets {@code cashcard.cache.transport} to something else.
+ */
+@Component
+@ConditionalOnProperty(name = "cashcard.cache.transport", havingValue = "loopback", matchIfMissing = true)
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+    private final List<Consumer<Invalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(Invalidation invalidation) {
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+
+    @Override
+    public void subscribe(Consumer<Invalidation> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,109 @@
+package example.cache;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * A per-node cache whose invalidations are broadcast to the other nodes. Entries also
+ * expire after a ttl, which bounds how stale a value read from a lagging replica or
+ * missed by the transport can get. {@code null} values are never cached.
+ */
+public final class NearCache<K, V> {
+    private final String name;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Consumer<Invalidation> broadcast;
+    private final ConcurrentHashMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so a load that raced one is not kept
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    NearCache(String name, long ttlNanos, int maxEntries, Consumer<Invalidation> broadcast, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.ttlNanos = ttlNanos;
+        this.maxEntries = maxEntries;
+        this.broadcast = broadcast;
+        this.hits = Counter.builder("cashcard.cache.gets").tag("cache", name).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cashcard.cache.gets").tag("cache", name).tag("result", "miss").register(meterRegistry);
+        Gauge.builder("cashcard.cache.size", entries, ConcurrentHashMap::size).tag("cache", name).register(meterRegistry);
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        var id = String.valueOf(key);
+        var now = System.nanoTime();
+        var cached = entries.get(id);
+        if (cached != null && now - cached.loadedAt() < ttlNanos) {
+            hits.increment();
+            return cached.value();
+        }
+        misses.increment();
+        var observed = generation.get();
+        var value = loader.apply(key);
+        if (value != null) {
+            if (entries.size() >= maxEntries) {
+                evictOne();
+            }
+            var entry = new Entry<>(value, now);
+            entries.put(id, entry);
+            if (generation.get() != observed) {
+                entries.remove(id, entry);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Drops the entry here and on every other node. Inside a transaction this happens after
+     * commit, so no node can reload the old row in between.
+     */
+    public void invalidate(K key) {
+        afterCommit(String.valueOf(key));
+    }
+
+    public void invalidateAll() {
+        afterCommit(null);
+    }
+
+    void apply(Invalidation invalidation) {
+        generation.incrementAndGet();
+        if (invalidation.key() == null) {
+            entries.clear();
+        } else {
+            entries.remove(invalidation.key());
+        }
+    }
+
+    private void afterCommit(String key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    broadcast.accept(new Invalidation(null, name, key));
+                }
+            });
+        } else {
+            broadcast.accept(new Invalidation(null, name, key));
+        }
+    }
+
+    private void evictOne() {
+        Iterator<String> keys = entries.keySet().iterator();
+        if (keys.hasNext()) {
+            entries.remove(keys.next());
+        }
+    }
+
+    private record Entry<V>(V value, long loadedAt) {
+    }
+}
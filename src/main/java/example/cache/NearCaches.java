@@ -0,0 +1,60 @@
+package example.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This node's {@link NearCache}s. Local invalidations are applied here and published on
+ * the {@link InvalidationTransport}; invalidations from other nodes are applied to the
+ * cache of the same name.
+ */
+@Component
+public class NearCaches {
+    private final String node = UUID.randomUUID().toString();
+    private final Map<String, NearCache<?, ?>> caches = new ConcurrentHashMap<>();
+    private final InvalidationTransport transport;
+    private final MeterRegistry meterRegistry;
+    private final Duration ttl;
+    private final int maxEntries;
+
+    public NearCaches(InvalidationTransport transport, MeterRegistry meterRegistry,
+                      @Value("${cashcard.cache.ttl:PT1M}") Duration ttl,
+                      @Value("${cashcard.cache.max-entries:10000}") int maxEntries) {
+        this.transport = transport;
+        this.meterRegistry = meterRegistry;
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        transport.subscribe(this::receive);
+    }
+
+    public <K, V> NearCache<K, V> create(String name) {
+        var cache = new NearCache<K, V>(name, ttl.toNanos(), maxEntries, this::send, meterRegistry);
+        if (caches.putIfAbsent(name, cache) != null) {
+            throw new IllegalStateException("Cache already exists: " + name);
+        }
+        return cache;
+    }
+
+    private void send(Invalidation invalidation) {
+        var stamped = new Invalidation(node, invalidation.cache(), invalidation.key());
+        caches.get(stamped.cache()).apply(stamped);
+        transport.publish(stamped);
+    }
+
+    private void receive(Invalidation invalidation) {
+        if (node.equals(invalidation.origin())) {
+            return;
+        }
+        var cache = caches.get(invalidation.cache());
+        if (cache != null) {
+            cache.apply(invalidation);
+        }
+    }
+}
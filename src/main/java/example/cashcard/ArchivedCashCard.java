@@ -0,0 +1,39 @@
+package example.cashcard;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "cash_cards_archive")
+public class ArchivedCashCard {
+    @Id
+    private Long id;
+    private Double amount;
+    private String owner;
+    @Column(name = "archived_at")
+    private Instant archivedAt;
+
+    // Default constructor for JPA
+    public ArchivedCashCard() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public Instant getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -0,0 +1,18 @@
+package example.cashcard;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ArchivedCashCardRepository extends JpaRepository<ArchivedCashCard, Long> {
+
+    @Query("select new example.cashcard.CashCardView(c.id, c.amount, c.owner) from ArchivedCashCard c where c.id = :id")
+    Optional<CashCardView> findViewById(@Param("id") Long id);
+
+    @Query("select new example.cashcard.CashCardView(c.id, c.amount, c.owner) from ArchivedCashCard c where c.id in :ids and c.owner in :owners")
+    List<CashCardView> findViewsByIds(@Param("ids") Collection<Long> ids, @Param("owners") Collection<String> owners);
+}
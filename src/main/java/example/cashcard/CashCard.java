@@ -1,10 +1,15 @@
 package example.cashcard;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 
+import java.time.Instant;
 import java.util.Objects;
 
 @Entity
@@ -15,6 +20,12 @@ public class CashCard {
     private Long id;
     private Double amount;
     private String owner;
+    // Filled in by the database default; kept out of the JSON contract
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private Instant createdAt;
+    // Last write, used to find dormant cards for archiving
+    @Column(name = "updated_at")
+    private Instant updatedAt;
 
     // Default constructor for JPA
     public CashCard() {
@@ -38,6 +49,22 @@ public class CashCard {
         return owner;
     }
 
+    @JsonIgnore
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    @JsonIgnore
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
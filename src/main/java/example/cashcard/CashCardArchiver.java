@@ -0,0 +1,119 @@
+package example.cashcard;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import example.shard.ShardRouter;
+
+/**
+ * Moves cards nobody has written to for a while into {@code cash_cards_archive}, keeping
+ * the hot table and its indexes small. Empty cards go after
+ * {@code cashcard.archive.zero-balance-after}, all others after
+ * {@code cashcard.archive.dormant-after}. Each batch is copied and deleted in its own
+ * transaction.
+ */
+@Component
+public class CashCardArchiver {
+    private static final Logger log = LoggerFactory.getLogger(CashCardArchiver.class);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shards;
+    private final Duration dormantAfter;
+    private final Duration zeroBalanceAfter;
+    private final int batchSize;
+
+    public CashCardArchiver(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, ShardRouter shards,
+                            @Value("${cashcard.archive.dormant-after:P365D}") Duration dormantAfter,
+                            @Value("${cashcard.archive.zero-balance-after:P30D}") Duration zeroBalanceAfter,
+                            @Value("${cashcard.archive.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = shards;
+        this.dormantAfter = dormantAfter;
+        this.zeroBalanceAfter = zeroBalanceAfter;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${cashcard.archive.interval:PT1H}")
+    public int archive() {
+        var now = Instant.now();
+        var dormantCutoff = now.minus(dormantAfter);
+        var zeroBalanceCutoff = now.minus(zeroBalanceAfter);
+        var parameters = Map.<String, Object>of(
+                "dormantCutoff", Timestamp.from(dormantCutoff),
+                "zeroBalanceCutoff", Timestamp.from(zeroBalanceCutoff),
+                // Upper bound for the range scan on cash_cards_updated_at_idx
+                "scanCutoff", Timestamp.from(dormantCutoff.isAfter(zeroBalanceCutoff) ? dormantCutoff : zeroBalanceCutoff),
+                "archivedAt", Timestamp.from(now),
+                "batchSize", batchSize);
+        int total = 0;
+        for (String shard : shards.shards()) {
+            try (var binding = shards.bindShard(shard)) {
+                total += archiveShard(parameters);
+            }
+        }
+        if (total > 0) {
+            log.info("Archived {} cash cards", total);
+        }
+        return total;
+    }
+
+    private int archiveShard(Map<String, Object> parameters) {
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveBatch(parameters));
+            total += moved;
+        } while (moved == batchSize);
+        return total;
+    }
+
+    private int archiveBatch(Map<String, Object> parameters) {
+        var ids = jdbcTemplate.queryForList("""
+                SELECT id FROM cash_cards
+                WHERE updated_at < :scanCutoff
+                  AND (updated_at < :dormantCutoff OR (amount = 0 AND updated_at < :zeroBalanceCutoff))
+                ORDER BY updated_at
+                FETCH FIRST :batchSize ROWS ONLY
+                FOR UPDATE
+                """, parameters, Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        var batch = Map.of("ids", ids, "archivedAt", parameters.get("archivedAt"));
+        jdbcTemplate.update("""
+                INSERT INTO cash_cards_archive (id, amount, owner, created_at, updated_at, archived_at)
+                SELECT id, amount, owner, created_at, updated_at, :archivedAt FROM cash_cards WHERE id IN (:ids)
+                """, batch);
+        jdbcTemplate.update("DELETE FROM cash_cards WHERE id IN (:ids)", batch);
+        return ids.size();
+    }
+
+    /**
+     * Moves an archived card back into the hot table, counting the restore as a write.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean restore(Long id) {
+        var parameters = Map.of("id", id);
+        int restored = jdbcTemplate.update("""
+                INSERT INTO cash_cards (id, amount, owner, created_at, updated_at)
+                SELECT id, amount, owner, created_at, CURRENT_TIMESTAMP FROM cash_cards_archive WHERE id = :id
+                """, parameters);
+        jdbcTemplate.update("DELETE FROM cash_cards_archive WHERE id = :id", parameters);
+        return restored == 1;
+    }
+}
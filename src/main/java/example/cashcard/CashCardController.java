@@ -1,12 +1,17 @@
 package example.cashcard;
 
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.util.UriComponentsBuilder;
+
+import example.family.FamilyService;
+import example.idempotency.IdempotencyService;
+import example.report.Ledger;
+
 import java.net.URI;
 import java.security.Principal;
 import java.util.List;
@@ -15,59 +20,104 @@ import java.util.List;
 @RequestMapping("/cashcards")
 public class CashCardController {
 
-    private final CashCardRepository cashCardRepository;
+    private final CashCardService cashCardService;
+    private final FamilyService familyService;
+    private final IdempotencyService idempotencyService;
+    private final int maxIds;
 
-    public CashCardController(CashCardRepository cashCardRepository) {
-        this.cashCardRepository = cashCardRepository;
+    public CashCardController(CashCardService cashCardService,
+                              FamilyService familyService, IdempotencyService idempotencyService,
+                              @Value("${cashcard.multi-get.max-ids:100}") int maxIds) {
+        this.cashCardService = cashCardService;
+        this.familyService = familyService;
+        this.idempotencyService = idempotencyService;
+        this.maxIds = maxIds;
     }
 
     @GetMapping("/{requestedId}")
-    private ResponseEntity<CashCard> findById(@PathVariable Long requestedId, Principal principal) {
-        if(cashCardRepository.existsByIdAndOwner(requestedId, principal.getName())) {
-            var cashCard = cashCardRepository.findByIdAndOwner(requestedId, principal.getName());
-            return ResponseEntity.ok(cashCard);
+    private ResponseEntity<CashCardView> findById(@PathVariable Long requestedId, Principal principal) {
+        return cashCardService.findAccessible(requestedId, principal.getName())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(params = "ids")
+    private ResponseEntity<CashCardLookup> findByIds(@RequestParam List<Long> ids, Principal principal) {
+        if(ids.isEmpty() || ids.size() > maxIds) {
+            return ResponseEntity.badRequest().build();
         }
-        return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(cashCardService.findAccessible(ids, principal.getName()));
     }
 
     @GetMapping
-    private ResponseEntity<List<CashCard>> findAllByOwner(Pageable pageable, Principal principal) {
-        Page<CashCard> page = cashCardRepository.findByOwner(principal.getName(),
+    private ResponseEntity<List<CashCardView>> findAllByOwner(@RequestParam(required = false) Long family, CashCardFilter filter, Pageable pageable, Principal principal) {
+        var sort = pageable.getSortOr(Sort.by(Sort.Direction.ASC, "amount"));
+        if(!filter.isValid() || !CashCardSpecifications.isSortable(sort)) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<String> owners = List.of(principal.getName());
+        if(family != null) {
+            owners = familyService.visibleMembers(principal.getName(), family).orElse(null);
+            if(owners == null) {
+                return ResponseEntity.notFound().build();
+            }
+        }
+        List<CashCardView> page = cashCardService.findPage(owners, filter,
                 PageRequest.of(
                         pageable.getPageNumber(),
                         pageable.getPageSize(),
-                        pageable.getSortOr(Sort.by(Sort.Direction.ASC, "amount"))
+                        sort
                 ));
-        return ResponseEntity.ok(page.getContent());
+        return ResponseEntity.ok(page);
     }
 
     @PostMapping
-    private ResponseEntity<Void> createCashCard(@RequestBody CashCard cashCard, UriComponentsBuilder ucb, Principal principal) {
-        var newCashCard = new CashCard(null, cashCard.getAmount(), principal.getName());
-        cashCardRepository.save(newCashCard);
-        URI locationOfNewCashCard = ucb
-                .path("/cashcards/{id}")
-                .buildAndExpand(newCashCard.getId())
-                .toUri();
-        return ResponseEntity.created(locationOfNewCashCard).build();
+    private ResponseEntity<Void> createCashCard(@RequestBody CashCard cashCard, @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                UriComponentsBuilder ucb, Principal principal) {
+        if (cashCard.getAmount() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return idempotencyService.execute(principal.getName(), idempotencyKey, "POST /cashcards", () -> {
+            var newCashCard = cashCardService.create(cashCard.getAmount(), principal.getName());
+            URI locationOfNewCashCard = ucb
+                    .path("/cashcards/{id}")
+                    .buildAndExpand(newCashCard.getId())
+                    .toUri();
+            return ResponseEntity.created(locationOfNewCashCard).build();
+        });
     }
 
     @PutMapping("/{requestedId}")
-    private ResponseEntity<Void> updateCashCard(@PathVariable Long requestedId, @RequestBody CashCard cashCard, Principal principal) {
-        if(cashCardRepository.existsByIdAndOwner(requestedId, principal.getName())) {
-            var newCashCard = new CashCard(requestedId, cashCard.getAmount(), principal.getName());
-            cashCardRepository.save(newCashCard);
+    private ResponseEntity<Void> updateCashCard(@PathVariable Long requestedId, @RequestBody CashCard cashCard,
+                                                @RequestParam(defaultValue = Ledger.UNCATEGORIZED) String category,
+                                                @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey, Principal principal) {
+        if(cashCard.getAmount() == null || !Ledger.isValidCategory(category)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return idempotencyService.execute(principal.getName(), idempotencyKey, "PUT /cashcards/" + requestedId, () -> {
+            if(cashCardService.update(requestedId, cashCard.getAmount(), category, principal.getName())) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.notFound().build();
+        });
+    }
+
+    @PostMapping("/{requestedId}/restore")
+    private ResponseEntity<Void> restoreCashCard(@PathVariable Long requestedId, Principal principal) {
+        if (cashCardService.restore(requestedId, principal.getName())) {
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.notFound().build();
     }
 
     @DeleteMapping("/{requestedId}")
-    private ResponseEntity<Void> deleteCashCard(@PathVariable Long requestedId, Principal principal) {
-        if(cashCardRepository.existsByIdAndOwner(requestedId, principal.getName())) {
-            cashCardRepository.deleteById(requestedId);
-            return ResponseEntity.noContent().build();
-        }
-        return  ResponseEntity.notFound().build();
+    private ResponseEntity<Void> deleteCashCard(@PathVariable Long requestedId,
+                                                @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey, Principal principal) {
+        return idempotencyService.execute(principal.getName(), idempotencyKey, "DELETE /cashcards/" + requestedId, () -> {
+            if(cashCardService.delete(requestedId, principal.getName())) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.notFound().build();
+        });
     }
 }
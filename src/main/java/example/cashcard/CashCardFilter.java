@@ -0,0 +1,40 @@
+package example.cashcard;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.format.annotation.DateTimeFormat;
+
+/**
+ * Optional range filters accepted by {@code GET /cashcards}. Bounds are inclusive
+ * except {@code createdAfter}, which is strict.
+ */
+public record CashCardFilter(
+        Double minAmount,
+        Double maxAmount,
+        Long minId,
+        Long maxId,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdAfter) {
+
+    public boolean isValid() {
+        return isOrdered(minAmount, maxAmount) && isOrdered(minId, maxId);
+    }
+
+    public Specification<CashCard> toSpecification(Collection<String> owners) {
+        List<Specification<CashCard>> specifications = new ArrayList<>();
+        specifications.add(CashCardSpecifications.ownedBy(owners));
+        if (minAmount != null) specifications.add(CashCardSpecifications.amountAtLeast(minAmount));
+        if (maxAmount != null) specifications.add(CashCardSpecifications.amountAtMost(maxAmount));
+        if (minId != null) specifications.add(CashCardSpecifications.idAtLeast(minId));
+        if (maxId != null) specifications.add(CashCardSpecifications.idAtMost(maxId));
+        if (createdAfter != null) specifications.add(CashCardSpecifications.createdAfter(createdAfter));
+        return Specification.allOf(specifications);
+    }
+
+    private static <T extends Comparable<T>> boolean isOrdered(T min, T max) {
+        return min == null || max == null || min.compareTo(max) <= 0;
+    }
+}
@@ -1,12 +1,25 @@
 package example.cashcard;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface CashCardRepository extends JpaRepository<CashCard, Long> {
+public interface CashCardRepository extends JpaRepository<CashCard, Long>, JpaSpecificationExecutor<CashCard>, CashCardViews {
     CashCard findByIdAndOwner(Long id, String owner);
     boolean existsByIdAndOwner(Long id, String owner);
     Page<CashCard> findByOwner(String owner, Pageable pageable);
     boolean existsByOwner(String username);
+
+    @Query("select new example.cashcard.CashCardView(c.id, c.amount, c.owner) from CashCard c where c.id = :id")
+    Optional<CashCardView> findViewById(@Param("id") Long id);
+
+    @Query("select new example.cashcard.CashCardView(c.id, c.amount, c.owner) from CashCard c where c.id in :ids and c.owner in :owners")
+    List<CashCardView> findViewsByIds(@Param("ids") Collection<Long> ids, @Param("owners") Collection<String> owners);
 }
@@ -0,0 +1,261 @@
+package example.cashcard;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import example.cache.NearCache;
+import example.cache.NearCaches;
+import example.family.FamilyService;
+import example.history.BalanceHistory;
+import example.outbox.Outbox;
+import example.replica.ReadYourWrites;
+import example.report.Ledger;
+import example.user.DatabaseUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Service
+public class CashCardService {
+    static final String CREATED = "CASH_CARD_CREATED";
+    static final String UPDATED = "CASH_CARD_UPDATED";
+    static final String DELETED = "CASH_CARD_DELETED";
+
+    private final CashCardRepository cashCardRepository;
+    private final ArchivedCashCardRepository archivedCashCardRepository;
+    private final CashCardArchiver archiver;
+    private final FamilyService familyService;
+    private final DatabaseUserDetailsService userDetailsService;
+    private final Outbox outbox;
+    private final NearCache<Long, CashCardView> cards;
+    private final OwnershipIndex ownershipIndex;
+    private final SingleFlight<Long, CashCardView> loads;
+    private final SingleFlight<PageQuery, List<CashCardView>> pages;
+    private final ReadYourWrites readYourWrites;
+    private final Ledger ledger;
+    private final BalanceHistory balanceHistory;
+
+    public CashCardService(CashCardRepository cashCardRepository, ArchivedCashCardRepository archivedCashCardRepository,
+                           CashCardArchiver archiver, FamilyService familyService,
+                           DatabaseUserDetailsService userDetailsService, Outbox outbox, NearCaches caches,
+                           OwnershipIndex ownershipIndex, ReadYourWrites readYourWrites, Ledger ledger,
+                           BalanceHistory balanceHistory, MeterRegistry meterRegistry) {
+        this.cashCardRepository = cashCardRepository;
+        this.archivedCashCardRepository = archivedCashCardRepository;
+        this.archiver = archiver;
+        this.familyService = familyService;
+        this.userDetailsService = userDetailsService;
+        this.outbox = outbox;
+        this.cards = caches.create("cash-cards");
+        this.ownershipIndex = ownershipIndex;
+        this.loads = new SingleFlight<>("find-by-id", meterRegistry);
+        this.pages = new SingleFlight<>("find-all", meterRegistry);
+        this.readYourWrites = readYourWrites;
+        this.ledger = ledger;
+        this.balanceHistory = balanceHistory;
+    }
+
+    /**
+     * Served from the near cache when possible, and concurrent misses for the same card share
+     * one load; the access check always runs, against the separately cached family delegations.
+     */
+    public Optional<CashCardView> findAccessible(Long id, String username) {
+        if (ownedByOther(id, username)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cards.get(id, key -> coalesce(loads, key, () -> load(key))))
+                .filter(cashCard -> familyService.canAccess(username, cashCard.owner()));
+    }
+
+    /**
+     * Resolves many ids at once with a single query scoped to the owners {@code username} may
+     * see; ids the ownership index already places elsewhere are not even sent. The archive
+     * is only queried for ids the hot table did not have.
+     */
+    public CashCardLookup findAccessible(List<Long> ids, String username) {
+        var owners = new HashSet<>(familyService.delegatedOwners(username));
+        owners.add(username);
+        var requested = ids.stream().distinct().toList();
+        var candidates = requested.stream().filter(id -> !ownedByOther(id, username)).toList();
+        Map<Long, CashCardView> found = new HashMap<>();
+        if (!candidates.isEmpty()) {
+            cashCardRepository.findViewsByIds(candidates, owners).forEach(view -> found.put(view.id(), view));
+        }
+        var missing = candidates.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            archivedCashCardRepository.findViewsByIds(missing, owners).forEach(view -> found.put(view.id(), view));
+        }
+        List<CashCardView> cashCards = new ArrayList<>();
+        List<Long> notFound = new ArrayList<>();
+        for (Long id : requested) {
+            var cashCard = found.get(id);
+            if (cashCard == null) {
+                notFound.add(id);
+            } else {
+                cashCards.add(cashCard);
+            }
+        }
+        return new CashCardLookup(cashCards, notFound);
+    }
+
+    /**
+     * One page of the listing. Identical requests that arrive while the same page is being
+     * read (several devices opening the dashboard, retrying clients) share that read.
+     */
+    public List<CashCardView> findPage(List<String> owners, CashCardFilter filter, PageRequest page) {
+        return coalesce(pages, new PageQuery(List.copyOf(owners), filter, page),
+                () -> cashCardRepository.findViews(filter.toSpecification(owners), page));
+    }
+
+    /**
+     * A caller pinned to the primary after a write must not share a read that went to the
+     * replica, so it always runs its own.
+     */
+    private <K, V> V coalesce(SingleFlight<K, V> flights, K key, Supplier<V> query) {
+        return readYourWrites.isPinnedToPrimary() ? query.get() : flights.execute(key, query);
+    }
+
+    /**
+     * Looks in the hot table first and falls back to the archive, so archiving is
+     * invisible to single-card reads.
+     */
+    private CashCardView load(Long id) {
+        var cashCard = cashCardRepository.findViewById(id)
+                .or(() -> archivedCashCardRepository.findViewById(id))
+                .orElse(null);
+        if (cashCard != null) {
+            ownershipIndex.put(id, cashCard.owner());
+        }
+        return cashCard;
+    }
+
+    /**
+     * Rejects a card the ownership index knows to belong to someone {@code username} may
+     * not act for, before any query runs. Cards the index does not know yet are left to
+     * the database read.
+     */
+    private boolean ownedByOther(Long id, String username) {
+        var owner = ownershipIndex.ownerOf(id);
+        return owner != null && !familyService.canAccess(username, owner);
+    }
+
+    private Optional<CashCard> findActive(Long id, String username) {
+        if (ownedByOther(id, username)) {
+            return Optional.empty();
+        }
+        return cashCardRepository.findById(id)
+                .filter(cashCard -> familyService.canAccess(username, cashCard.getOwner()));
+    }
+
+    @Transactional
+    public CashCard create(Double amount, String owner) {
+        var cashCard = cashCardRepository.save(new CashCard(null, amount, owner));
+        outbox.append(cashCard.getId(), CREATED, Map.of("id", cashCard.getId(), "amount", amount, "owner", owner));
+        if (amount != 0) {
+            ledger.record(cashCard.getId(), owner, amount, Ledger.DEPOSIT);
+        }
+        balanceHistory.record(cashCard.getId(), amount);
+        ownershipIndex.put(cashCard.getId(), owner);
+        forgetFlights(cashCard.getId(), owner);
+        // The owner's CARD_OWNER role follows their cards
+        userDetailsService.evict(owner);
+        return cashCard;
+    }
+
+    /**
+     * @param category what the change was for, recorded in the ledger the spending reports
+     *                 read
+     * @return false when the card does not exist or {@code username} may not manage it
+     */
+    @Transactional
+    public boolean update(Long id, Double amount, String category, String username) {
+        // Archived cards have to be restored before they can be changed
+        var existing = findActive(id, username).orElse(null);
+        if (existing == null) {
+            return false;
+        }
+        // Read before saving: the save merges into the same managed instance
+        var change = amount - existing.getAmount();
+        // A parent editing a child's card must not take ownership of it
+        cashCardRepository.save(new CashCard(id, amount, existing.getOwner()));
+        outbox.append(id, UPDATED, Map.of("id", id, "amount", amount, "owner", existing.getOwner()));
+        if (change != 0) {
+            ledger.record(id, existing.getOwner(), change, category);
+        }
+        balanceHistory.record(id, amount);
+        cards.invalidate(id);
+        forgetFlights(id, existing.getOwner());
+        return true;
+    }
+
+    @Transactional
+    public boolean delete(Long id, String username) {
+        if (ownedByOther(id, username)) {
+            return false;
+        }
+        var existing = Optional.ofNullable(load(id))
+                .filter(cashCard -> familyService.canAccess(username, cashCard.owner()))
+                .orElse(null);
+        if (existing == null) {
+            return false;
+        }
+        cashCardRepository.deleteById(id);
+        archivedCashCardRepository.deleteById(id);
+        outbox.append(id, DELETED, Map.of("id", id, "owner", existing.owner()));
+        cards.invalidate(id);
+        ownershipIndex.remove(id);
+        forgetFlights(id, existing.owner());
+        userDetailsService.evict(existing.owner());
+        return true;
+    }
+
+    @Transactional
+    public boolean restore(Long id, String username) {
+        if (ownedByOther(id, username)) {
+            return false;
+        }
+        var archived = archivedCashCardRepository.findById(id)
+                .filter(cashCard -> familyService.canAccess(username, cashCard.getOwner()));
+        if (archived.isEmpty() || !archiver.restore(id)) {
+            return false;
+        }
+        forgetFlights(id, archived.get().getOwner());
+        return true;
+    }
+
+    /**
+     * Called once an account's deletion has committed: none of its cards may be served from
+     * the near cache any more, not even to someone registering the same name. Entries are
+     * keyed by card id and accounts are rarely deleted, so the whole cache is dropped.
+     */
+    public void forgetOwner(String owner) {
+        cards.invalidateAll();
+        loads.forget(id -> true);
+        pages.forget(query -> query.owners().contains(owner));
+    }
+
+    /**
+     * Once the write commits, reads still in flight may predate it, so nobody may join them.
+     */
+    private void forgetFlights(Long id, String owner) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                loads.forget(id::equals);
+                pages.forget(query -> query.owners().contains(owner));
+            }
+        });
+    }
+
+    private record PageQuery(List<String> owners, CashCardFilter filter, PageRequest page) {
+    }
+}
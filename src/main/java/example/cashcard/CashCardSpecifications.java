@@ -0,0 +1,54 @@
+package example.cashcard;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Predicates for cash card list queries. Each one is a plain comparison on an indexed
+ * column so that, combined with the owner restriction, it resolves to a range scan on
+ * {@code cash_cards_owner_amount_idx}, {@code cash_cards_owner_created_at_idx} or the
+ * primary key.
+ */
+final class CashCardSpecifications {
+
+    static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "amount", "createdAt");
+
+    private CashCardSpecifications() {
+    }
+
+    static boolean isSortable(Sort sort) {
+        return sort.stream().allMatch(order -> SORTABLE_PROPERTIES.contains(order.getProperty()));
+    }
+
+    static Specification<CashCard> ownedBy(Collection<String> owners) {
+        if (owners.size() == 1) {
+            var owner = owners.iterator().next();
+            return (root, query, cb) -> cb.equal(root.get("owner"), owner);
+        }
+        return (root, query, cb) -> root.get("owner").in(owners);
+    }
+
+    static Specification<CashCard> amountAtLeast(double amount) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.<Double>get("amount"), amount);
+    }
+
+    static Specification<CashCard> amountAtMost(double amount) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.<Double>get("amount"), amount);
+    }
+
+    static Specification<CashCard> idAtLeast(long id) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.<Long>get("id"), id);
+    }
+
+    static Specification<CashCard> idAtMost(long id) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.<Long>get("id"), id);
+    }
+
+    static Specification<CashCard> createdAfter(Instant instant) {
+        return (root, query, cb) -> cb.greaterThan(root.<Instant>get("createdAt"), instant);
+    }
+}
@@ -0,0 +1,9 @@
+package example.cashcard;
+
+/**
+ * The read side of a {@link CashCard}: built straight from a constructor expression, so
+ * listing and fetching cards never load managed entities into the persistence context.
+ * Serializes to the same JSON as the entity.
+ */
+public record CashCardView(Long id, Double amount, String owner) {
+}
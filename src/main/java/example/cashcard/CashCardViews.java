@@ -0,0 +1,18 @@
+package example.cashcard;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Repository fragment for listing {@link CashCardView}s with the same filters as the
+ * entity queries.
+ */
+interface CashCardViews {
+
+    /**
+     * One page of views; unlike {@code findAll(Specification, Pageable)} no count query runs.
+     */
+    List<CashCardView> findViews(Specification<CashCard> specification, Pageable pageable);
+}
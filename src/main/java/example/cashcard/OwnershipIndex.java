@@ -0,0 +1,255 @@
+package example.cashcard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import example.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Card id to owner for every card, hot or archived, kept in memory so authorization can
+ * reject a card that belongs to someone else without a query. Owners are stored as
+ * ordinals in a {@link LongIntHashMap}; readers take an optimistic {@link StampedLock}
+ * stamp and only lock when a write overlapped.
+ * <p>
+ * A card missing from the index is not proof that it does not exist: cards written by
+ * other nodes or straight through SQL appear only after the next rebuild, so callers fall
+ * back to the database and {@link #put} what they find. Owners never change, so an entry
+ * can go stale only by outliving its card, which the database read then reveals.
+ */
+@Component
+public class OwnershipIndex {
+    private static final Logger log = LoggerFactory.getLogger(OwnershipIndex.class);
+    private static final int REMOVED = -2;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shards;
+    private final StampedLock lock = new StampedLock();
+    private final Counter repairs;
+    private LongIntHashMap owners = new LongIntHashMap(1024);
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private String[] names = new String[64];
+    // Writes made while a rebuild scans the database, replayed onto the fresh table
+    private LongIntHashMap changes;
+
+    public OwnershipIndex(JdbcTemplate jdbcTemplate, ShardRouter shards, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.repairs = Counter.builder("cashcard.ownership.repairs")
+                .description("Index entries the consistency check found wrong or missing")
+                .register(meterRegistry);
+        Gauge.builder("cashcard.ownership.size", this, OwnershipIndex::size)
+                .description("Cards held in the ownership index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the owner of the card, or {@code null} when the index does not know it
+     */
+    public String ownerOf(long id) {
+        long stamp = lock.tryOptimisticRead();
+        var owner = lookup(id);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                owner = lookup(id);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return owner;
+    }
+
+    public void put(long id, String owner) {
+        long stamp = lock.writeLock();
+        try {
+            int ordinal = ordinal(owner);
+            owners.put(id, ordinal);
+            if (changes != null) {
+                changes.put(id, ordinal);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the card once the surrounding transaction, if any, has committed.
+     */
+    public void remove(long id) {
+        afterCommit(() -> {
+            long stamp = lock.writeLock();
+            try {
+                owners.remove(id);
+                if (changes != null) {
+                    changes.put(id, REMOVED);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        });
+    }
+
+    public void removeOwner(String owner) {
+        afterCommit(() -> {
+            long stamp = lock.writeLock();
+            try {
+                var ordinal = ordinals.get(owner);
+                if (ordinal != null) {
+                    if (changes != null) {
+                        owners.forEach((id, value) -> {
+                            if (value == ordinal) {
+                                changes.put(id, REMOVED);
+                            }
+                        });
+                    }
+                    owners.removeValue(ordinal);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        });
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return owners.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    /**
+     * Consistency check: reloads every card from the database, counts the entries the live
+     * index had wrong, was missing or still held for deleted cards, and swaps the fresh
+     * table in. Writes that land while the scan runs are replayed onto the fresh table so
+     * none are lost.
+     *
+     * @return the number of entries that were repaired
+     */
+    @Scheduled(fixedDelayString = "${cashcard.ownership-index.check-interval:PT15M}",
+            initialDelayString = "${cashcard.ownership-index.check-interval:PT15M}")
+    public synchronized int rebuild() {
+        long stamp = lock.writeLock();
+        try {
+            changes = new LongIntHashMap(64);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+
+        var fresh = new LongIntHashMap(Math.max(1024, size()));
+        var freshOrdinals = new HashMap<String, Integer>();
+        var freshNames = new ArrayList<String>();
+        try {
+            shards.forEachShard(shard -> jdbcTemplate.query(
+                    "SELECT id, owner FROM cash_cards UNION ALL SELECT id, owner FROM cash_cards_archive",
+                    row -> fresh.put(row.getLong(1), ordinal(row.getString(2), freshOrdinals, freshNames))));
+        } catch (RuntimeException e) {
+            long failed = lock.writeLock();
+            try {
+                changes = null;
+            } finally {
+                lock.unlockWrite(failed);
+            }
+            throw e;
+        }
+
+        var mismatches = new AtomicInteger();
+        stamp = lock.writeLock();
+        try {
+            var replay = changes;
+            changes = null;
+            replay.forEach((id, ordinal) -> {
+                if (ordinal == REMOVED) {
+                    fresh.remove(id);
+                } else {
+                    fresh.put(id, ordinal(names[ordinal], freshOrdinals, freshNames));
+                }
+            });
+            fresh.forEach((id, ordinal) -> {
+                if (!freshNames.get(ordinal).equals(lookup(id))) {
+                    mismatches.incrementAndGet();
+                }
+            });
+            // Entries that outlived their card
+            owners.forEach((id, ordinal) -> {
+                if (fresh.get(id) == LongIntHashMap.MISSING) {
+                    mismatches.incrementAndGet();
+                }
+            });
+            owners = fresh;
+            ordinals.clear();
+            ordinals.putAll(freshOrdinals);
+            names = freshNames.toArray(new String[Math.max(64, freshNames.size() * 2)]);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        repairs.increment(mismatches.get());
+        if (mismatches.get() > 0) {
+            log.info("Ownership index repaired {} entries, now holding {} cards", mismatches.get(), fresh.size());
+        }
+        return mismatches.get();
+    }
+
+    private String lookup(long id) {
+        var names = this.names;
+        int ordinal = owners.get(id);
+        return ordinal >= 0 && ordinal < names.length ? names[ordinal] : null;
+    }
+
+    private static int ordinal(String owner, Map<String, Integer> ordinals, List<String> names) {
+        return ordinals.computeIfAbsent(owner, key -> {
+            names.add(key);
+            return names.size() - 1;
+        });
+    }
+
+    private int ordinal(String owner) {
+        var ordinal = ordinals.get(owner);
+        if (ordinal == null) {
+            ordinal = ordinals.size();
+            if (ordinal == names.length) {
+                names = Arrays.copyOf(names, names.length * 2);
+            }
+            names[ordinal] = owner;
+            ordinals.put(owner, ordinal);
+        }
+        return ordinal;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -30,7 +30,8 @@ public class SecurityConfig {
         http
             .userDetailsService(userDetailsService)
             .authorizeHttpRequests(auth -> auth
-                    .requestMatchers("/cashcards/**").authenticated()
+                    .requestMatchers("/admin/**").hasRole("ADMIN")
+                    .requestMatchers("/cashcards/**", "/families/**", "/actuator/metrics/**").authenticated()
                     .anyRequest().permitAll()
             )
             .httpBasic(Customizer.withDefaults())
@@ -0,0 +1,79 @@
+package example.cashcard;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Collapses concurrent calls for the same key into one execution: the first caller runs
+ * the query on its own thread and everyone who arrives while it is in flight waits for
+ * and shares its result (or its exception). Nothing is kept once the query finishes, so
+ * this never serves a result that was computed before the caller arrived.
+ */
+final class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter shared;
+
+    SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.executed = Counter.builder("cashcard.singleflight.calls").tag("query", name).tag("result", "executed")
+                .description("Calls that ran their query").register(meterRegistry);
+        this.shared = Counter.builder("cashcard.singleflight.calls").tag("query", name).tag("result", "shared")
+                .description("Calls that joined a query already in flight").register(meterRegistry);
+        Gauge.builder("cashcard.singleflight.collapse.ratio", this, SingleFlight::collapseRatio).tag("query", name)
+                .description("Share of calls answered by another caller's query").register(meterRegistry);
+    }
+
+    V execute(K key, Supplier<V> query) {
+        var flight = new CompletableFuture<V>();
+        var existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            shared.increment();
+            return await(existing);
+        }
+        executed.increment();
+        try {
+            var result = query.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Stops later callers from joining the matching flights, for use once a write they
+     * might have missed has committed. Callers already waiting still get the old result.
+     */
+    void forget(Predicate<K> affected) {
+        flights.keySet().removeIf(affected);
+    }
+
+    double collapseRatio() {
+        double total = executed.count() + shared.count();
+        return total == 0 ? 0 : shared.count() / total;
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package example.family;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public class AddFamilyMemberRequest {
+    @NotBlank(message = "Username is required")
+    private String username;
+
+    @NotNull(message = "Role is required")
+    private FamilyRole role;
+
+    public AddFamilyMemberRequest() {
+    }
+
+    public AddFamilyMemberRequest(String username, FamilyRole role) {
+        this.username = username;
+        this.role = role;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public FamilyRole getRole() {
+        return role;
+    }
+
+    public void setRole(FamilyRole role) {
+        this.role = role;
+    }
+}
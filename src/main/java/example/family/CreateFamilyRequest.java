@@ -0,0 +1,25 @@
+package example.family;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public class CreateFamilyRequest {
+    @NotBlank(message = "Family name is required")
+    @Size(max = 100, message = "Family name must be at most 100 characters")
+    private String name;
+
+    public CreateFamilyRequest() {
+    }
+
+    public CreateFamilyRequest(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,141 @@
+package example.family;
+
+import java.net.URI;
+import java.security.Principal;
+import java.util.List;
+
+import jakarta.validation.Valid;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import example.shard.ShardRebalancer;
+import example.shard.ShardRouter;
+import example.user.UserRepository;
+
+@RestController
+@RequestMapping("/families")
+public class FamilyController {
+
+    private final FamilyService familyService;
+    private final UserRepository userRepository;
+    private final ShardRouter shards;
+    private final ObjectProvider<ShardRebalancer> rebalancer;
+
+    public FamilyController(FamilyService familyService, UserRepository userRepository, ShardRouter shards,
+                            ObjectProvider<ShardRebalancer> rebalancer) {
+        this.familyService = familyService;
+        this.userRepository = userRepository;
+        this.shards = shards;
+        this.rebalancer = rebalancer;
+    }
+
+    @PostMapping
+    private ResponseEntity<Void> createFamily(@Valid @RequestBody CreateFamilyRequest request, UriComponentsBuilder ucb, Principal principal) {
+        var family = familyService.createFamily(request.getName(), principal.getName());
+        URI locationOfNewFamily = ucb
+                .path("/families/{id}")
+                .buildAndExpand(family.getId())
+                .toUri();
+        return ResponseEntity.created(locationOfNewFamily).build();
+    }
+
+    @GetMapping("/{familyId}")
+    private ResponseEntity<List<FamilyMember>> findMembers(@PathVariable Long familyId, Principal principal) {
+        if(!familyService.isMember(familyId, principal.getName())) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(familyService.findMembers(familyId));
+    }
+
+    @PostMapping("/{familyId}/members")
+    private ResponseEntity<Void> addMember(@PathVariable Long familyId, @Valid @RequestBody AddFamilyMemberRequest request, Principal principal) {
+        var membership = familyService.findMembership(familyId, principal.getName()).orElse(null);
+        if(membership == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if(membership.getRole() != FamilyRole.PARENT) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        // The new member may live on another shard than the family
+        if(!shards.call(request.getUsername(), () -> userRepository.existsById(request.getUsername()))) {
+            return ResponseEntity.notFound().build();
+        }
+        if(familyService.isMember(familyId, request.getUsername())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        // Joining hands the family's parents the member's cards, so it waits for the member
+        // to accept; the invite lives next to the member's cards until then
+        if(!shards.call(request.getUsername(),
+                () -> familyService.invite(familyId, request.getUsername(), request.getRole(), principal.getName()))) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/invites")
+    private ResponseEntity<List<FamilyInvite>> findInvites(Principal principal) {
+        return ResponseEntity.ok(familyService.findInvites(principal.getName()));
+    }
+
+    @PostMapping("/invites/{familyId}")
+    private ResponseEntity<Void> acceptInvite(@PathVariable Long familyId, Principal principal) {
+        var invite = familyService.findInvite(familyId, principal.getName()).orElse(null);
+        if(invite == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // An invite only stands while whoever sent it is still a parent of the family
+        var inviter = shards.call(invite.invitedBy(), () -> familyService.findMembership(familyId, invite.invitedBy())).orElse(null);
+        if(inviter == null || inviter.getRole() != FamilyRole.PARENT) {
+            familyService.declineInvite(familyId, principal.getName());
+            return ResponseEntity.notFound().build();
+        }
+        var sharding = rebalancer.getIfAvailable();
+        if(sharding == null) {
+            familyService.acceptInvite(invite);
+            familyService.evictCache();
+            return ResponseEntity.noContent().build();
+        }
+        // Family rows reference the member's user row, so the member moves to the family,
+        // joining it in the same transaction
+        if(!sharding.colocate(principal.getName(), shards.shardFor(invite.invitedBy()),
+                shard -> familyService.acceptInvite(shard, invite))) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        familyService.evictCache();
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/invites/{familyId}")
+    private ResponseEntity<Void> declineInvite(@PathVariable Long familyId, Principal principal) {
+        if(!familyService.declineInvite(familyId, principal.getName())) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{familyId}/members/{username}")
+    private ResponseEntity<Void> removeMember(@PathVariable Long familyId, @PathVariable String username, Principal principal) {
+        var membership = familyService.findMembership(familyId, principal.getName()).orElse(null);
+        if(membership == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if(membership.getRole() != FamilyRole.PARENT) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if(!familyService.isMember(familyId, username)) {
+            return ResponseEntity.notFound().build();
+        }
+        familyService.removeMember(familyId, username);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,8 @@
+package example.family;
+
+/**
+ * A pending invitation to join a family. It is kept on the invited user's shard and grants
+ * nothing until that user accepts it.
+ */
+public record FamilyInvite(Long familyId, String username, FamilyRole role, String invitedBy) {
+}
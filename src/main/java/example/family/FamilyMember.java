@@ -0,0 +1,61 @@
+package example.family;
+
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "family_members")
+@IdClass(FamilyMemberId.class)
+public class FamilyMember {
+    @Id
+    @Column(name = "family_id")
+    private Long familyId;
+    @Id
+    private String username;
+    @Enumerated(EnumType.STRING)
+    private FamilyRole role;
+
+    // Default constructor for JPA
+    public FamilyMember() {
+    }
+
+    public FamilyMember(Long familyId, String username, FamilyRole role) {
+        this.familyId = familyId;
+        this.username = username;
+        this.role = role;
+    }
+
+    public Long getFamilyId() {
+        return familyId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public FamilyRole getRole() {
+        return role;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FamilyMember that = (FamilyMember) o;
+        return Objects.equals(familyId, that.familyId) &&
+               Objects.equals(username, that.username) &&
+               role == that.role;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(familyId, username, role);
+    }
+}
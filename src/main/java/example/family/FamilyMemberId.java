@@ -0,0 +1,39 @@
+package example.family;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class FamilyMemberId implements Serializable {
+    private Long familyId;
+    private String username;
+
+    public FamilyMemberId() {
+    }
+
+    public FamilyMemberId(Long familyId, String username) {
+        this.familyId = familyId;
+        this.username = username;
+    }
+
+    public Long getFamilyId() {
+        return familyId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FamilyMemberId that = (FamilyMemberId) o;
+        return Objects.equals(familyId, that.familyId) &&
+               Objects.equals(username, that.username);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(familyId, username);
+    }
+}
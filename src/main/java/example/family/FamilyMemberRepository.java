@@ -0,0 +1,23 @@
+package example.family;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface FamilyMemberRepository extends JpaRepository<FamilyMember, FamilyMemberId> {
+    List<FamilyMember> findByFamilyId(Long familyId);
+    Optional<FamilyMember> findByFamilyIdAndUsername(Long familyId, String username);
+
+    // Everyone sharing a family with a member holding the given role; served by the
+    // username index on the outer side and the primary key on the join side.
+    @Query("""
+            select distinct other.username from FamilyMember member, FamilyMember other
+            where member.familyId = other.familyId
+              and member.username = :username
+              and member.role = :role
+            """)
+    List<String> findUsernamesInFamiliesWhere(@Param("username") String username, @Param("role") FamilyRole role);
+}
@@ -0,0 +1,6 @@
+package example.family;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface FamilyRepository extends JpaRepository<Family, Long> {
+}
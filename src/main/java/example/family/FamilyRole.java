@@ -0,0 +1,6 @@
+package example.family;
+
+public enum FamilyRole {
+    PARENT,
+    CHILD
+}
@@ -0,0 +1,132 @@
+package example.family;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import example.cache.NearCache;
+import example.cache.NearCaches;
+
+@Service
+public class FamilyService {
+    private final FamilyRepository families;
+    private final FamilyMemberRepository members;
+    private final JdbcTemplate jdbcTemplate;
+
+    // username -> owners whose cards that user may act on as a parent
+    private final NearCache<String, Set<String>> delegatedOwners;
+
+    private static final RowMapper<FamilyInvite> INVITE = (rs, rowNum) -> new FamilyInvite(rs.getLong("family_id"),
+            rs.getString("username"), FamilyRole.valueOf(rs.getString("role")), rs.getString("invited_by"));
+
+    public FamilyService(FamilyRepository families, FamilyMemberRepository members, JdbcTemplate jdbcTemplate, NearCaches caches) {
+        this.families = families;
+        this.members = members;
+        this.jdbcTemplate = jdbcTemplate;
+        this.delegatedOwners = caches.create("family-delegations");
+    }
+
+    public boolean canAccess(String username, String owner) {
+        return username.equals(owner) || delegatedOwners(username).contains(owner);
+    }
+
+    public Set<String> delegatedOwners(String username) {
+        return delegatedOwners.get(username,
+                key -> Set.copyOf(members.findUsernamesInFamiliesWhere(key, FamilyRole.PARENT)));
+    }
+
+    /**
+     * Owners whose cards {@code username} sees in the family view: every member for a
+     * parent, only themselves for a child, and empty when they do not belong to the family.
+     */
+    public Optional<List<String>> visibleMembers(String username, Long familyId) {
+        return members.findByFamilyIdAndUsername(familyId, username)
+                .map(member -> member.getRole() == FamilyRole.PARENT
+                        ? members.findByFamilyId(familyId).stream().map(FamilyMember::getUsername).toList()
+                        : List.of(username));
+    }
+
+    public Optional<FamilyMember> findMembership(Long familyId, String username) {
+        return members.findByFamilyIdAndUsername(familyId, username);
+    }
+
+    public List<FamilyMember> findMembers(Long familyId) {
+        return members.findByFamilyId(familyId);
+    }
+
+    public boolean isMember(Long familyId, String username) {
+        return members.existsById(new FamilyMemberId(familyId, username));
+    }
+
+    @Transactional
+    public Family createFamily(String name, String parent) {
+        var family = families.save(new Family(null, name));
+        members.save(new FamilyMember(family.getId(), parent, FamilyRole.PARENT));
+        evictCache();
+        return family;
+    }
+
+    /**
+     * Invites {@code username} on the shard the caller is bound to, which must be theirs.
+     * Returns false when they already have an invite to this family.
+     */
+    public boolean invite(Long familyId, String username, FamilyRole role, String invitedBy) {
+        try {
+            jdbcTemplate.update("INSERT INTO family_invites (family_id, username, role, invited_by) VALUES (?, ?, ?, ?)",
+                    familyId, username, role.name(), invitedBy);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public List<FamilyInvite> findInvites(String username) {
+        return jdbcTemplate.query("SELECT family_id, username, role, invited_by FROM family_invites WHERE username = ?",
+                INVITE, username);
+    }
+
+    public Optional<FamilyInvite> findInvite(Long familyId, String username) {
+        return jdbcTemplate.query("SELECT family_id, username, role, invited_by FROM family_invites WHERE family_id = ? AND username = ?",
+                INVITE, familyId, username).stream().findFirst();
+    }
+
+    public boolean declineInvite(Long familyId, String username) {
+        return jdbcTemplate.update("DELETE FROM family_invites WHERE family_id = ? AND username = ?", familyId, username) > 0;
+    }
+
+    @Transactional
+    public void acceptInvite(FamilyInvite invite) {
+        acceptInvite(jdbcTemplate, invite);
+    }
+
+    /**
+     * Turns the invite into a membership through {@code shard}, for a caller that commits it
+     * together with other writes on that shard; the caller evicts the cache once it has
+     * committed. An invite that is already gone was accepted concurrently and is left alone.
+     */
+    public void acceptInvite(JdbcTemplate shard, FamilyInvite invite) {
+        if(shard.update("DELETE FROM family_invites WHERE family_id = ? AND username = ?", invite.familyId(), invite.username()) == 0) {
+            return;
+        }
+        shard.update("INSERT INTO family_members (family_id, username, role) VALUES (?, ?, ?)",
+                invite.familyId(), invite.username(), invite.role().name());
+    }
+
+    @Transactional
+    public void removeMember(Long familyId, String username) {
+        members.deleteById(new FamilyMemberId(familyId, username));
+        evictCache();
+    }
+
+    // A membership change alters what every other member of that family can reach,
+    // so drop the whole cache, on every node, rather than trying to track the affected entries.
+    public void evictCache() {
+        delegatedOwners.invalidateAll();
+    }
+}
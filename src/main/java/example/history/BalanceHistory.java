@@ -0,0 +1,79 @@
+package example.history;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import example.history.BalanceSeries.Point;
+
+/**
+ * Records every balance a card takes and reads it back as a {@link BalanceSeries}. Rolled
+ * up resolutions are served from {@code balance_rollups}; the raw points recorded since
+ * the last roll-up are summarised on the fly, so a chart is never behind the card.
+ */
+@Component
+public class BalanceHistory {
+    private static final String RAW_POINTS = """
+            SELECT recorded_at, balance FROM balance_points
+            WHERE card_id = ? AND recorded_at >= ? AND recorded_at < ?
+            ORDER BY recorded_at, id
+            """;
+
+    private final BalancePointRepository points;
+    private final JdbcTemplate jdbcTemplate;
+
+    public BalanceHistory(BalancePointRepository points, JdbcTemplate jdbcTemplate) {
+        this.points = points;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Like the outbox and the ledger, the point is committed exactly when the balance is.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long cardId, double balance) {
+        points.save(new BalancePoint(cardId, balance, Instant.now()));
+    }
+
+    public BalanceSeries find(Long cardId, Resolution resolution, Instant from, Instant to) {
+        if (resolution == Resolution.RAW) {
+            var raw = jdbcTemplate.query(RAW_POINTS,
+                    (row, rowNum) -> point(row.getTimestamp(1).toInstant(), row.getDouble(2)),
+                    cardId, Timestamp.from(from), Timestamp.from(to));
+            return new BalanceSeries(cardId, resolution, raw);
+        }
+        // Read first: a roll-up committing meanwhile then only makes the two reads overlap,
+        // which summaries absorb, instead of leaving a gap between them
+        var rolledUpTo = BalanceRollups.rolledUpTo(jdbcTemplate, false);
+        Map<Instant, Point> buckets = new LinkedHashMap<>();
+        jdbcTemplate.query("""
+                SELECT bucket_start, min_balance, max_balance, last_balance FROM balance_rollups
+                WHERE card_id = ? AND resolution = ? AND bucket_start >= ? AND bucket_start < ?
+                ORDER BY bucket_start
+                """,
+                row -> {
+                    var at = row.getTimestamp(1).toInstant();
+                    buckets.put(at, new Point(at, row.getDouble(2), row.getDouble(3), row.getDouble(4)));
+                },
+                cardId, resolution.name(), Timestamp.from(resolution.bucketOf(from)), Timestamp.from(to));
+        if (rolledUpTo.isBefore(to)) {
+            var since = rolledUpTo.isAfter(from) ? rolledUpTo : from;
+            jdbcTemplate.query(RAW_POINTS, row -> {
+                var point = point(resolution.bucketOf(row.getTimestamp(1).toInstant()), row.getDouble(2));
+                buckets.merge(point.at(), point, Point::then);
+            }, cardId, Timestamp.from(since), Timestamp.from(to));
+        }
+        return new BalanceSeries(cardId, resolution, List.copyOf(buckets.values()));
+    }
+
+    private static Point point(Instant at, double balance) {
+        return new Point(at, balance, balance, balance);
+    }
+}
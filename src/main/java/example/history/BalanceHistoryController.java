@@ -0,0 +1,56 @@
+package example.history;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import example.cashcard.CashCardService;
+import example.shard.ShardRouter;
+
+@RestController
+@RequestMapping("/cashcards")
+public class BalanceHistoryController {
+    private static final Duration DEFAULT_SPAN = Duration.ofDays(30);
+
+    private final BalanceHistory balanceHistory;
+    private final CashCardService cashCardService;
+    private final ShardRouter shards;
+
+    public BalanceHistoryController(BalanceHistory balanceHistory, CashCardService cashCardService, ShardRouter shards) {
+        this.balanceHistory = balanceHistory;
+        this.cashCardService = cashCardService;
+        this.shards = shards;
+    }
+
+    /**
+     * The card's balance between {@code from} (default: 30 days before {@code to}) and
+     * {@code to} (default: now). Without {@code resolution} the coarsest rollup that still
+     * draws the range is picked.
+     */
+    @GetMapping("/{requestedId}/history")
+    private ResponseEntity<BalanceSeries> history(@PathVariable Long requestedId,
+                                                  @RequestParam(required = false) String resolution,
+                                                  @RequestParam(required = false) Instant from,
+                                                  @RequestParam(required = false) Instant to, Principal principal) {
+        var end = to != null ? to : Instant.now();
+        var start = from != null ? from : end.minus(DEFAULT_SPAN);
+        var requested = resolution == null ? Resolution.forSpan(Duration.between(start, end)) : Resolution.parse(resolution);
+        if (requested == null || !start.isBefore(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        var cashCard = cashCardService.findAccessible(requestedId, principal.getName()).orElse(null);
+        if (cashCard == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // A parent's request is bound to the parent's shard, the history lives with the card
+        return ResponseEntity.ok(shards.call(cashCard.owner(),
+                () -> balanceHistory.find(requestedId, requested, start, end)));
+    }
+}
@@ -0,0 +1,49 @@
+package example.history;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "balance_points")
+public class BalancePoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "card_id")
+    private Long cardId;
+    private Double balance;
+    @Column(name = "recorded_at")
+    private Instant recordedAt;
+
+    // Default constructor for JPA
+    public BalancePoint() {
+    }
+
+    public BalancePoint(Long cardId, Double balance, Instant recordedAt) {
+        this.cardId = cardId;
+        this.balance = balance;
+        this.recordedAt = recordedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getCardId() {
+        return cardId;
+    }
+
+    public Double getBalance() {
+        return balance;
+    }
+
+    public Instant getRecordedAt() {
+        return recordedAt;
+    }
+}
@@ -0,0 +1,6 @@
+package example.history;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BalancePointRepository extends JpaRepository<BalancePoint, Long> {
+}
@@ -0,0 +1,181 @@
+package example.history;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import example.history.BalanceSeries.Point;
+import example.shard.ShardRouter;
+
+/**
+ * Summarises {@code balance_points} into minute buckets, minutes into hours and hours into
+ * days, moving a watermark forward so every raw point is read once. Only whole minutes
+ * older than {@code cashcard.history.rollup-delay} are rolled up, which leaves in-flight
+ * transactions time to commit. Raw points are then kept for
+ * {@code cashcard.history.raw-retention}; the rollups are kept for good.
+ */
+@Component
+public class BalanceRollups {
+    private static final Logger log = LoggerFactory.getLogger(BalanceRollups.class);
+    private static final String UPSERT = """
+            MERGE INTO balance_rollups (card_id, resolution, bucket_start, min_balance, max_balance, last_balance)
+            KEY (card_id, resolution, bucket_start) VALUES (?, ?, ?, ?, ?, ?)
+            """;
+    private static final String FINER_BUCKETS = """
+            SELECT card_id, bucket_start, min_balance, max_balance, last_balance FROM balance_rollups
+            WHERE resolution = '%s' AND bucket_start >= ? AND bucket_start < ?
+            ORDER BY card_id, bucket_start
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shards;
+    private final Duration delay;
+    private final Duration rawRetention;
+    private final int batchSize;
+
+    public BalanceRollups(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, ShardRouter shards,
+                          @Value("${cashcard.history.rollup-delay:PT10S}") Duration delay,
+                          @Value("${cashcard.history.raw-retention:P7D}") Duration rawRetention,
+                          @Value("${cashcard.history.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = shards;
+        this.delay = delay;
+        this.rawRetention = rawRetention;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return the number of minute buckets written
+     */
+    @Scheduled(fixedDelayString = "${cashcard.history.rollup-interval:PT1M}")
+    public int rollUp() {
+        var to = Instant.now().minus(delay).truncatedTo(ChronoUnit.MINUTES);
+        var total = new AtomicInteger();
+        shards.forEachShard(shard -> total.addAndGet(transactionTemplate.execute(status -> rollUpShard(to))));
+        return total.get();
+    }
+
+    /**
+     * Deletes raw points past their retention, as long as they have been rolled up, and
+     * the history of cards that no longer exist in either table.
+     *
+     * @return the number of raw points deleted
+     */
+    @Scheduled(fixedDelayString = "${cashcard.history.retention-check-interval:PT1H}")
+    public int purge() {
+        var retainedFrom = Instant.now().minus(rawRetention);
+        var total = new AtomicInteger();
+        shards.forEachShard(shard -> {
+            var rolledUpTo = rolledUpTo(jdbcTemplate, false);
+            var cutoff = Timestamp.from(rolledUpTo.isBefore(retainedFrom) ? rolledUpTo : retainedFrom);
+            int deleted;
+            do {
+                deleted = transactionTemplate.execute(status -> jdbcTemplate.update("""
+                        DELETE FROM balance_points WHERE id IN (
+                            SELECT id FROM balance_points WHERE recorded_at < ? FETCH FIRST ? ROWS ONLY)
+                        """, cutoff, batchSize));
+                total.addAndGet(deleted);
+            } while (deleted > 0);
+            for (String table : new String[] { "balance_points", "balance_rollups" }) {
+                sweepOrphans(table);
+            }
+        });
+        if (total.get() > 0) {
+            log.info("Deleted {} balance points past their retention", total.get());
+        }
+        return total.get();
+    }
+
+    /**
+     * Walks the cards with history in {@code table} by id, {@code batchSize} cards at a time,
+     * so each delete only looks at and locks the rows of one batch.
+     */
+    private void sweepOrphans(String table) {
+        long after = Long.MIN_VALUE;
+        List<Long> cards;
+        do {
+            cards = jdbcTemplate.queryForList("SELECT DISTINCT card_id FROM %s WHERE card_id > ? ORDER BY card_id FETCH FIRST ? ROWS ONLY"
+                    .formatted(table), Long.class, after, batchSize);
+            if (cards.isEmpty()) {
+                return;
+            }
+            long from = after;
+            long to = cards.getLast();
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("""
+                    DELETE FROM %s history
+                    WHERE card_id > ? AND card_id <= ?
+                      AND NOT EXISTS (SELECT 1 FROM cash_cards c WHERE c.id = history.card_id)
+                      AND NOT EXISTS (SELECT 1 FROM cash_cards_archive a WHERE a.id = history.card_id)
+                    """.formatted(table), from, to));
+            after = to;
+        } while (cards.size() == batchSize);
+    }
+
+    private int rollUpShard(Instant to) {
+        var from = rolledUpTo(jdbcTemplate, true);
+        if (!from.isBefore(to)) {
+            return 0;
+        }
+        var minutes = summarise(Resolution.MINUTE, """
+                SELECT card_id, recorded_at, balance, balance, balance FROM balance_points
+                WHERE recorded_at >= ? AND recorded_at < ?
+                ORDER BY card_id, recorded_at, id
+                """, from, to);
+        upsert(Resolution.MINUTE, minutes);
+        // Hours and days that already had buckets are recomputed whole from the level below
+        upsert(Resolution.HOUR, summarise(Resolution.HOUR, FINER_BUCKETS.formatted(Resolution.MINUTE), Resolution.HOUR.bucketOf(from), to));
+        upsert(Resolution.DAY, summarise(Resolution.DAY, FINER_BUCKETS.formatted(Resolution.HOUR), Resolution.DAY.bucketOf(from), to));
+        jdbcTemplate.update("UPDATE balance_rollup_watermark SET rolled_up_to = ? WHERE id = 1", Timestamp.from(to));
+        return minutes.size();
+    }
+
+    /**
+     * Folds rows of (card, instant, min, max, last), ordered by card and time, into buckets.
+     */
+    private Map<Bucket, Point> summarise(Resolution resolution, String sql, Instant from, Instant to) {
+        Map<Bucket, Point> buckets = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, row -> {
+            var point = new Point(resolution.bucketOf(row.getTimestamp(2).toInstant()),
+                    row.getDouble(3), row.getDouble(4), row.getDouble(5));
+            buckets.merge(new Bucket(row.getLong(1), point.at()), point, Point::then);
+        }, Timestamp.from(from), Timestamp.from(to));
+        return buckets;
+    }
+
+    private void upsert(Resolution resolution, Map<Bucket, Point> buckets) {
+        if (buckets.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT, buckets.entrySet().stream()
+                .map(entry -> new Object[] { entry.getKey().cardId(), resolution.name(), Timestamp.from(entry.getKey().start()),
+                        entry.getValue().min(), entry.getValue().max(), entry.getValue().last() })
+                .toList());
+    }
+
+    /**
+     * @param lock whether to lock the watermark, so that nodes rolling up take turns
+     */
+    static Instant rolledUpTo(JdbcTemplate jdbcTemplate, boolean lock) {
+        return jdbcTemplate.queryForObject("SELECT rolled_up_to FROM balance_rollup_watermark WHERE id = 1" + (lock ? " FOR UPDATE" : ""),
+                Timestamp.class).toInstant();
+    }
+
+    private record Bucket(long cardId, Instant start) {
+    }
+}
@@ -0,0 +1,22 @@
+package example.history;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A card's balance over time at one resolution. Each point summarises the changes in the
+ * bucket starting at {@code at}: the lowest and highest balance and the balance it ended
+ * with. Raw points have all three equal.
+ */
+public record BalanceSeries(Long cardId, Resolution resolution, List<Point> points) {
+
+    public record Point(Instant at, double min, double max, double last) {
+
+        /**
+         * This bucket followed by a later one.
+         */
+        Point then(Point later) {
+            return new Point(at, Math.min(min, later.min), Math.max(max, later.max), later.last);
+        }
+    }
+}
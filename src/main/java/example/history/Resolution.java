@@ -0,0 +1,51 @@
+package example.history;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Granularity of a balance history. {@code RAW} is every recorded change; the others are
+ * UTC-aligned buckets kept in {@code balance_rollups}.
+ */
+public enum Resolution {
+    RAW(null),
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    Resolution(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * @return the resolution named {@code value}, in any case, or {@code null}
+     */
+    public static Resolution parse(String value) {
+        try {
+            return valueOf(value.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The rollup that keeps a chart of the range to a few hundred buckets at most.
+     */
+    public static Resolution forSpan(Duration span) {
+        if (span.compareTo(Duration.ofDays(1)) <= 0) {
+            return MINUTE;
+        }
+        if (span.compareTo(Duration.ofDays(31)) <= 0) {
+            return HOUR;
+        }
+        return DAY;
+    }
+
+    Instant bucketOf(Instant instant) {
+        return unit == null ? instant : instant.truncatedTo(unit);
+    }
+}
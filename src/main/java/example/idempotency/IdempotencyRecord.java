@@ -0,0 +1,66 @@
+package example.idempotency;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+/**
+ * The first response produced for an {@code Idempotency-Key}, replayed to any retry of
+ * the same request until it expires.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@IdClass(IdempotencyRecordId.class)
+public class IdempotencyRecord {
+    @Id
+    private String owner;
+    @Id
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+    private String request;
+    private int status;
+    private String location;
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    // Default constructor for JPA
+    public IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String owner, String idempotencyKey, String request, int status, String location, Instant createdAt) {
+        this.owner = owner;
+        this.idempotencyKey = idempotencyKey;
+        this.request = request;
+        this.status = status;
+        this.location = location;
+        this.createdAt = createdAt;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String getRequest() {
+        return request;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,39 @@
+package example.idempotency;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class IdempotencyRecordId implements Serializable {
+    private String owner;
+    private String idempotencyKey;
+
+    public IdempotencyRecordId() {
+    }
+
+    public IdempotencyRecordId(String owner, String idempotencyKey) {
+        this.owner = owner;
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IdempotencyRecordId that = (IdempotencyRecordId) o;
+        return Objects.equals(owner, that.owner) &&
+               Objects.equals(idempotencyKey, that.idempotencyKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(owner, idempotencyKey);
+    }
+}
@@ -0,0 +1,96 @@
+package example.idempotency;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import example.shard.ShardRouter;
+
+/**
+ * Runs write handlers at most once per {@code Idempotency-Key} and owner. The handler and
+ * the record of its response commit together, so a retry either finds the stored response
+ * or runs against a database in which the first attempt left no trace.
+ */
+@Service
+public class IdempotencyService {
+    public static final String HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository records;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shards;
+    private final Duration ttl;
+
+    public IdempotencyService(IdempotencyRecordRepository records, PlatformTransactionManager transactionManager, ShardRouter shards,
+                              @Value("${cashcard.idempotency.ttl:PT24H}") Duration ttl) {
+        this.records = records;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = shards;
+        this.ttl = ttl;
+    }
+
+    /**
+     * @param request identifies the operation (method and path), so a key reused for a
+     *                different request is rejected instead of replaying an unrelated response
+     */
+    public ResponseEntity<Void> execute(String owner, String key, String request, Supplier<ResponseEntity<Void>> write) {
+        if (key == null) {
+            return write.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+        var stored = findLive(owner, key);
+        if (stored.isPresent()) {
+            return replay(stored.get(), request);
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                var response = write.get();
+                var location = response.getHeaders().getLocation();
+                records.saveAndFlush(new IdempotencyRecord(owner, key, request, response.getStatusCode().value(),
+                        location == null ? null : location.toString(), Instant.now()));
+                return response;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent attempt with the same key committed first and ours was rolled back
+            return findLive(owner, key)
+                    .map(record -> replay(record, request))
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cashcard.idempotency.cleanup-interval:PT10M}")
+    public void removeExpired() {
+        var cutoff = Instant.now().minus(ttl);
+        shards.forEachShard(shard -> records.deleteCreatedBefore(cutoff));
+    }
+
+    private Optional<IdempotencyRecord> findLive(String owner, String key) {
+        var cutoff = Instant.now().minus(ttl);
+        return records.findById(new IdempotencyRecordId(owner, key))
+                .filter(record -> record.getCreatedAt().isAfter(cutoff));
+    }
+
+    private ResponseEntity<Void> replay(IdempotencyRecord record, String request) {
+        if (!record.getRequest().equals(request)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+        }
+        var response = ResponseEntity.status(record.getStatus()).header(REPLAYED_HEADER, "true");
+        if (record.getLocation() != null) {
+            response.header("Location", record.getLocation());
+        }
+        return response.build();
+    }
+}
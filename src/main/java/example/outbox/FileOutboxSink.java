@@ -0,0 +1,32 @@
+package example.outbox;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Appends each event as one tab-separated line (id, type, payload) to a local file.
+ */
+@Component
+@ConditionalOnProperty(name = "cashcard.outbox.sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+    private final Path file;
+
+    public FileOutboxSink(@Value("${cashcard.outbox.file:outbox-events.log}") Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) throws IOException {
+        var lines = events.stream()
+                .map(event -> event.getId() + "\t" + event.getEventType() + "\t" + event.getPayload())
+                .toList();
+        Files.write(file, lines, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,30 @@
+package example.outbox;
+
+import java.time.Instant;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Records change events next to the mutation that caused them. Appending requires an
+ * active transaction, so an event exists exactly when its change was committed.
+ */
+@Component
+public class Outbox {
+    private final OutboxEventRepository events;
+    private final JsonMapper jsonMapper;
+
+    public Outbox(OutboxEventRepository events, JsonMapper jsonMapper) {
+        this.events = events;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(Long aggregateId, String eventType, Map<String, Object> payload) {
+        events.save(new OutboxEvent(aggregateId, eventType, jsonMapper.writeValueAsString(payload), Instant.now()));
+    }
+}
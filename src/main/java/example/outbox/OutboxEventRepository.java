@@ -0,0 +1,12 @@
+package example.outbox;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    List<OutboxEvent> findByOrderByIdAsc(Pageable pageable);
+    Optional<OutboxEvent> findFirstByOrderByIdAsc();
+}
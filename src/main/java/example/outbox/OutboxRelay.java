@@ -0,0 +1,90 @@
+package example.outbox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import example.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Drains the outbox in id order into the configured {@link OutboxSink}. Rows are deleted
+ * only after the sink accepted them, giving at-least-once delivery.
+ */
+@Component
+public class OutboxRelay {
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository events;
+    private final OutboxSink sink;
+    private final ShardRouter shards;
+    private final int batchSize;
+    private final Counter published;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelay(OutboxEventRepository events, OutboxSink sink, ShardRouter shards, MeterRegistry meterRegistry,
+                       @Value("${cashcard.outbox.batch-size:500}") int batchSize) {
+        this.events = events;
+        this.sink = sink;
+        this.shards = shards;
+        this.batchSize = batchSize;
+        this.published = Counter.builder("cashcard.outbox.published")
+                .description("Outbox events handed to the sink")
+                .register(meterRegistry);
+        Gauge.builder("cashcard.outbox.pending", pending, AtomicLong::get)
+                .description("Outbox events waiting to be relayed")
+                .register(meterRegistry);
+        Gauge.builder("cashcard.outbox.lag", lagMillis, value -> value.get() / 1000.0)
+                .description("Age in seconds of the oldest event still in the outbox")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${cashcard.outbox.poll-interval:PT1S}")
+    public void drain() {
+        var pendingEvents = new AtomicLong();
+        var oldest = new AtomicLong();
+        shards.forEachShard(shard -> {
+            drainShard();
+            pendingEvents.addAndGet(events.count());
+            oldest.accumulateAndGet(lagMillis(), Math::max);
+        });
+        pending.set(pendingEvents.get());
+        lagMillis.set(oldest.get());
+    }
+
+    private void drainShard() {
+        List<OutboxEvent> batch;
+        do {
+            batch = events.findByOrderByIdAsc(PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            try {
+                sink.publish(batch);
+            } catch (Exception e) {
+                log.warn("Outbox sink failed, {} events will be retried", batch.size(), e);
+                break;
+            }
+            events.deleteAllByIdInBatch(batch.stream().map(OutboxEvent::getId).toList());
+            published.increment(batch.size());
+        } while (batch.size() == batchSize);
+    }
+
+    private long lagMillis() {
+        return events.findFirstByOrderByIdAsc()
+                .map(oldest -> Duration.between(oldest.getCreatedAt(), Instant.now()).toMillis())
+                .orElse(0L);
+    }
+}
@@ -0,0 +1,12 @@
+package example.outbox;
+
+import java.util.List;
+
+/**
+ * Destination for relayed outbox events. A batch only leaves the outbox once
+ * {@link #publish} returns, so implementations must tolerate seeing an event again after
+ * a failure or restart.
+ */
+public interface OutboxSink {
+    void publish(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,52 @@
+package example.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(AuthenticationEvent.NAME)
+@Label("Authentication")
+@Description("A user lookup for authentication")
+@Category({ "Cash Card", "Security" })
+@StackTrace(false)
+public final class AuthenticationEvent extends jdk.jfr.Event {
+    static final String NAME = "example.cashcard.Authentication";
+
+    @Label("Owner Hash")
+    int ownerHash;
+
+    @Label("SQL Statements")
+    long sqlCount;
+
+    @Label("Found")
+    boolean found;
+
+    transient long sqlAtStart;
+
+    /**
+     * Starts timing a lookup of {@code username}; a no-op unless a recording asks for it.
+     */
+    public static AuthenticationEvent start(String username) {
+        var event = new AuthenticationEvent();
+        if (event.isEnabled()) {
+            event.ownerHash = Profiling.ownerHash(username);
+            event.sqlAtStart = SqlStatementCounter.current();
+            event.begin();
+        }
+        return event;
+    }
+
+    public void complete(boolean found) {
+        if (!isEnabled()) {
+            return;
+        }
+        end();
+        if (shouldCommit()) {
+            this.found = found;
+            this.sqlCount = SqlStatementCounter.current() - sqlAtStart;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package example.profiling;
+
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records how long each request kept pool connections checked out, as the
+ * {@code cashcard.request.connection.hold} timer tagged by route. Measured after the
+ * response has been written, so a connection still bound during serialization shows up.
+ */
+class ConnectionHoldInterceptor implements HandlerInterceptor {
+    private static final String START = ConnectionHoldInterceptor.class.getName() + ".start";
+
+    private final MeterRegistry meterRegistry;
+
+    ConnectionHoldInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            request.setAttribute(START, ConnectionHoldTracker.current());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(START) instanceof Long start)) {
+            return;
+        }
+        Timer.builder("cashcard.request.connection.hold")
+                .description("Time a request held JDBC connections")
+                .tag("method", request.getMethod())
+                .tag("uri", String.valueOf(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)))
+                .register(meterRegistry)
+                .record(ConnectionHoldTracker.current() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,42 @@
+package example.profiling;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Accumulates, per thread, how long Hibernate sessions keep a JDBC connection checked out
+ * of the pool. Registered through {@code hibernate.session.events.auto}, which creates one
+ * listener per session; like {@link SqlStatementCounter}, plain {@code JdbcTemplate} work
+ * outside a JPA transaction is not seen.
+ */
+public class ConnectionHoldTracker implements SessionEventListener {
+    // [0] nanos held by released connections, [1] acquisition time of the one still held
+    private static final ThreadLocal<long[]> HELD = ThreadLocal.withInitial(() -> new long[2]);
+
+    private long acquiredAt;
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        acquiredAt = System.nanoTime();
+        HELD.get()[1] = acquiredAt;
+    }
+
+    @Override
+    public void jdbcConnectionReleaseEnd() {
+        if (acquiredAt == 0) {
+            return;
+        }
+        var held = HELD.get();
+        held[0] += System.nanoTime() - acquiredAt;
+        held[1] = 0;
+        acquiredAt = 0;
+    }
+
+    /**
+     * Nanoseconds this thread has held connections so far, including one still open;
+     * callers take differences.
+     */
+    public static long current() {
+        var held = HELD.get();
+        return held[1] == 0 ? held[0] : held[0] + System.nanoTime() - held[1];
+    }
+}
@@ -0,0 +1,36 @@
+package example.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(EndpointEvent.NAME)
+@Label("Endpoint")
+@Description("A request handled by a controller")
+@Category({ "Cash Card", "Web" })
+@StackTrace(false)
+final class EndpointEvent extends jdk.jfr.Event {
+    static final String NAME = "example.cashcard.Endpoint";
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Owner Hash")
+    int ownerHash;
+
+    @Label("SQL Statements")
+    long sqlCount;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+
+    @Label("Status")
+    int status;
+
+    transient long sqlAtStart;
+    transient long allocatedAtStart;
+}
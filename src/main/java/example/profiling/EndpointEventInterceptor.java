@@ -0,0 +1,47 @@
+package example.profiling;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Wraps every controller handler in an {@link EndpointEvent} carrying the route pattern,
+ * the caller's owner hash, and the SQL statements and bytes allocated while handling it.
+ */
+class EndpointEventInterceptor implements HandlerInterceptor {
+    private static final String EVENT = EndpointEventInterceptor.class.getName() + ".event";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        var event = new EndpointEvent();
+        if (event.isEnabled()) {
+            event.sqlAtStart = SqlStatementCounter.current();
+            event.allocatedAtStart = Profiling.allocatedBytes();
+            event.begin();
+            request.setAttribute(EVENT, event);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(EVENT) instanceof EndpointEvent event)) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.endpoint = request.getMethod() + " " + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            event.ownerHash = Profiling.currentOwnerHash();
+            event.sqlCount = SqlStatementCounter.current() - event.sqlAtStart;
+            event.allocated = Profiling.allocatedBytes() - event.allocatedAtStart;
+            event.status = response.getStatus();
+            event.commit();
+        }
+    }
+}
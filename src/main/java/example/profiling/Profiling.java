@@ -0,0 +1,69 @@
+package example.profiling;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Helpers shared by the JFR events. Owners are recorded as an HMAC keyed with
+ * {@code cashcard.profiling.owner-hash-key}, so recordings can be shared without the
+ * usernames in them: without the key a hash cannot be matched against a list of names.
+ * With no key configured each process draws a random one.
+ */
+final class Profiling {
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final String HMAC = "HmacSHA256";
+
+    private static volatile SecretKeySpec ownerKey = randomKey();
+
+    private Profiling() {
+    }
+
+    /**
+     * The same key on every node makes owners comparable across their recordings.
+     */
+    static void useOwnerKey(String secret) {
+        ownerKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC);
+    }
+
+    private static SecretKeySpec randomKey() {
+        var key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return new SecretKeySpec(key, HMAC);
+    }
+
+    static int ownerHash(String username) {
+        if (username == null) {
+            return 0;
+        }
+        try {
+            var mac = Mac.getInstance(HMAC);
+            mac.init(ownerKey);
+            return ByteBuffer.wrap(mac.doFinal(username.getBytes(StandardCharsets.UTF_8))).getInt();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static int currentOwnerHash() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return 0;
+        }
+        return ownerHash(authentication.getName());
+    }
+
+    static long allocatedBytes() {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+}
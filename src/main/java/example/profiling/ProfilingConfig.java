@@ -0,0 +1,49 @@
+package example.profiling;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hooks the JFR events into Spring MVC and Spring Data. The events cost an
+ * {@code isEnabled()} check until a recording enables them. Connection hold time per
+ * request is always recorded as a metric.
+ */
+@Configuration(proxyBeanMethods = false)
+class ProfilingConfig implements WebMvcConfigurer {
+    private final MeterRegistry meterRegistry;
+
+    ProfilingConfig(MeterRegistry meterRegistry, @Value("${cashcard.profiling.owner-hash-key:}") String ownerHashKey) {
+        this.meterRegistry = meterRegistry;
+        if (!ownerHashKey.isBlank()) {
+            Profiling.useOwnerKey(ownerHashKey);
+        }
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new EndpointEventInterceptor());
+        registry.addInterceptor(new ConnectionHoldInterceptor(meterRegistry));
+    }
+
+    @Bean
+    static BeanPostProcessor repositoryEventPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> proxyFactory.addAdvice(
+                                    new RepositoryEventInterceptor(information.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,119 @@
+package example.profiling;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * On-demand JFR recordings with the JDK's {@code profile} settings (allocation samples,
+ * lock contention) plus the application's own events. A recording stops by itself after
+ * {@code duration}; the file can then be downloaded once and is discarded afterwards, or
+ * after {@link #DOWNLOAD_WINDOW} if nobody fetches it. Only running recordings count
+ * towards the limit.
+ */
+@RestController
+@RequestMapping("/admin/profiling/recordings")
+public class ProfilingController {
+    private static final Duration MAX_DURATION = Duration.ofMinutes(5);
+    private static final int MAX_RECORDINGS = 3;
+    private static final Duration DOWNLOAD_WINDOW = Duration.ofHours(1);
+
+    private final Map<Long, Recording> recordings = new ConcurrentHashMap<>();
+
+    @PostMapping
+    private ResponseEntity<Void> start(@RequestParam(defaultValue = "PT30S") Duration duration, UriComponentsBuilder ucb)
+            throws IOException, ParseException {
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(MAX_DURATION) > 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        expireStopped();
+        if (recordings.values().stream().filter(recording -> recording.getState() != RecordingState.STOPPED).count()
+                >= MAX_RECORDINGS) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        var recording = new Recording(Configuration.getConfiguration("profile"));
+        recording.setName("cashcard-on-demand");
+        recording.setDuration(duration);
+        recording.setToDisk(true);
+        recording.start();
+        recordings.put(recording.getId(), recording);
+        URI location = ucb.path("/admin/profiling/recordings/{id}").buildAndExpand(recording.getId()).toUri();
+        return ResponseEntity.accepted().location(location).build();
+    }
+
+    @GetMapping("/{id}")
+    private ResponseEntity<Resource> download(@PathVariable long id) throws IOException {
+        var recording = recordings.get(id);
+        if (recording == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (recording.getState() != RecordingState.STOPPED) {
+            return ResponseEntity.accepted().build();
+        }
+        // The converter closes the stream once the file is written out, which discards it
+        var file = new FilterInputStream(recording.getStream(null, null)) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    discard(id);
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"recording-" + id + ".jfr\"")
+                .body(new InputStreamResource(file));
+    }
+
+    @DeleteMapping("/{id}")
+    private ResponseEntity<Void> delete(@PathVariable long id) {
+        if (!discard(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private void expireStopped() {
+        var expired = Instant.now().minus(DOWNLOAD_WINDOW);
+        recordings.values().stream()
+                .filter(recording -> recording.getState() == RecordingState.STOPPED && recording.getStopTime().isBefore(expired))
+                .map(Recording::getId)
+                .toList()
+                .forEach(this::discard);
+    }
+
+    private boolean discard(long id) {
+        var recording = recordings.remove(id);
+        if (recording == null) {
+            return false;
+        }
+        recording.close();
+        return true;
+    }
+}
@@ -0,0 +1,25 @@
+package example.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(RepositoryEvent.NAME)
+@Label("Repository Call")
+@Description("A call to a Spring Data repository")
+@Category({ "Cash Card", "Persistence" })
+@StackTrace(false)
+final class RepositoryEvent extends jdk.jfr.Event {
+    static final String NAME = "example.cashcard.Repository";
+
+    @Label("Method")
+    String method;
+
+    @Label("Owner Hash")
+    int ownerHash;
+
+    @Label("SQL Statements")
+    long sqlCount;
+}
@@ -0,0 +1,36 @@
+package example.profiling;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Added to every Spring Data repository proxy by {@link ProfilingConfig}.
+ */
+class RepositoryEventInterceptor implements MethodInterceptor {
+    private final String repository;
+
+    RepositoryEventInterceptor(String repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        var event = new RepositoryEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+        var sqlAtStart = SqlStatementCounter.current();
+        event.begin();
+        try {
+            return invocation.proceed();
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = repository + "." + invocation.getMethod().getName();
+                event.ownerHash = Profiling.currentOwnerHash();
+                event.sqlCount = SqlStatementCounter.current() - sqlAtStart;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package example.profiling;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on each thread. Registered through
+ * {@code hibernate.session_factory.statement_inspector}; statements issued directly through
+ * {@code JdbcTemplate} are not seen.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * Statements prepared on this thread so far; callers take differences.
+     */
+    public static long current() {
+        return COUNT.get()[0];
+    }
+}
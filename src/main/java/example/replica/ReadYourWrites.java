@@ -0,0 +1,78 @@
+package example.replica;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers who wrote recently so their reads skip the replica until it has had
+ * {@code cashcard.replica.read-your-writes} to catch up. Pinning is per thread and is
+ * checked by {@link ReadWriteRoutingDataSource} when a connection is taken.
+ */
+@Component
+public class ReadYourWrites {
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final long windowNanos;
+
+    public ReadYourWrites(@Value("${cashcard.replica.read-your-writes:PT5S}") Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void recordWrite(String owner) {
+        lastWrites.put(owner, System.nanoTime());
+    }
+
+    public boolean wroteRecently(String owner) {
+        var written = lastWrites.get(owner);
+        return written != null && System.nanoTime() - written < windowNanos;
+    }
+
+    /**
+     * Sends every read on this thread to the primary until the returned pin is closed.
+     */
+    public Pin pinToPrimary() {
+        var previous = PINNED.get();
+        PINNED.set(Boolean.TRUE);
+        return () -> {
+            if (previous == null) {
+                PINNED.remove();
+            } else {
+                PINNED.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Runs a read for the owner, on the primary if the owner wrote recently.
+     */
+    public <T> T call(String owner, Supplier<T> read) {
+        if (!wroteRecently(owner)) {
+            return read.get();
+        }
+        try (var pin = pinToPrimary()) {
+            return read.get();
+        }
+    }
+
+    public boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+
+    @Scheduled(fixedDelayString = "${cashcard.replica.read-your-writes:PT5S}")
+    public void forgetExpired() {
+        var now = System.nanoTime();
+        lastWrites.values().removeIf(written -> now - written >= windowNanos);
+    }
+
+    public interface Pin extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,53 @@
+package example.replica;
+
+import java.io.IOException;
+import java.util.Set;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Records successful writes by the caller and pins the caller's following requests to the
+ * primary while the replica may still be behind.
+ */
+@Component
+@ConditionalOnProperty(name = "cashcard.replica.url")
+class ReadYourWritesFilter extends OncePerRequestFilter {
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final ReadYourWrites readYourWrites;
+
+    ReadYourWritesFilter(ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        var owner = authentication.getName();
+        if (!readYourWrites.wroteRecently(owner)) {
+            filterChain.doFilter(request, response);
+        } else {
+            try (var pin = readYourWrites.pinToPrimary()) {
+                filterChain.doFilter(request, response);
+            }
+        }
+        if (!READ_METHODS.contains(request.getMethod()) && response.getStatus() < 400) {
+            readYourWrites.recordWrite(owner);
+        }
+    }
+}
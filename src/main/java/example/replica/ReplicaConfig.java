@@ -0,0 +1,53 @@
+package example.replica;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * With {@code cashcard.replica.url} set, read-only transactions (repository reads, card
+ * lookups, authentication) run against the replica pool and writes against the primary
+ * described by {@code spring.datasource.*}. Open-in-view is off, so every transaction takes
+ * its own connection and a write never reuses one that was routed to the replica.
+ * Sharded deployments keep a single pool per shard.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "cashcard.replica.url")
+class ReplicaConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "cashcard.sharding.enabled", havingValue = "false", matchIfMissing = true)
+    ReplicaDataSources replicaDataSources(ReadYourWrites readYourWrites,
+                                          @Value("${spring.datasource.url}") String url,
+                                          @Value("${spring.datasource.username:}") String username,
+                                          @Value("${spring.datasource.password:}") String password,
+                                          @Value("${cashcard.replica.url}") String replicaUrl,
+                                          @Value("${cashcard.replica.username:${spring.datasource.username:}}") String replicaUsername,
+                                          @Value("${cashcard.replica.password:${spring.datasource.password:}}") String replicaPassword) {
+        var replica = pool("replica", replicaUrl, replicaUsername, replicaPassword);
+        replica.setReadOnly(true);
+        return new ReplicaDataSources(pool("primary", url, username, password), replica, readYourWrites);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "cashcard.sharding.enabled", havingValue = "false", matchIfMissing = true)
+    DataSource dataSource(ReplicaDataSources replicaDataSources) {
+        return replicaDataSources.routing();
+    }
+
+    private static HikariDataSource pool(String name, String url, String username, String password) {
+        var dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        return dataSource;
+    }
+}
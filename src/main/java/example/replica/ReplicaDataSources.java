@@ -0,0 +1,40 @@
+package example.replica;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * The primary and replica pools and the read/write routing in front of them.
+ */
+class ReplicaDataSources implements AutoCloseable {
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private final DataSource routing;
+
+    ReplicaDataSources(HikariDataSource primary, HikariDataSource replica, ReadYourWrites readYourWrites) {
+        this.primary = primary;
+        this.replica = replica;
+        var router = new ReadWriteRoutingDataSource(readYourWrites);
+        router.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Target.PRIMARY, primary,
+                ReadWriteRoutingDataSource.Target.REPLICA, replica));
+        router.setDefaultTargetDataSource(primary);
+        router.afterPropertiesSet();
+        this.routing = new LazyConnectionDataSourceProxy(router);
+    }
+
+    DataSource routing() {
+        return routing;
+    }
+
+    @Override
+    public void close() {
+        primary.close();
+        replica.close();
+    }
+}
@@ -0,0 +1,61 @@
+package example.report;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "card_transactions")
+public class CardTransaction {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "card_id")
+    private Long cardId;
+    private String owner;
+    private Double amount;
+    private String category;
+    @Column(name = "occurred_at")
+    private Instant occurredAt;
+
+    // Default constructor for JPA
+    public CardTransaction() {
+    }
+
+    public CardTransaction(Long cardId, String owner, Double amount, String category, Instant occurredAt) {
+        this.cardId = cardId;
+        this.owner = owner;
+        this.amount = amount;
+        this.category = category;
+        this.occurredAt = occurredAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getCardId() {
+        return cardId;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+}
@@ -0,0 +1,6 @@
+package example.report;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CardTransactionRepository extends JpaRepository<CardTransaction, Long> {
+}
@@ -0,0 +1,38 @@
+package example.report;
+
+import java.time.Instant;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Appends balance changes to {@code card_transactions}, the history the spending reports
+ * are computed from. Like the outbox it requires an active transaction, so a row exists
+ * exactly when its balance change was committed.
+ */
+@Component
+public class Ledger {
+    public static final String DEPOSIT = "deposit";
+    public static final String UNCATEGORIZED = "uncategorized";
+    private static final Pattern CATEGORY = Pattern.compile("^[a-z0-9-]{1,30}$");
+
+    private final CardTransactionRepository transactions;
+
+    public Ledger(CardTransactionRepository transactions) {
+        this.transactions = transactions;
+    }
+
+    public static boolean isValidCategory(String category) {
+        return CATEGORY.matcher(category).matches();
+    }
+
+    /**
+     * @param amount the change in balance; spends are negative
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long cardId, String owner, double amount, String category) {
+        transactions.save(new CardTransaction(cardId, owner, amount, category, Instant.now()));
+    }
+}
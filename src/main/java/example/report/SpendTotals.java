@@ -0,0 +1,59 @@
+package example.report;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Money spent over some date range, broken down by card, by category and by day. Immutable,
+ * so a total for a finished period can be cached and shared; partial totals of adjacent
+ * ranges combine with {@link #merge}.
+ */
+record SpendTotals(Map<Card, Double> byCard, Map<String, Double> byCategory, Map<LocalDate, Double> byDay) {
+    static final SpendTotals EMPTY = new SpendTotals(Map.of(), Map.of(), Map.of());
+
+    SpendTotals {
+        byCard = Map.copyOf(byCard);
+        byCategory = Map.copyOf(byCategory);
+        byDay = Map.copyOf(byDay);
+    }
+
+    double total() {
+        return byDay.values().stream().mapToDouble(Double::doubleValue).sum();
+    }
+
+    SpendTotals merge(SpendTotals other) {
+        if (other.byDay.isEmpty()) {
+            return this;
+        }
+        if (byDay.isEmpty()) {
+            return other;
+        }
+        return new SpendTotals(sum(byCard, other.byCard), sum(byCategory, other.byCategory), sum(byDay, other.byDay));
+    }
+
+    private static <K> Map<K, Double> sum(Map<K, Double> left, Map<K, Double> right) {
+        Map<K, Double> sum = new HashMap<>(left);
+        right.forEach((key, value) -> sum.merge(key, value, Double::sum));
+        return sum;
+    }
+
+    record Card(long id, String owner) {
+    }
+
+    static final class Builder {
+        private final Map<Card, Double> byCard = new HashMap<>();
+        private final Map<String, Double> byCategory = new HashMap<>();
+        private final Map<LocalDate, Double> byDay = new HashMap<>();
+
+        void add(long cardId, String owner, String category, LocalDate day, double spent) {
+            byCard.merge(new Card(cardId, owner), spent, Double::sum);
+            byCategory.merge(category, spent, Double::sum);
+            byDay.merge(day, spent, Double::sum);
+        }
+
+        SpendTotals build() {
+            return byDay.isEmpty() ? EMPTY : new SpendTotals(byCard, byCategory, byDay);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package example.report;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import example.shard.ShardRouter;
+
+/**
+ * Sums spends from {@code card_transactions} by splitting the date range in halves on a
+ * {@link ForkJoinPool} until each piece spans at most {@code cashcard.reports.partition-days},
+ * and running one grouped query per piece and shard. The pool is dedicated and sized well
+ * below the connection pool, since every leaf blocks on a query.
+ */
+@Component
+class SpendingAggregator implements AutoCloseable {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ShardRouter shards;
+    private final ForkJoinPool pool;
+    private final int partitionDays;
+
+    SpendingAggregator(NamedParameterJdbcTemplate jdbcTemplate, ShardRouter shards,
+                       @Value("${cashcard.reports.parallelism:4}") int parallelism,
+                       @Value("${cashcard.reports.partition-days:7}") int partitionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.pool = new ForkJoinPool(parallelism);
+        this.partitionDays = partitionDays;
+    }
+
+    /**
+     * @return the spends of {@code owners} from {@code from} (inclusive) to {@code to}
+     *         (exclusive), with days in UTC
+     */
+    SpendTotals aggregate(Collection<String> owners, LocalDate from, LocalDate to) {
+        if (owners.isEmpty() || !from.isBefore(to)) {
+            return SpendTotals.EMPTY;
+        }
+        // Each owner's history lives on their shard
+        Map<String, List<String>> byShard = owners.stream().distinct().collect(Collectors.groupingBy(shards::shardFor));
+        return byShard.entrySet().stream()
+                .map(entry -> pool.submit(new Partition(entry.getKey(), entry.getValue(), from, to)))
+                .toList().stream()
+                .map(ForkJoinTask::join)
+                .reduce(SpendTotals.EMPTY, SpendTotals::merge);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private SpendTotals query(String shard, List<String> owners, LocalDate from, LocalDate to) {
+        var totals = new SpendTotals.Builder();
+        try (var binding = shards.bindShard(shard)) {
+            jdbcTemplate.query("""
+                    SELECT card_id, owner, category, CAST(occurred_at AT TIME ZONE 'UTC' AS DATE), -SUM(amount)
+                    FROM card_transactions
+                    WHERE owner IN (:owners) AND occurred_at >= :from AND occurred_at < :to AND amount < 0
+                    GROUP BY card_id, owner, category, CAST(occurred_at AT TIME ZONE 'UTC' AS DATE)
+                    """,
+                    Map.of("owners", owners,
+                            "from", from.atStartOfDay().atOffset(ZoneOffset.UTC),
+                            "to", to.atStartOfDay().atOffset(ZoneOffset.UTC)),
+                    row -> totals.add(row.getLong(1), row.getString(2), row.getString(3),
+                            row.getObject(4, LocalDate.class), row.getDouble(5)));
+        }
+        return totals.build();
+    }
+
+    private final class Partition extends RecursiveTask<SpendTotals> {
+        private final String shard;
+        private final List<String> owners;
+        private final LocalDate from;
+        private final LocalDate to;
+
+        Partition(String shard, List<String> owners, LocalDate from, LocalDate to) {
+            this.shard = shard;
+            this.owners = owners;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SpendTotals compute() {
+            long days = ChronoUnit.DAYS.between(from, to);
+            if (days <= partitionDays) {
+                return query(shard, owners, from, to);
+            }
+            var middle = from.plusDays(days / 2);
+            var earlier = new Partition(shard, owners, from, middle);
+            earlier.fork();
+            var later = new Partition(shard, owners, middle, to).compute();
+            return earlier.join().merge(later);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package example.report;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Spending of a set of owners in one month. Weeks start on Monday, except the first, which
+ * starts on the 1st; {@code trend} holds the monthly totals leading up to and including
+ * {@code month}.
+ */
+public record SpendingReport(
+        YearMonth month,
+        List<String> owners,
+        double totalSpent,
+        List<CardSpend> byCard,
+        List<CategorySpend> byCategory,
+        List<WeekSpend> byWeek,
+        List<MonthSpend> trend) {
+
+    public record CardSpend(long cardId, String owner, double spent) {
+    }
+
+    public record CategorySpend(String category, double spent) {
+    }
+
+    public record WeekSpend(LocalDate weekStart, double spent) {
+    }
+
+    public record MonthSpend(YearMonth month, double spent) {
+    }
+}
@@ -0,0 +1,52 @@
+package example.report;
+
+import java.security.Principal;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import example.family.FamilyService;
+
+@RestController
+@RequestMapping("/cashcards/reports")
+public class SpendingReportController {
+
+    private final SpendingReportService spendingReportService;
+    private final FamilyService familyService;
+
+    public SpendingReportController(SpendingReportService spendingReportService, FamilyService familyService) {
+        this.spendingReportService = spendingReportService;
+        this.familyService = familyService;
+    }
+
+    /**
+     * The caller's own spending, or with {@code family} that of every member they may see
+     * (all of them for a parent, only themselves for a child). {@code month} defaults to the
+     * current one.
+     */
+    @GetMapping
+    private ResponseEntity<SpendingReport> monthly(@RequestParam(required = false) YearMonth month,
+                                                   @RequestParam(required = false) Long family, Principal principal) {
+        var current = YearMonth.now(ZoneOffset.UTC);
+        if (month == null) {
+            month = current;
+        }
+        if (month.isAfter(current)) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<String> owners = List.of(principal.getName());
+        if (family != null) {
+            owners = familyService.visibleMembers(principal.getName(), family).orElse(null);
+            if (owners == null) {
+                return ResponseEntity.notFound().build();
+            }
+        }
+        return ResponseEntity.ok(spendingReportService.monthly(owners, month));
+    }
+}
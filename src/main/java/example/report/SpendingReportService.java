@@ -0,0 +1,134 @@
+package example.report;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import example.report.SpendingReport.CardSpend;
+import example.report.SpendingReport.CategorySpend;
+import example.report.SpendingReport.MonthSpend;
+import example.report.SpendingReport.WeekSpend;
+
+/**
+ * Monthly spending reports. Days that are over cannot gain transactions any more, so the
+ * totals of every finished day are cached per owner set and month and never recomputed:
+ * a past month is aggregated once, and the current month only aggregates the days that
+ * finished since the last request plus today, which is always read fresh.
+ * <p>
+ * The cache is per node. Deleting an account forgets every period that includes it here
+ * ({@link #forgetOwner}); other nodes keep theirs until evicted, which only matters if the
+ * username is registered again.
+ */
+@Service
+public class SpendingReportService {
+    private final SpendingAggregator aggregator;
+    private final int trendMonths;
+    private final Map<PeriodKey, Period> periods;
+
+    public SpendingReportService(SpendingAggregator aggregator,
+                                 @Value("${cashcard.reports.trend-months:6}") int trendMonths,
+                                 @Value("${cashcard.reports.cache-size:10000}") int cacheSize) {
+        this.aggregator = aggregator;
+        this.trendMonths = trendMonths;
+        this.periods = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PeriodKey, Period> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * @param owners the cards' owners the caller may see; months after the current one are
+     *               reported as empty
+     */
+    public SpendingReport monthly(List<String> owners, YearMonth month) {
+        var sortedOwners = owners.stream().distinct().sorted().toList();
+        var today = LocalDate.now(ZoneOffset.UTC);
+        var totals = totals(sortedOwners, month, today);
+
+        var byCard = totals.byCard().entrySet().stream()
+                .map(entry -> new CardSpend(entry.getKey().id(), entry.getKey().owner(), cents(entry.getValue())))
+                .sorted(Comparator.comparingDouble(CardSpend::spent).reversed().thenComparingLong(CardSpend::cardId))
+                .toList();
+        var byCategory = totals.byCategory().entrySet().stream()
+                .map(entry -> new CategorySpend(entry.getKey(), cents(entry.getValue())))
+                .sorted(Comparator.comparingDouble(CategorySpend::spent).reversed().thenComparing(CategorySpend::category))
+                .toList();
+        var weeks = new TreeMap<LocalDate, Double>();
+        totals.byDay().forEach((day, spent) -> weeks.merge(weekStart(day, month), spent, Double::sum));
+        var byWeek = weeks.entrySet().stream()
+                .map(entry -> new WeekSpend(entry.getKey(), cents(entry.getValue())))
+                .toList();
+        var trend = new ArrayList<MonthSpend>(trendMonths);
+        for (int back = trendMonths - 1; back > 0; back--) {
+            var earlier = month.minusMonths(back);
+            trend.add(new MonthSpend(earlier, cents(totals(sortedOwners, earlier, today).total())));
+        }
+        trend.add(new MonthSpend(month, cents(totals.total())));
+        return new SpendingReport(month, sortedOwners, cents(totals.total()), byCard, byCategory, byWeek, trend);
+    }
+
+    /**
+     * Drops every cached period that covers {@code owner}, e.g. once their account and
+     * transactions are gone.
+     */
+    public void forgetOwner(String owner) {
+        synchronized (periods) {
+            periods.keySet().removeIf(key -> key.owners().contains(owner));
+        }
+    }
+
+    private SpendTotals totals(List<String> owners, YearMonth month, LocalDate today) {
+        var start = month.atDay(1);
+        var end = month.plusMonths(1).atDay(1);
+        if (start.isAfter(today)) {
+            return SpendTotals.EMPTY;
+        }
+        // Everything before this day is final
+        var settled = end.isAfter(today) ? today : end;
+        var key = new PeriodKey(owners, month);
+        var period = periods.get(key);
+        if (period == null || period.through().isBefore(settled)) {
+            var from = period == null ? start : period.through();
+            var base = period == null ? SpendTotals.EMPTY : period.totals();
+            period = new Period(settled, base.merge(aggregator.aggregate(owners, from, settled)));
+            periods.put(key, period);
+        }
+        if (settled.equals(end)) {
+            return period.totals();
+        }
+        return period.totals().merge(aggregator.aggregate(owners, today, today.plusDays(1)));
+    }
+
+    private static LocalDate weekStart(LocalDate day, YearMonth month) {
+        var monday = day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        var first = month.atDay(1);
+        return monday.isBefore(first) ? first : monday;
+    }
+
+    private static double cents(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+
+    private record PeriodKey(List<String> owners, YearMonth month) {
+    }
+
+    /**
+     * Totals of the days before {@code through}.
+     */
+    private record Period(LocalDate through, SpendTotals totals) {
+    }
+}
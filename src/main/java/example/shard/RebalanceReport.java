@@ -0,0 +1,12 @@
+package example.shard;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a rebalance. Owners in {@code pinned} belong to a family and were left on
+ * their shard; add them to {@code cashcard.sharding.pinned} together with the new
+ * {@code cashcard.sharding.ring} so the mapping survives a restart.
+ */
+public record RebalanceReport(List<String> ring, int moved, Map<String, String> pinned) {
+}
@@ -0,0 +1,52 @@
+package example.shard;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Admin view of the shard mapping and the entry point of the online rebalancing tool.
+ */
+@RestController
+@RequestMapping("/admin/shards")
+@ConditionalOnProperty(name = "cashcard.sharding.enabled", havingValue = "true")
+public class ShardAdminController {
+
+    private final ShardRouter router;
+    private final ShardRebalancer rebalancer;
+
+    public ShardAdminController(ShardRouter router, ShardRebalancer rebalancer) {
+        this.router = router;
+        this.rebalancer = rebalancer;
+    }
+
+    @GetMapping
+    private ResponseEntity<Map<String, List<String>>> describe() {
+        return ResponseEntity.ok(Map.of("shards", router.shards(), "ring", router.ring()));
+    }
+
+    @GetMapping("/owners/{owner}")
+    private ResponseEntity<Map<String, String>> locate(@PathVariable String owner) {
+        return ResponseEntity.ok(Map.of("owner", owner, "shard", router.shardFor(owner)));
+    }
+
+    @PostMapping("/rebalance")
+    private ResponseEntity<RebalanceReport> rebalance(@RequestBody List<String> ring) {
+        if (ring.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(rebalancer.rebalance(ring));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
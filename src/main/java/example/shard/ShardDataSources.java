@@ -0,0 +1,125 @@
+package example.shard;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * One connection pool per configured shard. Every shard gets the full schema, and its
+ * {@code cash_cards} identity starts in its own block of ids so cards keep their id when
+ * the rebalancer moves them. A shard claims its block in {@code shard_id_block} the first
+ * time it is initialized and keeps it, whatever shards are added later; the identity is
+ * only moved into the block then, before the shard holds any card.
+ */
+class ShardDataSources implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ShardDataSources.class);
+    static final long ID_BLOCK = 1_000_000_000_000L;
+
+    private final Map<String, HikariDataSource> dataSources = new LinkedHashMap<>();
+    private final Map<String, Long> idBlocks = new LinkedHashMap<>();
+
+    ShardDataSources(ShardingProperties properties, List<String> shards, Resource schema) {
+        for (String name : shards) {
+            var shard = properties.shards().get(name);
+            var dataSource = new HikariDataSource();
+            dataSource.setPoolName("shard-" + name);
+            dataSource.setJdbcUrl(shard.url());
+            dataSource.setUsername(shard.username());
+            dataSource.setPassword(shard.password());
+            dataSources.put(name, dataSource);
+
+            new ResourceDatabasePopulator(schema).execute(dataSource);
+            claimedBlock(name).ifPresent(block -> idBlocks.put(name, block));
+        }
+        // New shards take the lowest blocks no other shard holds
+        long candidate = 0;
+        for (String name : shards) {
+            if (idBlocks.containsKey(name)) {
+                continue;
+            }
+            while (idBlocks.containsValue(candidate)) {
+                candidate++;
+            }
+            idBlocks.put(name, claim(name, candidate));
+        }
+    }
+
+    /**
+     * The block recorded on the shard. A shard initialized before blocks were recorded
+     * keeps the block its cards already are in.
+     */
+    private Optional<Long> claimedBlock(String shard) {
+        var jdbcTemplate = jdbcTemplate(shard);
+        var recorded = jdbcTemplate.queryForList("SELECT block FROM shard_id_block WHERE id = 1", Long.class);
+        if (!recorded.isEmpty()) {
+            return Optional.of(recorded.getFirst());
+        }
+        var highestId = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM (SELECT id FROM cash_cards UNION ALL SELECT id FROM cash_cards_archive)", Long.class);
+        if (highestId == null) {
+            return Optional.empty();
+        }
+        return Optional.of(record(jdbcTemplate, highestId / ID_BLOCK));
+    }
+
+    private long claim(String shard, long block) {
+        var jdbcTemplate = jdbcTemplate(shard);
+        long claimed = record(jdbcTemplate, block);
+        if (claimed == block) {
+            jdbcTemplate.execute("ALTER TABLE cash_cards ALTER COLUMN id RESTART WITH " + (block * ID_BLOCK + 1));
+            log.info("Shard {} hands out cash card ids from {}", shard, block * ID_BLOCK + 1);
+        }
+        return claimed;
+    }
+
+    /**
+     * @return the block now recorded, which is another node's if it got there first
+     */
+    private static long record(JdbcTemplate jdbcTemplate, long block) {
+        try {
+            jdbcTemplate.update("INSERT INTO shard_id_block (id, block) VALUES (1, ?)", block);
+            return block;
+        } catch (DuplicateKeyException e) {
+            return jdbcTemplate.queryForObject("SELECT block FROM shard_id_block WHERE id = 1", Long.class);
+        }
+    }
+
+    long idBlock(String shard) {
+        return idBlocks.get(shard);
+    }
+
+    DataSource get(String shard) {
+        return dataSources.get(shard);
+    }
+
+    Map<Object, Object> targets() {
+        return new LinkedHashMap<>(dataSources);
+    }
+
+    JdbcTemplate jdbcTemplate(String shard) {
+        return new JdbcTemplate(get(shard));
+    }
+
+    TransactionTemplate transactionTemplate(String shard) {
+        return new TransactionTemplate(new DataSourceTransactionManager(get(shard)));
+    }
+
+    @Override
+    public void close() {
+        dataSources.values().forEach(HikariDataSource::close);
+    }
+}
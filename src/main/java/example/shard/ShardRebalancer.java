@@ -0,0 +1,188 @@
+package example.shard;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Moves owners between shards while the application keeps serving. Owners whose shard
+ * changes under the new ring are copied to their new shard, pinned there and only then
+ * removed from the old one, each under the owner's move lock in {@link ShardRouter}. After
+ * the ring is switched a second sweep picks up accounts registered during the first.
+ * <p>
+ * Family tables reference the members' user rows, so owners that belong to a family stay
+ * where they are and are reported as pinned. For the same reason an owner joining a family
+ * on another shard is moved there by {@link #colocate} and pinned in {@code pinned_owners}.
+ */
+@Service
+@ConditionalOnProperty(name = "cashcard.sharding.enabled", havingValue = "true")
+public class ShardRebalancer {
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+    static final Duration COLOCATE_TIMEOUT = Duration.ofSeconds(2);
+
+    // Balance history only knows its card, so it follows the owner's hot and archived cards
+    private static final String OWNED_CARDS = """
+            card_id IN (SELECT id FROM (SELECT id, owner FROM cash_cards UNION ALL SELECT id, owner FROM cash_cards_archive) cards
+                        WHERE owner = ?)""";
+
+    // Copied parents first and deleted children first, so history is deleted while the cards
+    // it is selected by still exist. Ledger and point ids come from each shard's own identity and collide
+    // across shards, so the target numbers the copies afresh, in the source's order.
+    private static final List<Table> OWNED_TABLES = List.of(
+            new Table("users", "username", "username, password, deletion_requested_at"),
+            new Table("cash_cards", "owner", "id, amount, owner, created_at, updated_at"),
+            new Table("cash_cards_archive", "owner", "id, amount, owner, created_at, updated_at, archived_at"),
+            new Table("card_transactions", "owner = ?", "card_id, owner, amount, category, occurred_at", "id"),
+            new Table("balance_points", OWNED_CARDS, "card_id, balance, recorded_at", "id"),
+            new Table("balance_rollups", OWNED_CARDS, "card_id, resolution, bucket_start, min_balance, max_balance, last_balance", null),
+            new Table("idempotency_keys", "owner", "owner, idempotency_key, request, status, location, created_at"),
+            new Table("family_invites", "username", "family_id, username, role, invited_by"),
+            new Table("pinned_owners", "username", "username"));
+
+    private final ShardRouter router;
+    private final ShardDataSources shards;
+
+    ShardRebalancer(ShardRouter router, ShardDataSources shards) {
+        this.router = router;
+        this.shards = shards;
+    }
+
+    public synchronized RebalanceReport rebalance(List<String> ring) {
+        router.validate(ring);
+        var next = new ConsistentHashRing(ring, router.virtualNodes());
+        Map<String, String> pinned = new HashMap<>();
+        int moved = sweep(next::nodeFor, pinned);
+        router.switchRing(next, pinned);
+        moved += sweep(router::shardFor, pinned);
+        log.info("Rebalanced onto {}: moved {} owners, pinned {}", ring, moved, pinned.size());
+        return new RebalanceReport(next.nodes(), moved, Map.copyOf(pinned));
+    }
+
+    private int sweep(Function<String, String> route, Map<String, String> pinned) {
+        int moved = 0;
+        for (String source : router.shards()) {
+            var owners = shards.jdbcTemplate(source).queryForList("SELECT username FROM users", String.class);
+            for (String owner : owners) {
+                var target = route.apply(owner);
+                if (target.equals(source) || router.isConfiguredPin(owner) || pinned.containsKey(owner)) {
+                    continue;
+                }
+                if (belongsToFamily(source, owner)) {
+                    pinned.put(owner, source);
+                    router.pin(owner, source);
+                    continue;
+                }
+                move(owner, source, target);
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    private boolean belongsToFamily(String shard, String owner) {
+        return shards.jdbcTemplate(shard).queryForObject(
+                "SELECT COUNT(*) FROM family_members WHERE username = ?", Long.class, owner) > 0;
+    }
+
+    /**
+     * Moves {@code owner} onto {@code shard} for good, so they can join a family that lives
+     * there; the pin is recorded on the shard and survives restarts. {@code join} writes the
+     * membership through the shard's template in the same transaction as the copy, so a
+     * failed join leaves the owner where they were. Unlike the sweeps this runs inside a
+     * request, which holds its own stripe, so it gives up after {@link #COLOCATE_TIMEOUT}
+     * rather than wait on a request that waits on this one.
+     *
+     * @return false when the owner already belongs to a family on another shard, or their
+     *         move lock was not granted in time
+     */
+    public boolean colocate(String owner, String shard, Consumer<JdbcTemplate> join) {
+        router.validate(List.of(shard));
+        var colocated = new AtomicBoolean(true);
+        boolean locked = router.whileMoving(owner, COLOCATE_TIMEOUT, () -> {
+            var source = router.shardFor(owner);
+            if (source.equals(shard)) {
+                shards.transactionTemplate(shard).executeWithoutResult(status -> join.accept(shards.jdbcTemplate(shard)));
+                return;
+            }
+            if (belongsToFamily(source, owner)) {
+                colocated.set(false);
+                return;
+            }
+            copyAndClear(owner, source, shard, to -> {
+                to.update("MERGE INTO pinned_owners (username) KEY (username) VALUES (?)", owner);
+                join.accept(to);
+            });
+            log.info("Moved {} from {} to {} to join a family", owner, source, shard);
+        });
+        return locked && colocated.get();
+    }
+
+    private void move(String owner, String source, String target) {
+        router.whileMoving(owner, () -> {
+            // The owner may have been moved next to a family since the sweep listed them
+            if (shards.jdbcTemplate(source).queryForObject(
+                    "SELECT COUNT(*) FROM users WHERE username = ?", Long.class, owner) == 0) {
+                return;
+            }
+            copyAndClear(owner, source, target, to -> { });
+        });
+    }
+
+    private void copyAndClear(String owner, String source, String target, Consumer<JdbcTemplate> afterCopy) {
+        var from = shards.jdbcTemplate(source);
+        var to = shards.jdbcTemplate(target);
+        shards.transactionTemplate(target).executeWithoutResult(status -> {
+            // Leftovers of an interrupted move are not authoritative
+            clear(to, owner);
+            for (Table table : OWNED_TABLES) {
+                copy(from, to, table, owner);
+            }
+            // Points the source has not rolled up yet must not fall behind the target's
+            // watermark, or they would never be summarised there
+            var rolledUpTo = from.queryForObject("SELECT rolled_up_to FROM balance_rollup_watermark WHERE id = 1", Timestamp.class);
+            to.update("UPDATE balance_rollup_watermark SET rolled_up_to = ? WHERE id = 1 AND rolled_up_to > ?", rolledUpTo, rolledUpTo);
+            afterCopy.accept(to);
+        });
+        router.pin(owner, target);
+        shards.transactionTemplate(source).executeWithoutResult(status -> clear(from, owner));
+    }
+
+    private static void copy(JdbcTemplate from, JdbcTemplate to, Table table, String owner) {
+        var columns = List.of(table.columns().split(",\\s*"));
+        var rows = from.queryForList("SELECT " + table.columns() + " FROM " + table.name() + " WHERE " + table.filter()
+                + (table.order() == null ? "" : " ORDER BY " + table.order()), owner);
+        if (rows.isEmpty()) {
+            return;
+        }
+        var placeholders = String.join(", ", columns.stream().map(column -> "?").toList());
+        to.batchUpdate("INSERT INTO " + table.name() + " (" + table.columns() + ") VALUES (" + placeholders + ")",
+                rows.stream().map(row -> columns.stream().map(row::get).toArray()).toList());
+    }
+
+    private static void clear(JdbcTemplate jdbcTemplate, String owner) {
+        for (Table table : OWNED_TABLES.reversed()) {
+            jdbcTemplate.update("DELETE FROM " + table.name() + " WHERE " + table.filter(), owner);
+        }
+    }
+
+    /**
+     * @param filter selects the owner's rows, with the owner as its only parameter
+     * @param order the order rows are copied in, or {@code null} when it does not matter
+     */
+    private record Table(String name, String filter, String columns, String order) {
+        Table(String name, String ownerColumn, String columns) {
+            this(name, ownerColumn + " = ?", columns, null);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package example.shard;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Decides which shard holds an owner's rows and binds that shard to the current thread so
+ * {@link ShardRoutingDataSource} hands out connections to it. An owner is routed to its
+ * pinned shard if it has one, otherwise to its position on the {@link ConsistentHashRing}.
+ * <p>
+ * Work bound to an owner holds a read lock on that owner's lock stripe; the
+ * {@link ShardRebalancer} takes the write lock while it moves the owner, so requests for
+ * an owner being moved wait for the move instead of reading a half-copied account.
+ * <p>
+ * Without {@code cashcard.sharding.enabled} there is a single {@link #PRIMARY} shard and
+ * binding has no effect on which connection is used.
+ */
+public class ShardRouter {
+    public static final String PRIMARY = "primary";
+    private static final int LOCK_STRIPES = 1024;
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private final List<String> shards;
+    private final int virtualNodes;
+    private final Map<String, String> configuredPins;
+    private final Map<String, String> pins = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock[] locks = new ReentrantReadWriteLock[LOCK_STRIPES];
+    private volatile ConsistentHashRing ring;
+
+    public ShardRouter(ShardingProperties properties) {
+        if (properties.enabled()) {
+            if (properties.shards().isEmpty()) {
+                throw new IllegalStateException("cashcard.sharding.enabled is set but no cashcard.sharding.shards are configured");
+            }
+            this.shards = properties.shards().keySet().stream().sorted().toList();
+            this.configuredPins = Map.copyOf(properties.pinned());
+            validate(properties.ring());
+            validate(configuredPins.values());
+            this.ring = new ConsistentHashRing(properties.ring(), properties.virtualNodes());
+        } else {
+            this.shards = List.of(PRIMARY);
+            this.configuredPins = Map.of();
+            this.ring = new ConsistentHashRing(shards, 1);
+        }
+        this.virtualNodes = properties.virtualNodes();
+        this.pins.putAll(configuredPins);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    public String shardFor(String owner) {
+        var pinned = pins.get(owner);
+        return pinned != null ? pinned : ring.nodeFor(owner);
+    }
+
+    /**
+     * Routes the current thread to the owner's shard until the returned binding is closed.
+     */
+    public Binding bind(String owner) {
+        var lock = lockFor(owner).readLock();
+        lock.lock();
+        // Resolved under the lock so a finished move is always observed
+        var previous = swap(shardFor(owner));
+        return () -> {
+            restore(previous);
+            lock.unlock();
+        };
+    }
+
+    /**
+     * Routes the current thread to a shard by name, for work that is not about one owner.
+     */
+    public Binding bindShard(String shard) {
+        validate(List.of(shard));
+        var previous = swap(shard);
+        return () -> restore(previous);
+    }
+
+    public <T> T call(String owner, Supplier<T> work) {
+        try (var binding = bind(owner)) {
+            return work.get();
+        }
+    }
+
+    /**
+     * Runs housekeeping once per shard, e.g. the scheduled jobs that scan whole tables.
+     */
+    public void forEachShard(Consumer<String> work) {
+        for (String shard : shards) {
+            try (var binding = bindShard(shard)) {
+                work.accept(shard);
+            }
+        }
+    }
+
+    public List<String> shards() {
+        return shards;
+    }
+
+    public List<String> ring() {
+        return ring.nodes();
+    }
+
+    String currentShard() {
+        return CURRENT.get();
+    }
+
+    int virtualNodes() {
+        return virtualNodes;
+    }
+
+    boolean isConfiguredPin(String owner) {
+        return configuredPins.containsKey(owner);
+    }
+
+    /**
+     * Runs {@code move} under the owner's move lock, waiting for it as long as it takes.
+     * Only for callers that hold no other stripe, like the rebalancer's sweeps.
+     */
+    void whileMoving(String owner, Runnable move) {
+        whileMoving(owner, null, move);
+    }
+
+    /**
+     * Runs {@code move} under the owner's move lock unless it is not granted within
+     * {@code timeout}. The calling thread may be serving a request bound to an owner on the
+     * same lock stripe, whose read lock would keep the write lock from ever being granted;
+     * those holds are given up for the move and taken back, downgrading the write lock,
+     * before returning. Holds on other stripes are kept, so two requests moving each other's
+     * owners would wait on one another for good without the timeout.
+     *
+     * @return false when the lock was not granted in time and {@code move} did not run
+     */
+    boolean whileMoving(String owner, Duration timeout, Runnable move) {
+        var lock = lockFor(owner);
+        int readHolds = lock.getReadHoldCount();
+        for (int i = 0; i < readHolds; i++) {
+            lock.readLock().unlock();
+        }
+        boolean locked = false;
+        try {
+            if (timeout == null) {
+                lock.writeLock().lock();
+                locked = true;
+            } else {
+                locked = lock.writeLock().tryLock(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            if (locked) {
+                move.run();
+            }
+            return locked;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            for (int i = 0; i < readHolds; i++) {
+                lock.readLock().lock();
+            }
+            if (locked) {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    void pin(String owner, String shard) {
+        pins.put(owner, shard);
+    }
+
+    /**
+     * Swaps in a new ring, keeping the configured pins and the given ones.
+     */
+    void switchRing(ConsistentHashRing next, Map<String, String> keep) {
+        // Pins that stay are in place before the ring changes under them
+        pins.putAll(keep);
+        ring = next;
+        pins.keySet().removeIf(owner -> !configuredPins.containsKey(owner) && !keep.containsKey(owner));
+    }
+
+    void validate(Iterable<String> names) {
+        for (String name : names) {
+            if (!shards.contains(name)) {
+                throw new IllegalArgumentException("Unknown shard: " + name);
+            }
+        }
+    }
+
+    private ReentrantReadWriteLock lockFor(String owner) {
+        return locks[Math.floorMod(owner.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static String swap(String shard) {
+        var previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    private static void restore(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public interface Binding extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
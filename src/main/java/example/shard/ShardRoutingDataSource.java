@@ -0,0 +1,20 @@
+package example.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Hands out connections to the shard bound by {@link ShardRouter}; unbound work such as
+ * Hibernate's startup metadata lookup uses the first shard.
+ */
+class ShardRoutingDataSource extends AbstractRoutingDataSource {
+    private final ShardRouter router;
+
+    ShardRoutingDataSource(ShardRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return router.currentShard();
+    }
+}
@@ -0,0 +1,47 @@
+package example.shard;
+
+import java.io.IOException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Binds an authenticated request to the caller's shard for its whole duration. Runs after
+ * Spring Security, whose own user lookup routes itself. Admin endpoints are not about one
+ * owner and route explicitly; binding them would also make the rebalancer wait on the
+ * admin's own lock stripe.
+ */
+@Component
+class ShardRoutingFilter extends OncePerRequestFilter {
+    private final ShardRouter router;
+
+    ShardRoutingFilter(ShardRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/admin/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try (var binding = router.bind(authentication.getName())) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package example.shard;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ResourceLoader;
+
+/**
+ * With {@code cashcard.sharding.enabled} the application's single {@link DataSource} is a
+ * {@link ShardRoutingDataSource} over one pool per shard, so JPA, {@code JdbcTemplate} and
+ * the transaction manager all follow the shard bound by {@link ShardRouter}. Shards create
+ * their own schema, so Spring Boot's script initialization must be off
+ * ({@code spring.sql.init.mode=never}).
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ShardingProperties.class)
+class ShardingConfig {
+
+    @Bean
+    ShardRouter shardRouter(ShardingProperties properties) {
+        return new ShardRouter(properties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "cashcard.sharding.enabled", havingValue = "true")
+    ShardDataSources shardDataSources(ShardingProperties properties, ShardRouter router, ResourceLoader resourceLoader) {
+        var shardDataSources = new ShardDataSources(properties, router.shards(), resourceLoader.getResource(properties.schema()));
+        // Owners moved next to their family stay there across restarts
+        for (String shard : router.shards()) {
+            shardDataSources.jdbcTemplate(shard).queryForList("SELECT username FROM pinned_owners", String.class)
+                    .forEach(owner -> router.pin(owner, shard));
+        }
+        return shardDataSources;
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "cashcard.sharding.enabled", havingValue = "true")
+    DataSource dataSource(ShardDataSources shardDataSources, ShardRouter router) {
+        var dataSource = new ShardRoutingDataSource(router);
+        dataSource.setTargetDataSources(shardDataSources.targets());
+        dataSource.setDefaultTargetDataSource(shardDataSources.get(router.shards().getFirst()));
+        return dataSource;
+    }
+}
@@ -0,0 +1,34 @@
+package example.shard;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@code cashcard.sharding.*}: the physical shards, which of them are on the hash ring and
+ * the owners pinned to a particular shard regardless of their hash.
+ *
+ * @param shards every shard the application can reach, in the order they were added
+ * @param ring the shards owners are hashed onto; all of {@code shards} when empty
+ * @param pinned owner to shard overrides, e.g. to keep a family together
+ */
+@ConfigurationProperties("cashcard.sharding")
+public record ShardingProperties(
+        boolean enabled,
+        @DefaultValue("64") int virtualNodes,
+        @DefaultValue("classpath:schema.sql") String schema,
+        Map<String, Shard> shards,
+        List<String> ring,
+        Map<String, String> pinned) {
+
+    public ShardingProperties {
+        shards = shards == null ? Map.of() : shards;
+        ring = ring == null || ring.isEmpty() ? List.copyOf(shards.keySet()) : ring;
+        pinned = pinned == null ? Map.of() : pinned;
+    }
+
+    public record Shard(String url, String username, String password) {
+    }
+}
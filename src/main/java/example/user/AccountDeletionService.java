@@ -0,0 +1,186 @@
+package example.user;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import example.cashcard.CashCardService;
+import example.cashcard.OwnershipIndex;
+import example.family.FamilyService;
+import example.outbox.Outbox;
+import example.report.SpendingReportService;
+import example.shard.ShardRouter;
+
+/**
+ * Removes an account together with everything that references it, using one statement
+ * per table. Accounts holding more cards than {@code cashcard.account-deletion.async-threshold}
+ * are only locked out and detached synchronously; their cards are then deleted in small
+ * batches by {@link #purgePendingAccounts()}, each batch in its own short transaction, so
+ * a heavy account never holds locks on {@code cash_cards} for long.
+ */
+@Service
+public class AccountDeletionService {
+    private static final Logger log = LoggerFactory.getLogger(AccountDeletionService.class);
+    static final String ACCOUNT_DELETED = "ACCOUNT_DELETED";
+
+    public enum Outcome { DELETED, SCHEDULED, NOT_FOUND }
+
+    private static final String[] HISTORY_TABLES = { "balance_points", "balance_rollups" };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FamilyService familyService;
+    private final DatabaseUserDetailsService userDetailsService;
+    private final Outbox outbox;
+    private final ShardRouter shards;
+    private final OwnershipIndex ownershipIndex;
+    private final CashCardService cashCardService;
+    private final SpendingReportService spendingReports;
+    private final long asyncThreshold;
+    private final int batchSize;
+
+    public AccountDeletionService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                  FamilyService familyService, DatabaseUserDetailsService userDetailsService,
+                                  Outbox outbox, ShardRouter shards, OwnershipIndex ownershipIndex,
+                                  CashCardService cashCardService, SpendingReportService spendingReports,
+                                  @Value("${cashcard.account-deletion.async-threshold:10000}") long asyncThreshold,
+                                  @Value("${cashcard.account-deletion.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.familyService = familyService;
+        this.userDetailsService = userDetailsService;
+        this.outbox = outbox;
+        this.shards = shards;
+        this.ownershipIndex = ownershipIndex;
+        this.cashCardService = cashCardService;
+        this.spendingReports = spendingReports;
+        this.asyncThreshold = asyncThreshold;
+        this.batchSize = batchSize;
+    }
+
+    public Outcome deleteAccount(String username) {
+        var outcome = transactionTemplate.execute(status -> {
+            // Locks the user row so concurrent requests for the same account serialize here;
+            // the one that comes second finds it gone
+            if (jdbcTemplate.queryForList("SELECT username FROM users WHERE username = ? FOR UPDATE", String.class, username).isEmpty()) {
+                return Outcome.NOT_FOUND;
+            }
+            detach(username);
+            long cards = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cash_cards WHERE owner = ?", Long.class, username);
+            if (cards > asyncThreshold) {
+                jdbcTemplate.update("UPDATE users SET deletion_requested_at = ? WHERE username = ?",
+                        Timestamp.from(Instant.now()), username);
+                return Outcome.SCHEDULED;
+            }
+            deleteHistory(username);
+            jdbcTemplate.update("DELETE FROM cash_cards WHERE owner = ?", username);
+            jdbcTemplate.update("DELETE FROM cash_cards_archive WHERE owner = ?", username);
+            jdbcTemplate.update("DELETE FROM card_transactions WHERE owner = ?", username);
+            jdbcTemplate.update("DELETE FROM users WHERE username = ?", username);
+            outbox.append(null, ACCOUNT_DELETED, Map.of("username", username, "cashCards", cards));
+            return Outcome.DELETED;
+        });
+        if (outcome == Outcome.NOT_FOUND) {
+            return outcome;
+        }
+        familyService.evictCache();
+        userDetailsService.evict(username);
+        if (outcome == Outcome.DELETED) {
+            ownershipIndex.removeOwner(username);
+            cashCardService.forgetOwner(username);
+            spendingReports.forgetOwner(username);
+        }
+        return outcome;
+    }
+
+    @Scheduled(fixedDelayString = "${cashcard.account-deletion.poll-interval:PT5S}")
+    public void purgePendingAccounts() {
+        shards.forEachShard(shard -> {
+            List<String> pending = jdbcTemplate.queryForList(
+                    "SELECT username FROM users WHERE deletion_requested_at IS NOT NULL", String.class);
+            for (String username : pending) {
+                purge(username);
+            }
+        });
+    }
+
+    private void purge(String username) {
+        long cards = deleteCardsInBatches("cash_cards", username);
+        deleteCardsInBatches("cash_cards_archive", username);
+        deleteInBatches("card_transactions", username);
+        transactionTemplate.executeWithoutResult(status -> {
+            // Anything that attached itself to the account while it was being purged goes too
+            detach(username);
+            deleteHistory(username);
+            jdbcTemplate.update("DELETE FROM cash_cards WHERE owner = ?", username);
+            jdbcTemplate.update("DELETE FROM cash_cards_archive WHERE owner = ?", username);
+            jdbcTemplate.update("DELETE FROM card_transactions WHERE owner = ?", username);
+            jdbcTemplate.update("DELETE FROM users WHERE username = ?", username);
+            outbox.append(null, ACCOUNT_DELETED, Map.of("username", username, "cashCards", cards));
+        });
+        familyService.evictCache();
+        userDetailsService.evict(username);
+        ownershipIndex.removeOwner(username);
+        cashCardService.forgetOwner(username);
+        spendingReports.forgetOwner(username);
+        log.info("Purged account {} with {} cash cards", username, cards);
+    }
+
+    private long deleteInBatches(String table, String username) {
+        long deleted = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> jdbcTemplate.update("""
+                    DELETE FROM %1$s WHERE id IN (
+                        SELECT id FROM %1$s WHERE owner = ? FETCH FIRST ? ROWS ONLY)
+                    """.formatted(table), username, batchSize));
+            deleted += batch;
+        } while (batch > 0);
+        return deleted;
+    }
+
+    /**
+     * Like {@link #deleteInBatches} for a card table, taking each batch's balance history
+     * along in the same transaction.
+     */
+    private long deleteCardsInBatches(String table, String username) {
+        var batchIds = "SELECT id FROM %s WHERE owner = ? ORDER BY id FETCH FIRST ? ROWS ONLY".formatted(table);
+        long deleted = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                for (String history : HISTORY_TABLES) {
+                    jdbcTemplate.update("DELETE FROM %s WHERE card_id IN (%s)".formatted(history, batchIds), username, batchSize);
+                }
+                return jdbcTemplate.update("DELETE FROM %s WHERE id IN (%s)".formatted(table, batchIds), username, batchSize);
+            });
+            deleted += batch;
+        } while (batch > 0);
+        return deleted;
+    }
+
+    private void deleteHistory(String username) {
+        for (String history : HISTORY_TABLES) {
+            jdbcTemplate.update("""
+                    DELETE FROM %s WHERE card_id IN (
+                        SELECT id FROM cash_cards WHERE owner = ? UNION ALL SELECT id FROM cash_cards_archive WHERE owner = ?)
+                    """.formatted(history), username, username);
+        }
+    }
+
+    private void detach(String username) {
+        jdbcTemplate.update("DELETE FROM family_members WHERE username = ?", username);
+        jdbcTemplate.update("DELETE FROM family_invites WHERE username = ?", username);
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE owner = ?", username);
+    }
+}
@@ -1,36 +1,89 @@
 package example.user;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import example.cache.NearCache;
+import example.cache.NearCaches;
 import example.cashcard.CashCardRepository;
+import example.profiling.AuthenticationEvent;
+import example.replica.ReadYourWrites;
+import example.shard.ShardRouter;
 
 @Service
 public class DatabaseUserDetailsService implements UserDetailsService {
     private final UserRepository users;
     private final CashCardRepository cashcards;
+    private final ShardRouter shards;
+    private final ReadYourWrites readYourWrites;
+    private final NearCache<String, Account> accounts;
+    private final Set<String> admins;
 
-    public DatabaseUserDetailsService(UserRepository users, CashCardRepository cashcards) {
+    public DatabaseUserDetailsService(UserRepository users, CashCardRepository cashcards, ShardRouter shards,
+                                      ReadYourWrites readYourWrites, NearCaches caches,
+                                      @Value("${cashcard.admin.usernames:}") Set<String> admins) {
         this.users = users;
         this.cashcards = cashcards;
+        this.shards = shards;
+        this.readYourWrites = readYourWrites;
+        this.accounts = caches.create("users");
+        this.admins = admins;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) {
-        User user = users.findById(username)
-                .orElseThrow(() -> new UsernameNotFoundException("No user: " + username));
+        // Authentication runs before the request is bound to the caller's shard, and right
+        // after a password change it must not check against a lagging replica
+        var event = AuthenticationEvent.start(username);
+        var account = accounts.get(username,
+                key -> shards.call(key, () -> readYourWrites.call(key, () -> load(key))));
+        event.complete(account != null);
+        if (account == null) {
+            throw new UsernameNotFoundException("No user: " + username);
+        }
+        return account.toUserDetails();
+    }
 
-        boolean isOwner = cashcards.existsByOwner(username);
-        String role = isOwner ? "CARD_OWNER" : "NON_OWNER";
+    /**
+     * Forgets the cached account on every node, e.g. after its password or cards changed.
+     */
+    public void evict(String username) {
+        accounts.invalidate(username);
+    }
 
-        return org.springframework.security.core.userdetails.User
-                .withUsername(user.getUsername())
-                .password(user.getPassword())
-                .roles(role)
-                .build();
+    private Account load(String username) {
+        User user = users.findById(username).orElse(null);
+        if (user == null) {
+            return null;
+        }
+
+        boolean isOwner = cashcards.existsByOwner(username);
+        var roles = new ArrayList<String>();
+        roles.add(isOwner ? "CARD_OWNER" : "NON_OWNER");
+        if (admins.contains(username)) {
+            roles.add("ADMIN");
+        }
+        return new Account(user.getUsername(), user.getPassword(), List.copyOf(roles), user.getDeletionRequestedAt() != null);
     }
 
-    
+    // Cached instead of the UserDetails itself, whose password Spring Security erases
+    // after authenticating
+    private record Account(String username, String password, List<String> roles, boolean disabled) {
+
+        UserDetails toUserDetails() {
+            return org.springframework.security.core.userdetails.User
+                    .withUsername(username)
+                    .password(password)
+                    .roles(roles.toArray(String[]::new))
+                    .disabled(disabled)
+                    .build();
+        }
+    }
 }
@@ -1,7 +1,9 @@
 package example.user;
 
+import java.time.Instant;
 import java.util.Objects;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
@@ -12,6 +14,9 @@ public class User {
     @Id
     private String username;
     private String password;
+    // Set while a large account is being purged in the background; the user can no longer log in
+    @Column(name = "deletion_requested_at")
+    private Instant deletionRequestedAt;
 
     public User( ) {
     }
@@ -37,6 +42,10 @@ public class User {
         this.password = password;
     }
 
+    public Instant getDeletionRequestedAt() {
+        return this.deletionRequestedAt;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -7,7 +7,6 @@ import jakarta.validation.Valid;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -23,27 +22,28 @@ import org.springframework.web.util.UriComponentsBuilder;
 @RequestMapping("/users")
 public class UserController {
 
-    private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final UserService userService;
+    private final AccountDeletionService accountDeletionService;
 
-    public UserController(UserRepository userRepository, PasswordEncoder passwordEncoder) {
-        this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+    public UserController(UserService userService, AccountDeletionService accountDeletionService) {
+        this.userService = userService;
+        this.accountDeletionService = accountDeletionService;
     }
     @PostMapping("/register")
     private ResponseEntity<Void> register(@Valid @RequestBody UserRegistrationRequest request, UriComponentsBuilder ucb) {
-        if(userRepository.findById(request.getUsername()).isPresent()) {
+        if(!userService.register(request.getUsername(), request.getPassword())) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
-        var password = passwordEncoder.encode(request.getPassword());
-        var registeredUser = new User(request.getUsername(), password);
-        userRepository.save(registeredUser);
         URI locationOfNewCashCard = ucb
                 .path("/users/{username}")
-                .buildAndExpand(registeredUser.getUsername())
+                .buildAndExpand(request.getUsername())
                 .toUri();
         return ResponseEntity.created(locationOfNewCashCard).build();
     }
+    @GetMapping("/available/{username}")
+    private ResponseEntity<Boolean> isAvailable(@PathVariable String username) {
+        return ResponseEntity.ok(userService.isAvailable(username));
+    }
     @GetMapping("/{username}")
     private ResponseEntity<String> findByUsername(@PathVariable String username, Principal principal) {
         if(principal == null) {
@@ -51,45 +51,38 @@ public class UserController {
         }
         if(!principal.getName().equals(username))
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        var userFromDB = userRepository.findById(username).orElse(null);
-        if(userFromDB == null) {
-            return ResponseEntity.notFound().build();
-        }
-        return ResponseEntity.ok(userFromDB.getUsername());
+        return userService.find(username)
+                .map(userFromDB -> ResponseEntity.ok(userFromDB.getUsername()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
    @PutMapping("/{username}/change-password")
     private ResponseEntity<Void> changePassword(@PathVariable String username, @Valid @RequestBody ChangePasswordRequest request, Principal principal) { 
-            var currentPassword = request.getCurrentPassword();
-            var newPassword = request.getNewPassword();
             if(!principal.getName().equals(username))
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-            var userFromDB = userRepository.findById(username)
-                    .orElse(null);
-            if(userFromDB == null)
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-            if(!passwordEncoder.matches(currentPassword, userFromDB.getPassword())) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-            }
-            var hashedNewPassword = passwordEncoder.encode(newPassword);
-            var updatedUser = new User(username, hashedNewPassword);
-
-            userRepository.save(updatedUser);
-
-            return ResponseEntity.noContent().build();
+            return switch (userService.changePassword(username, request.getCurrentPassword(), request.getNewPassword())) {
+                case NOT_FOUND -> ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+                case WRONG_PASSWORD -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+                case VALID -> ResponseEntity.noContent().build();
+            };
     }
     @DeleteMapping("/{username}")
     private ResponseEntity<Void> deleteAccount(@PathVariable String username, @RequestBody String password, Principal principal) { 
-        var userFromDB = userRepository.findById(username).orElse(null);
         if(!principal.getName().equals(username)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();  
         }
-        if(userFromDB == null) {
+        var check = userService.verifyPassword(username, password);
+        if(check == UserService.PasswordCheck.NOT_FOUND) {
             return ResponseEntity.notFound().build(); 
         }
-        if(!passwordEncoder.matches(password, userFromDB.getPassword())) {
+        if(check == UserService.PasswordCheck.WRONG_PASSWORD) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        userRepository.deleteById(username);
-        return ResponseEntity.noContent().build();
+        return switch (accountDeletionService.deleteAccount(username)) {
+            // The account is locked out now; its cards are purged in the background
+            case SCHEDULED -> ResponseEntity.accepted().build();
+            // Deleted by a concurrent request since the password was checked
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case DELETED -> ResponseEntity.noContent().build();
+        };
     }
 }
@@ -1,6 +1,19 @@
 package example.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface UserRepository extends JpaRepository<User, String> {
+
+    // A plain insert: save() would first select the row to decide between persist and merge
+    @Modifying
+    @Query(value = "INSERT INTO users (username, password) VALUES (:username, :password)", nativeQuery = true)
+    int insert(@Param("username") String username, @Param("password") String password);
+
+    @Modifying
+    @Query("update User u set u.password = :replacement where u.username = :username and u.password = :expected")
+    int replacePassword(@Param("username") String username, @Param("expected") String expected,
+                        @Param("replacement") String replacement);
 }
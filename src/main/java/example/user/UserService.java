@@ -0,0 +1,97 @@
+package example.user;
+
+import java.util.Optional;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import example.shard.ShardRouter;
+
+/**
+ * Transaction boundaries for the account operations. BCrypt is deliberately slow, so every
+ * hash and comparison runs outside a transaction: a connection is only taken for the short
+ * read of the stored hash and for the write itself.
+ */
+@Service
+public class UserService {
+    public enum PasswordCheck { VALID, WRONG_PASSWORD, NOT_FOUND }
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shards;
+    private final DatabaseUserDetailsService userDetailsService;
+    private final UsernameFilter usernames;
+
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, PlatformTransactionManager transactionManager,
+                       ShardRouter shards, DatabaseUserDetailsService userDetailsService, UsernameFilter usernames) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = shards;
+        this.userDetailsService = userDetailsService;
+        this.usernames = usernames;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<User> find(String username) {
+        return userRepository.findById(username);
+    }
+
+    /**
+     * Only names the {@link UsernameFilter} cannot rule out cost a query.
+     */
+    public boolean isAvailable(String username) {
+        return !usernames.mightExist(username) || !shards.call(username, () -> userRepository.existsById(username));
+    }
+
+    /**
+     * @return false when the username is already taken
+     */
+    public boolean register(String username, String password) {
+        var hashed = passwordEncoder.encode(password);
+        // Registration is anonymous, so it is routed by the new username; the primary key
+        // is the only uniqueness check, so a signup costs the insert alone
+        try {
+            shards.call(username, () -> transactionTemplate.execute(status -> userRepository.insert(username, hashed)));
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+        usernames.add(username);
+        return true;
+    }
+
+    public PasswordCheck verifyPassword(String username, String password) {
+        var stored = userRepository.findById(username).map(User::getPassword).orElse(null);
+        if (stored == null) {
+            return PasswordCheck.NOT_FOUND;
+        }
+        return passwordEncoder.matches(password, stored) ? PasswordCheck.VALID : PasswordCheck.WRONG_PASSWORD;
+    }
+
+    /**
+     * @return {@code VALID} once the password has been changed
+     */
+    public PasswordCheck changePassword(String username, String currentPassword, String newPassword) {
+        var stored = userRepository.findById(username).map(User::getPassword).orElse(null);
+        if (stored == null) {
+            return PasswordCheck.NOT_FOUND;
+        }
+        if (!passwordEncoder.matches(currentPassword, stored)) {
+            return PasswordCheck.WRONG_PASSWORD;
+        }
+        var hashed = passwordEncoder.encode(newPassword);
+        // Replaces only the hash that was verified, in case another change landed meanwhile
+        int updated = transactionTemplate.execute(status -> userRepository.replacePassword(username, stored, hashed));
+        if (updated == 0) {
+            return PasswordCheck.WRONG_PASSWORD;
+        }
+        // Every node has to stop accepting the old password
+        userDetailsService.evict(username);
+        return PasswordCheck.VALID;
+    }
+}
@@ -0,0 +1,152 @@
+package example.user;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import example.cache.Invalidation;
+import example.cache.InvalidationTransport;
+import example.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Every taken username, held in a {@link BloomFilter} so that a name nobody has is
+ * recognised without a query. A "maybe" answer has to be confirmed against the database.
+ * <p>
+ * Every name added on this node is published on the {@link InvalidationTransport}, since
+ * it invalidates a "certainly free" answer the other nodes would otherwise give, and names
+ * published by other nodes are added here. A Bloom filter cannot forget a name, so the
+ * periodic rebuild is what drops deleted ones. Until the first build finishes every name
+ * is a "maybe".
+ */
+@Component
+public class UsernameFilter {
+    static final String CACHE = "usernames";
+
+    private final String node = UUID.randomUUID().toString();
+    private final JdbcTemplate jdbcTemplate;
+    private final InvalidationTransport transport;
+    private final ShardRouter shards;
+    private final long expectedUsers;
+    private final double falsePositiveRate;
+    private final Counter filtered;
+    private final Counter confirmed;
+    private final AtomicLong entries = new AtomicLong();
+    private volatile BloomFilter filter;
+    // Names added while a rebuild scans the database, replayed onto the fresh filter
+    private List<String> changes;
+
+    public UsernameFilter(JdbcTemplate jdbcTemplate, ShardRouter shards, InvalidationTransport transport, MeterRegistry meterRegistry,
+                          @Value("${cashcard.username-filter.expected-users:1000000}") long expectedUsers,
+                          @Value("${cashcard.username-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transport = transport;
+        this.shards = shards;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filtered = Counter.builder("cashcard.usernames.checks")
+                .description("Username lookups, by whether the filter answered or the database had to")
+                .tag("result", "filtered")
+                .register(meterRegistry);
+        this.confirmed = Counter.builder("cashcard.usernames.checks")
+                .description("Username lookups, by whether the filter answered or the database had to")
+                .tag("result", "database")
+                .register(meterRegistry);
+        Gauge.builder("cashcard.usernames.size", entries, AtomicLong::get)
+                .description("Usernames held in the filter")
+                .register(meterRegistry);
+        transport.subscribe(this::receive);
+    }
+
+    /**
+     * @return false only when the username is certainly not taken
+     */
+    public boolean mightExist(String username) {
+        var current = filter;
+        if (current != null && !current.mightContain(username)) {
+            filtered.increment();
+            return false;
+        }
+        confirmed.increment();
+        return true;
+    }
+
+    /**
+     * Call once the user row has been committed.
+     */
+    public void add(String username) {
+        put(username);
+        transport.publish(new Invalidation(node, CACHE, username));
+    }
+
+    private void receive(Invalidation invalidation) {
+        if (CACHE.equals(invalidation.cache()) && !node.equals(invalidation.origin())) {
+            put(invalidation.key());
+        }
+    }
+
+    private void put(String username) {
+        synchronized (this) {
+            if (changes != null) {
+                changes.add(username);
+            }
+        }
+        var current = filter;
+        if (current != null) {
+            current.put(username);
+            entries.incrementAndGet();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    /**
+     * Builds a fresh filter from {@code users} on every shard, sized for twice the current
+     * count, and swaps it in.
+     *
+     * @return the number of usernames in the new filter
+     */
+    @Scheduled(fixedDelayString = "${cashcard.username-filter.rebuild-interval:PT1H}",
+            initialDelayString = "${cashcard.username-filter.rebuild-interval:PT1H}")
+    public long rebuild() {
+        synchronized (this) {
+            if (changes != null) {
+                return entries.get();
+            }
+            changes = new ArrayList<>();
+        }
+        try {
+            var count = new AtomicLong();
+            shards.forEachShard(shard -> count.addAndGet(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class)));
+            var fresh = new BloomFilter(Math.max(expectedUsers, count.get() * 2), falsePositiveRate);
+            var loaded = new AtomicLong();
+            shards.forEachShard(shard -> jdbcTemplate.query("SELECT username FROM users", row -> {
+                fresh.put(row.getString(1));
+                loaded.incrementAndGet();
+            }));
+            synchronized (this) {
+                changes.forEach(fresh::put);
+                entries.set(loaded.get() + changes.size());
+                filter = fresh;
+            }
+            return entries.get();
+        } finally {
+            synchronized (this) {
+                changes = null;
+            }
+        }
+    }
+}
@@ -1,11 +1,155 @@
-CREATE TABLE users (
+-- Every statement is idempotent: shards run this script on each start
+
+CREATE TABLE IF NOT EXISTS users (
     username VARCHAR(50) PRIMARY KEY,
-    password VARCHAR(200) NOT NULL
+    password VARCHAR(200) NOT NULL,
+    deletion_requested_at TIMESTAMP WITH TIME ZONE
 );
 
-CREATE TABLE cash_cards (
+CREATE TABLE IF NOT EXISTS cash_cards (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     amount NUMERIC(10,2) NOT NULL DEFAULT 0,
     owner VARCHAR(50) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (owner) REFERENCES users(username)
+);
+
+-- Every list query is owner-scoped; the second column serves the range filters
+CREATE INDEX IF NOT EXISTS cash_cards_owner_amount_idx ON cash_cards(owner, amount);
+CREATE INDEX IF NOT EXISTS cash_cards_owner_created_at_idx ON cash_cards(owner, created_at);
+CREATE INDEX IF NOT EXISTS cash_cards_updated_at_idx ON cash_cards(updated_at);
+
+-- Dormant and empty cards moved out of the hot table by CashCardArchiver
+CREATE TABLE IF NOT EXISTS cash_cards_archive (
+    id BIGINT PRIMARY KEY,
+    amount NUMERIC(10,2) NOT NULL,
+    owner VARCHAR(50) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    archived_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    FOREIGN KEY (owner) REFERENCES users(username)
+);
+
+CREATE INDEX IF NOT EXISTS cash_cards_archive_owner_idx ON cash_cards_archive(owner);
+
+CREATE TABLE IF NOT EXISTS families (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(100) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS family_members (
+    family_id BIGINT NOT NULL,
+    username VARCHAR(50) NOT NULL,
+    role VARCHAR(10) NOT NULL,
+    PRIMARY KEY (family_id, username),
+    FOREIGN KEY (family_id) REFERENCES families(id),
+    FOREIGN KEY (username) REFERENCES users(username)
+);
+
+CREATE INDEX IF NOT EXISTS family_members_username_idx ON family_members(username, role);
+
+-- Invitations waiting for the invited user to accept; membership, and with it a parent's
+-- access to that user's cards, only starts then. Kept on the invited user's shard, which
+-- need not hold the family, so there is no foreign key to families
+CREATE TABLE IF NOT EXISTS family_invites (
+    family_id BIGINT NOT NULL,
+    username VARCHAR(50) NOT NULL,
+    role VARCHAR(10) NOT NULL,
+    invited_by VARCHAR(50) NOT NULL,
+    PRIMARY KEY (family_id, username),
+    FOREIGN KEY (username) REFERENCES users(username)
+);
+
+CREATE INDEX IF NOT EXISTS family_invites_username_idx ON family_invites(username);
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    owner VARCHAR(50) NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    request VARCHAR(100) NOT NULL,
+    status INT NOT NULL,
+    location VARCHAR(255),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (owner, idempotency_key),
     FOREIGN KEY (owner) REFERENCES users(username)
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS idempotency_keys_created_at_idx ON idempotency_keys(created_at);
+
+-- Line ranges each bulk import committed on this shard, written in the chunk's own
+-- transaction so a resumed import can skip exactly the rows that made it in
+CREATE TABLE IF NOT EXISTS import_chunks (
+    import_id VARCHAR(36) NOT NULL,
+    first_line BIGINT NOT NULL,
+    last_line BIGINT NOT NULL,
+    PRIMARY KEY (import_id, first_line)
+);
+
+-- Change events written in the same transaction as the card mutation; drained by OutboxRelay
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_id BIGINT,
+    event_type VARCHAR(50) NOT NULL,
+    payload VARCHAR(1000) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- Every balance change, written by CashCardService next to the change; spends are the
+-- negative rows. Card ids are not foreign keys so history outlives deleted cards.
+CREATE TABLE IF NOT EXISTS card_transactions (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    card_id BIGINT NOT NULL,
+    owner VARCHAR(50) NOT NULL,
+    amount NUMERIC(10,2) NOT NULL,
+    category VARCHAR(30) NOT NULL,
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    FOREIGN KEY (owner) REFERENCES users(username)
+);
+
+CREATE INDEX IF NOT EXISTS card_transactions_owner_occurred_at_idx ON card_transactions(owner, occurred_at);
+
+-- Balance of a card after every change; kept for cashcard.history.raw-retention
+CREATE TABLE IF NOT EXISTS balance_points (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    card_id BIGINT NOT NULL,
+    balance NUMERIC(10,2) NOT NULL,
+    recorded_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS balance_points_card_id_recorded_at_idx ON balance_points(card_id, recorded_at);
+CREATE INDEX IF NOT EXISTS balance_points_recorded_at_idx ON balance_points(recorded_at);
+
+-- Minute, hour and day summaries of balance_points, filled in by BalanceRollups
+CREATE TABLE IF NOT EXISTS balance_rollups (
+    card_id BIGINT NOT NULL,
+    resolution VARCHAR(6) NOT NULL,
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    min_balance NUMERIC(10,2) NOT NULL,
+    max_balance NUMERIC(10,2) NOT NULL,
+    last_balance NUMERIC(10,2) NOT NULL,
+    PRIMARY KEY (card_id, resolution, bucket_start)
+);
+
+CREATE INDEX IF NOT EXISTS balance_rollups_resolution_bucket_start_idx ON balance_rollups(resolution, bucket_start);
+
+-- Points recorded before rolled_up_to are already summarised in balance_rollups
+CREATE TABLE IF NOT EXISTS balance_rollup_watermark (
+    id INT PRIMARY KEY,
+    rolled_up_to TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+INSERT INTO balance_rollup_watermark (id, rolled_up_to)
+SELECT 1, TIMESTAMP WITH TIME ZONE '1970-01-01 00:00:00+00' WHERE NOT EXISTS (SELECT 1 FROM balance_rollup_watermark);
+
+-- The block of cash card ids a shard hands out, claimed by ShardDataSources the first
+-- time it initializes the shard; empty without sharding
+CREATE TABLE IF NOT EXISTS shard_id_block (
+    id INT PRIMARY KEY,
+    block BIGINT NOT NULL
+);
+
+-- Owners kept on this shard whatever the ring says, e.g. moved here to join a family;
+-- ShardRouter pins them again on startup
+CREATE TABLE IF NOT EXISTS pinned_owners (
+    username VARCHAR(50) PRIMARY KEY
+);
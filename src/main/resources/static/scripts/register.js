@@ -1,6 +1,33 @@
 const form = document.getElementById('registerForm');
 const messageDiv = document.getElementById('message');
 const submitBtn = document.getElementById('submitBtn');
+const usernameInput = document.getElementById('username');
+let availabilityTimer;
+
+// Answered from the server's in-memory username filter for most names, so it is cheap
+// enough to ask while the user types
+usernameInput.addEventListener('input', () => {
+    clearTimeout(availabilityTimer);
+    const username = usernameInput.value;
+    if (!/^[a-zA-Z0-9_-]{3,20}$/.test(username)) {
+        return;
+    }
+    availabilityTimer = setTimeout(async () => {
+        try {
+            const response = await fetch(`/users/available/${encodeURIComponent(username)}`);
+            if (!response.ok || usernameInput.value !== username) {
+                return;
+            }
+            if (await response.json()) {
+                messageDiv.style.display = 'none';
+            } else {
+                showMessage('Username already exists. Please choose another.', 'error');
+            }
+        } catch (error) {
+            // Registration still reports a taken username
+        }
+    }, 250);
+});
 
 form.addEventListener('submit', async (e) => {
     e.preventDefault();
@@ -0,0 +1,233 @@
+package example.bulkimport;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.RestClient;
+
+import example.shard.ShardRouter;
+import example.user.UsernameFilter;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "cashcard.admin.usernames=sarah1",
+        "cashcard.import.chunk-size=2",
+        "cashcard.import.workers=3"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BulkImportTests {
+
+    static final String HASH = "$2a$10$1VWQBQGgFurYEeMvFT2NDem.Gt2rU/wqyiBraRCJOCRaxPFn6IlUi";
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    BulkImportService bulkImportService;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    JsonMapper jsonMapper;
+
+    @Autowired
+    ShardRouter shards;
+
+    @Autowired
+    UsernameFilter usernames;
+
+    private RestClient client(String username, String password) {
+        return RestClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .defaultHeaders(headers -> headers.setBasicAuth(username, password))
+                .build();
+    }
+
+    @Test
+    void shouldImportUsersFromCsvAndReportRejects() {
+        String csv = """
+                username,password
+                imported1,%1$s
+                imported2,%1$s
+                bad user,%1$s
+                imported3,plaintext
+                sarah1,%1$s
+                imported4,%1$s
+                """.formatted(HASH);
+
+        ResponseEntity<ImportReport> response = client("sarah1", "abc123").post()
+                .uri("/admin/import/users?importId=users-csv")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(csv)
+                .retrieve()
+                .toEntity(ImportReport.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        ImportReport report = response.getBody();
+        assertThat(report.inserted()).isEqualTo(3);
+        assertThat(report.rejected()).isEqualTo(3);
+        assertThat(report.checkpointLine()).isEqualTo(6);
+        assertThat(report.rejections()).extracting(ImportReport.Rejection::line).containsExactlyInAnyOrder(3L, 4L, 5L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE username LIKE 'imported%'", Integer.class))
+                .isEqualTo(3);
+
+        // The imported hash is used as-is, so the imported user can log in with its password
+        ResponseEntity<String> login = client("imported1", "abc123").get()
+                .uri("/users/imported1")
+                .retrieve()
+                .toEntity(String.class);
+        assertThat(login.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void shouldImportCashCardsFromNdjsonResumingAfterSkippedLines() {
+        String ndjson = """
+                {"owner": "kumar2", "amount": 1.5}
+                {"owner": "kumar2", "amount": 2.5}
+                {"owner": "nobody", "amount": 3.5}
+                {"owner": "kumar2", "amount": "lots"}
+                {"owner": "kumar2", "amount": 4.5}
+                """;
+
+        ImportReport report = client("sarah1", "abc123").post()
+                .uri("/admin/import/cashcards?importId=cards-ndjson&skip=1")
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(ndjson)
+                .retrieve()
+                .body(ImportReport.class);
+
+        assertThat(report.linesRead()).isEqualTo(5);
+        assertThat(report.inserted()).isEqualTo(2);
+        assertThat(report.rejections()).extracting(ImportReport.Rejection::line).containsExactlyInAnyOrder(3L, 4L);
+        assertThat(jdbcTemplate.queryForList("SELECT amount FROM cash_cards WHERE owner = 'kumar2' ORDER BY amount", Double.class))
+                .containsExactly(2.5, 4.5, 200.0);
+    }
+
+    @Test
+    void shouldNotDuplicateCardsWhenResumingAPartlyCommittedImport() throws IOException {
+        String ndjson = """
+                {"owner": "kumar2", "amount": 1}
+                {"owner": "kumar2", "amount": 2}
+                {"owner": "kumar2", "amount": 3}
+                {"owner": "kumar2", "amount": 4}
+                {"owner": "kumar2", "amount": 5}
+                {"owner": "kumar2", "amount": 6}
+                """;
+        var firstFourLines = ndjson.lines().limit(4).map(line -> line + "\n").reduce("", String::concat);
+
+        // The upload breaks off after the first two chunks were handed to the workers
+        assertThatThrownBy(() -> bulkImportService.importCashCards(
+                new SequenceInputStream(utf8(firstFourLines), brokenStream()), ImportFormat.NDJSON, "cards-resume", 0))
+                .isInstanceOf(IOException.class);
+        assertThat(importedAmounts()).containsExactly(1.0, 2.0, 3.0, 4.0);
+
+        // Resumed from the very start, as if no checkpoint had been reported
+        ImportReport report = bulkImportService.importCashCards(utf8(ndjson), ImportFormat.NDJSON, "cards-resume", 0);
+
+        assertThat(report.importId()).isEqualTo("cards-resume");
+        assertThat(report.inserted()).isEqualTo(2);
+        assertThat(importedAmounts()).containsExactly(1.0, 2.0, 3.0, 4.0, 5.0, 6.0);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM import_chunks", Integer.class)).isZero();
+    }
+
+    @Test
+    void shouldHoldTheCheckpointBackAtAChunkThatFailedUnexpectedly() throws IOException {
+        String ndjson = """
+                {"owner": "kumar2", "amount": 1}
+                {"owner": "kumar2", "amount": 2}
+                {"owner": "kumar2", "amount": 3}
+                {"owner": "kumar2", "amount": 4}
+                {"owner": "kumar2", "amount": 5}
+                {"owner": "kumar2", "amount": 6}
+                """;
+        // The chunk holding amount 3 fails once with something other than a database error
+        var failed = new AtomicBoolean();
+        var failing = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+                if (batchArgs.stream().anyMatch(args -> args[1].equals(3.0)) && failed.compareAndSet(false, true)) {
+                    throw new IllegalStateException("worker died");
+                }
+                return super.batchUpdate(sql, batchArgs);
+            }
+        };
+        var service = new BulkImportService(failing, transactionManager, jsonMapper, shards, usernames, 2, 3);
+
+        ImportReport report = service.importCashCards(utf8(ndjson), ImportFormat.NDJSON, "cards-failed", 0);
+
+        assertThat(report.inserted()).isEqualTo(4);
+        assertThat(report.rejections()).extracting(ImportReport.Rejection::line).containsExactlyInAnyOrder(3L, 4L);
+        assertThat(report.rejections()).extracting(ImportReport.Rejection::reason).containsOnly("worker died");
+        assertThat(report.checkpointLine()).isEqualTo(2);
+        assertThat(importedAmounts()).containsExactly(1.0, 2.0, 5.0, 6.0);
+
+        ImportReport resumed = service.importCashCards(utf8(ndjson), ImportFormat.NDJSON, "cards-failed", report.checkpointLine());
+
+        assertThat(resumed.inserted()).isEqualTo(2);
+        assertThat(resumed.rejected()).isZero();
+        assertThat(importedAmounts()).containsExactly(1.0, 2.0, 3.0, 4.0, 5.0, 6.0);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM import_chunks", Integer.class)).isZero();
+    }
+
+    @Test
+    void shouldRequireAnImportId() {
+        ResponseEntity<Void> response = client("sarah1", "abc123").post()
+                .uri("/admin/import/cashcards")
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body("{\"owner\": \"kumar2\", \"amount\": 1}\n")
+                .exchange((request, clientResponse) -> ResponseEntity.status(clientResponse.getStatusCode()).build());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(importedAmounts()).isEmpty();
+    }
+
+    private List<Double> importedAmounts() {
+        return jdbcTemplate.queryForList("SELECT amount FROM cash_cards WHERE owner = 'kumar2' AND amount < 100 ORDER BY amount", Double.class);
+    }
+
+    private static InputStream utf8(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static InputStream brokenStream() {
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        };
+    }
+
+    @Test
+    void shouldOnlyLetAdminsImport() {
+        ResponseEntity<Void> response = client("kumar2", "xyz789").post()
+                .uri("/admin/import/users")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body("username,password\n")
+                .exchange((request, clientResponse) -> ResponseEntity.status(clientResponse.getStatusCode()).build());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+}
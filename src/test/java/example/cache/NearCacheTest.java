@@ -0,0 +1,103 @@
+package example.cache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NearCacheTest {
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private NearCache<Long, String> first;
+    private NearCache<Long, String> second;
+
+    @BeforeEach
+    void setUp() {
+        var transport = new LoopbackInvalidationTransport();
+        first = node(transport, Duration.ofMinutes(1)).create("cards");
+        second = node(transport, Duration.ofMinutes(1)).create("cards");
+    }
+
+    @Test
+    void shouldServeRepeatedReadsFromTheCache() {
+        assertThat(first.get(1L, this::load)).isEqualTo("card-1");
+        assertThat(first.get(1L, this::load)).isEqualTo("card-1");
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void shouldInvalidateAnEntryOnEveryNode() {
+        first.get(1L, this::load);
+        second.get(1L, this::load);
+        second.get(2L, this::load);
+
+        first.invalidate(1L);
+
+        first.get(1L, this::load);
+        second.get(1L, this::load);
+        second.get(2L, this::load);
+        assertThat(loads).hasValue(5);
+    }
+
+    @Test
+    void shouldClearTheCacheOnEveryNode() {
+        first.get(1L, this::load);
+        second.get(2L, this::load);
+
+        second.invalidateAll();
+
+        first.get(1L, this::load);
+        second.get(2L, this::load);
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void shouldOnlyInvalidateOnceTheTransactionCommits() {
+        first.get(1L, this::load);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            first.invalidate(1L);
+            assertThat(first.get(1L, this::load)).isEqualTo("card-1");
+            assertThat(loads).hasValue(1);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCommit());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        first.get(1L, this::load);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void shouldExpireEntries() {
+        var expiring = node(new LoopbackInvalidationTransport(), Duration.ZERO).<Long, String>create("cards");
+
+        expiring.get(1L, this::load);
+        expiring.get(1L, this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void shouldNotCacheMissingValues() {
+        first.get(1L, key -> null);
+
+        assertThat(first.get(1L, this::load)).isEqualTo("card-1");
+    }
+
+    private String load(Long id) {
+        loads.incrementAndGet();
+        return "card-" + id;
+    }
+
+    private static NearCaches node(InvalidationTransport transport, Duration ttl) {
+        return new NearCaches(transport, new SimpleMeterRegistry(), ttl, 100);
+    }
+}
@@ -14,11 +14,15 @@ import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.web.client.RestClient;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.net.URI;
@@ -304,4 +308,296 @@ class CashCardApplicationTests {
             });
         assertThat(deleteResponse.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
+
+    @Test
+    void shouldAllowAParentToReadTheirChildsCashCard() {
+        ResponseEntity<String> response = client.get()
+                .uri("/cashcards/103")
+                .retrieve()
+                .toEntity(String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        DocumentContext doc = JsonPath.parse(response.getBody());
+        assertThat(doc.read("$.owner", String.class)).isEqualTo("timmy");
+    }
+
+    @Test
+    void shouldNotAllowAChildToReadTheirParentsCashCard() {
+        RestClient childClient = RestClient.builder()
+            .baseUrl("http://localhost:" + port)
+            .defaultHeaders(headers -> headers.setBasicAuth("timmy", "abc123"))
+            .build();
+        ResponseEntity<String> response = childClient.get()
+            .uri("/cashcards/99")
+            .exchange((request, clientResponse) -> {
+                return ResponseEntity.status(clientResponse.getStatusCode())
+                    .headers(clientResponse.getHeaders())
+                    .body(clientResponse.bodyTo(String.class));
+            });
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldReturnAllFamilyCashCardsForAParent() {
+        ResponseEntity<String> response = client.get()
+                .uri("/cashcards?family=10")
+                .retrieve()
+                .toEntity(String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        DocumentContext documentContext = JsonPath.parse(response.getBody());
+        JSONArray ids = documentContext.read("$..id");
+        assertThat(ids).containsExactly(100, 103, 99, 101);
+    }
+
+    @Test
+    void shouldOnlyReturnTheirOwnCashCardsInTheFamilyViewForAChild() {
+        RestClient childClient = RestClient.builder()
+            .baseUrl("http://localhost:" + port)
+            .defaultHeaders(headers -> headers.setBasicAuth("timmy", "abc123"))
+            .build();
+        ResponseEntity<String> response = childClient.get()
+                .uri("/cashcards?family=10")
+                .retrieve()
+                .toEntity(String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONArray ids = JsonPath.parse(response.getBody()).read("$..id");
+        assertThat(ids).containsExactly(103);
+    }
+
+    @Test
+    void shouldNotReturnTheFamilyViewToNonMembers() {
+        RestClient outsiderClient = RestClient.builder()
+            .baseUrl("http://localhost:" + port)
+            .defaultHeaders(headers -> headers.setBasicAuth("kumar2", "xyz789"))
+            .build();
+        ResponseEntity<String> response = outsiderClient.get()
+            .uri("/cashcards?family=10")
+            .exchange((request, clientResponse) -> {
+                return ResponseEntity.status(clientResponse.getStatusCode())
+                    .headers(clientResponse.getHeaders())
+                    .body(clientResponse.bodyTo(String.class));
+            });
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    @DirtiesContext
+    void shouldKeepTheChildAsOwnerWhenAParentUpdatesTheirCashCard() {
+        CashCard newCashCard = new CashCard(null, 30.0, null);
+        ResponseEntity<Void> response = client.put()
+            .uri("/cashcards/103")
+            .body(newCashCard)
+            .retrieve()
+            .toEntity(Void.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        ResponseEntity<String> getResponse = client.get()
+                .uri("/cashcards/103")
+                .retrieve()
+                .toEntity(String.class);
+        DocumentContext doc = JsonPath.parse(getResponse.getBody());
+        assertThat(doc.read("$.owner", String.class)).isEqualTo("timmy");
+        assertThat(doc.read("$.amount", Double.class)).isEqualTo(30.0);
+    }
+
+    @Test
+    void shouldFilterCashCardsByAmountRange() {
+        ResponseEntity<String> response = client.get()
+                .uri("/cashcards?minAmount=100&maxAmount=150")
+                .retrieve()
+                .toEntity(String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONArray ids = JsonPath.parse(response.getBody()).read("$..id");
+        assertThat(ids).containsExactly(99, 101);
+    }
+
+    @Test
+    void shouldFilterCashCardsByIdRangeAndCreationTime() {
+        ResponseEntity<String> response = client.get()
+                .uri("/cashcards?minId=100&maxId=101&createdAfter=2000-01-01T00:00:00Z")
+                .retrieve()
+                .toEntity(String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONArray ids = JsonPath.parse(response.getBody()).read("$..id");
+        assertThat(ids).containsExactly(100, 101);
+
+        response = client.get()
+                .uri("/cashcards?createdAfter=2999-01-01T00:00:00Z")
+                .retrieve()
+                .toEntity(String.class);
+        JSONArray page = JsonPath.parse(response.getBody()).read("$[*]");
+        assertThat(page).isEmpty();
+    }
+
+    @Test
+    void shouldRejectAnInvertedRange() {
+        ResponseEntity<String> response = client.get()
+            .uri("/cashcards?minAmount=150&maxAmount=100")
+            .exchange((request, clientResponse) -> {
+                return ResponseEntity.status(clientResponse.getStatusCode())
+                    .headers(clientResponse.getHeaders())
+                    .body(clientResponse.bodyTo(String.class));
+            });
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void shouldRejectSortingOnAFieldOutsideTheAllowlist() {
+        ResponseEntity<String> response = client.get()
+            .uri("/cashcards?sort=owner,asc")
+            .exchange((request, clientResponse) -> {
+                return ResponseEntity.status(clientResponse.getStatusCode())
+                    .headers(clientResponse.getHeaders())
+                    .body(clientResponse.bodyTo(String.class));
+            });
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void shouldReturnACashCardAsCborWhenRequested() {
+        ResponseEntity<byte[]> response = client.get()
+                .uri("/cashcards/99")
+                .accept(MediaType.APPLICATION_CBOR)
+                .retrieve()
+                .toEntity(byte[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        CashCard cashCard = CBORMapper.builder().build().readValue(response.getBody(), CashCard.class);
+        assertThat(cashCard).isEqualTo(new CashCard(99L, 123.45, "sarah1"));
+    }
+
+    @Test
+    void shouldReturnTheCashCardListAsSmileWhenRequested() {
+        MediaType smile = MediaType.parseMediaType("application/x-jackson-smile");
+        ResponseEntity<byte[]> response = client.get()
+                .uri("/cashcards")
+                .accept(smile)
+                .retrieve()
+                .toEntity(byte[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(smile);
+        CashCard[] cashCards = SmileMapper.builder().build().readValue(response.getBody(), CashCard[].class);
+        assertThat(cashCards).extracting(CashCard::getId).containsExactly(100L, 99L, 101L);
+    }
+
+    @Test
+    @DirtiesContext
+    void shouldCreateANewCashCardFromACborBody() {
+        byte[] body = CBORMapper.builder().build().writeValueAsBytes(new CashCard(null, 42.0, null));
+        ResponseEntity<Void> response = client.post()
+                .uri("/cashcards")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .body(body)
+                .retrieve()
+                .toEntity(Void.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    }
+
+    @Test
+    @DirtiesContext
+    void shouldNotCreateADuplicateCashCardWhenAPostIsRetriedWithTheSameIdempotencyKey() {
+        CashCard newCashCard = new CashCard(null, 250.00, null);
+
+        ResponseEntity<Void> first = client.post()
+            .uri("/cashcards")
+            .header("Idempotency-Key", "retry-1")
+            .body(newCashCard)
+            .retrieve()
+            .toEntity(Void.class);
+        ResponseEntity<Void> retry = client.post()
+            .uri("/cashcards")
+            .header("Idempotency-Key", "retry-1")
+            .body(newCashCard)
+            .retrieve()
+            .toEntity(Void.class);
+
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getHeaders().getLocation()).isEqualTo(first.getHeaders().getLocation());
+        assertThat(retry.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+
+        ResponseEntity<String> list = client.get()
+                .uri("/cashcards")
+                .retrieve()
+                .toEntity(String.class);
+        int cashCardCount = JsonPath.parse(list.getBody()).read("$.length()");
+        assertThat(cashCardCount).isEqualTo(4);
+    }
+
+    @Test
+    @DirtiesContext
+    void shouldRejectAnIdempotencyKeyReusedForADifferentRequest() {
+        client.put()
+            .uri("/cashcards/99")
+            .header("Idempotency-Key", "reused")
+            .body(new CashCard(null, 10.0, null))
+            .retrieve()
+            .toEntity(Void.class);
+
+        ResponseEntity<Void> response = client.put()
+            .uri("/cashcards/100")
+            .header("Idempotency-Key", "reused")
+            .body(new CashCard(null, 10.0, null))
+            .exchange((request, clientResponse) -> {
+                return ResponseEntity.status(clientResponse.getStatusCode())
+                    .headers(clientResponse.getHeaders())
+                    .body(clientResponse.bodyTo(Void.class));
+            });
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @Test
+    void shouldReturnManyCashCardsByIdInOneCall() {
+        ResponseEntity<String> response = client.get()
+                .uri("/cashcards?ids=99,103,102,70,99")
+                .retrieve()
+                .toEntity(String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        DocumentContext documentContext = JsonPath.parse(response.getBody());
+        JSONArray found = documentContext.read("$.found[*].id");
+        assertThat(found).containsExactly(99, 103);
+        assertThat(documentContext.read("$.found[1].owner", String.class)).isEqualTo("timmy");
+        JSONArray notFound = documentContext.read("$.notFound");
+        assertThat(notFound).containsExactly(102, 70);
+    }
+
+    @Test
+    void shouldRejectACashCardWithoutAnAmount() {
+        ResponseEntity<Void> created = client.post()
+            .uri("/cashcards")
+            .contentType(MediaType.APPLICATION_JSON)
+            .body("{}")
+            .exchange((request, clientResponse) -> ResponseEntity.status(clientResponse.getStatusCode()).build());
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        ResponseEntity<Void> updated = client.put()
+            .uri("/cashcards/99")
+            .contentType(MediaType.APPLICATION_JSON)
+            .body("{\"owner\": \"sarah1\"}")
+            .exchange((request, clientResponse) -> ResponseEntity.status(clientResponse.getStatusCode()).build());
+        assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        String body = client.get().uri("/cashcards/99").retrieve().body(String.class);
+        assertThat(JsonPath.parse(body).read("$.amount", Double.class)).isEqualTo(123.45);
+    }
+
+    @Test
+    void shouldRejectAMultiGetOverTheIdLimit() {
+        var ids = new StringBuilder("1");
+        for (int id = 2; id <= 101; id++) {
+            ids.append(',').append(id);
+        }
+
+        ResponseEntity<Void> response = client.get()
+            .uri("/cashcards?ids=" + ids)
+            .exchange((request, clientResponse) -> ResponseEntity.status(clientResponse.getStatusCode()).build());
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
 }
@@ -0,0 +1,105 @@
+package example.cashcard;
+
+import com.jayway.jsonpath.JsonPath;
+import net.minidev.json.JSONArray;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.client.RestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class CashCardArchiveTests {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    CashCardArchiver archiver;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    RestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = RestClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .defaultHeaders(headers -> headers.setBasicAuth("sarah1", "abc123"))
+                .build();
+        jdbcTemplate.update("UPDATE cash_cards SET updated_at = TIMESTAMP '2000-01-01 00:00:00' WHERE id = 100");
+    }
+
+    @Test
+    void shouldMoveDormantCardsToTheArchive() {
+        assertThat(archiver.archive()).isEqualTo(1);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cash_cards WHERE id = 100", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cash_cards_archive WHERE id = 100", Integer.class)).isOne();
+        assertThat(archiver.archive()).isZero();
+    }
+
+    @Test
+    void shouldStillFindAnArchivedCardById() {
+        archiver.archive();
+
+        ResponseEntity<String> response = client.get().uri("/cashcards/100").retrieve().toEntity(String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Number id = JsonPath.parse(response.getBody()).read("$.id");
+        assertThat(id.longValue()).isEqualTo(100);
+    }
+
+    @Test
+    void shouldLeaveArchivedCardsOutOfTheListUntilRestored() {
+        archiver.archive();
+        assertThat(listedIds()).containsExactlyInAnyOrder(99, 101);
+
+        ResponseEntity<Void> restored = client.post().uri("/cashcards/100/restore").retrieve().toBodilessEntity();
+
+        assertThat(restored.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(listedIds()).containsExactlyInAnyOrder(99, 100, 101);
+        assertThat(archiver.archive()).isZero();
+    }
+
+    @Test
+    void shouldNotRestoreCardsThatAreNotArchivedOrNotAccessible() {
+        archiver.archive();
+
+        ResponseEntity<Void> active = client.post().uri("/cashcards/99/restore")
+                .exchange((request, response) -> ResponseEntity.status(response.getStatusCode()).build());
+        ResponseEntity<Void> foreign = RestClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .defaultHeaders(headers -> headers.setBasicAuth("kumar2", "xyz789"))
+                .build()
+                .post().uri("/cashcards/100/restore")
+                .exchange((request, response) -> ResponseEntity.status(response.getStatusCode()).build());
+
+        assertThat(active.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(foreign.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldDeleteAnArchivedCard() {
+        archiver.archive();
+
+        ResponseEntity<Void> response = client.delete().uri("/cashcards/100").retrieve().toBodilessEntity();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cash_cards_archive", Integer.class)).isZero();
+    }
+
+    private JSONArray listedIds() {
+        String body = client.get().uri("/cashcards").retrieve().body(String.class);
+        return JsonPath.parse(body).read("$..id");
+    }
+}
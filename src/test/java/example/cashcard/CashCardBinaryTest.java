@@ -0,0 +1,60 @@
+package example.cashcard;
+
+import org.assertj.core.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CashCardBinaryTest {
+
+    private final ObjectMapper cbor = CBORMapper.builder().build();
+    private final ObjectMapper smile = SmileMapper.builder().build();
+    private final ObjectMapper json = JsonMapper.builder().build();
+
+    private CashCard[] cashCards;
+
+    @BeforeEach
+    void setUp() {
+        cashCards = Arrays.array(
+                new CashCard(99L, 123.45, "sarah1"),
+                new CashCard(100L, 1.00, "sarah1"),
+                new CashCard(101L, 150.00, "sarah1"));
+    }
+
+    @Test
+    void cashCardCborRoundTripTest() {
+        byte[] encoded = cbor.writeValueAsBytes(cashCards[0]);
+        assertThat(cbor.readValue(encoded, CashCard.class)).isEqualTo(new CashCard(99L, 123.45, "sarah1"));
+    }
+
+    @Test
+    void cashCardListCborRoundTripTest() {
+        byte[] encoded = cbor.writeValueAsBytes(cashCards);
+        assertThat(cbor.readValue(encoded, CashCard[].class)).isEqualTo(cashCards);
+    }
+
+    @Test
+    void cashCardSmileRoundTripTest() {
+        byte[] encoded = smile.writeValueAsBytes(cashCards[0]);
+        assertThat(smile.readValue(encoded, CashCard.class)).isEqualTo(new CashCard(99L, 123.45, "sarah1"));
+    }
+
+    @Test
+    void cashCardListSmileRoundTripTest() {
+        byte[] encoded = smile.writeValueAsBytes(cashCards);
+        assertThat(smile.readValue(encoded, CashCard[].class)).isEqualTo(cashCards);
+    }
+
+    @Test
+    void binaryEncodingsAreSmallerThanJson() {
+        int jsonSize = json.writeValueAsBytes(cashCards).length;
+        assertThat(cbor.writeValueAsBytes(cashCards).length).isLessThan(jsonSize);
+        assertThat(smile.writeValueAsBytes(cashCards).length).isLessThan(jsonSize);
+    }
+}
@@ -0,0 +1,57 @@
+package example.cashcard;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Payload size and CPU time per encode/decode round trip of a 1000 card page for each
+ * representation {@code CashCardController} can negotiate.
+ */
+@Tag("benchmark")
+class CashCardEncodingBenchmark {
+
+    private static final int ROUNDS = 2_000;
+
+    private final CashCard[] page = LongStream.range(0, 1_000)
+            .mapToObj(id -> new CashCard(id, id * 1.25, "owner-" + (id % 7)))
+            .toArray(CashCard[]::new);
+
+    @Test
+    void compareEncodings() {
+        var json = measure("json", JsonMapper.builder().build());
+        var cbor = measure("cbor", CBORMapper.builder().build());
+        var smile = measure("smile", SmileMapper.builder().build());
+
+        assertThat(cbor.bytes()).isLessThan(json.bytes());
+        assertThat(smile.bytes()).isLessThan(json.bytes());
+    }
+
+    private Result measure(String name, ObjectMapper mapper) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        byte[] encoded = mapper.writeValueAsBytes(page);
+        for (int i = 0; i < ROUNDS / 4; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(page), CashCard[].class);
+        }
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(page), CashCard[].class);
+        }
+        long cpuNanos = (threads.getCurrentThreadCpuTime() - start) / ROUNDS;
+        System.out.printf("%-5s %,8d bytes  %8.1f us cpu/round trip%n", name, encoded.length, cpuNanos / 1e3);
+        return new Result(encoded.length, cpuNanos);
+    }
+
+    private record Result(int bytes, long cpuNanos) {
+    }
+}
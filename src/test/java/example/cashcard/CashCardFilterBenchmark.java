@@ -0,0 +1,97 @@
+package example.cashcard;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares a server-side amount range filter against the previous approach of paging
+ * through every card of the owner and filtering on the client.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CashCardFilterBenchmark {
+
+    private static final String OWNER = "bench-owner";
+    private static final int CARDS = 500_000;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    CashCardRepository cashCardRepository;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("INSERT INTO users (username, password) VALUES (?, 'x')", OWNER);
+        for (int offset = 0; offset < CARDS; offset += 10_000) {
+            jdbcTemplate.batchUpdate("INSERT INTO cash_cards (amount, owner) VALUES (?, ?)",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            ps.setDouble(1, ThreadLocalRandom.current().nextInt(0, 100_000) / 100.0);
+                            ps.setString(2, OWNER);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return 10_000;
+                        }
+                    });
+        }
+    }
+
+    @Test
+    void amountRangeUsesTheOwnerAmountIndex() {
+        List<String> plan = jdbcTemplate.queryForList(
+                "EXPLAIN SELECT id FROM cash_cards WHERE owner = 'bench-owner' AND amount >= 10 AND amount <= 100",
+                String.class);
+        assertThat(String.join("\n", plan)).containsIgnoringCase("CASH_CARDS_OWNER_AMOUNT_IDX");
+    }
+
+    @Test
+    void serverSideFilterVersusClientSideFilter() {
+        var filter = new CashCardFilter(10.0, 100.0, null, null, null);
+        var firstPage = PageRequest.of(0, 100, Sort.by("amount"));
+
+        long serverNanos = time(() -> cashCardRepository.findAll(filter.toSpecification(List.of(OWNER)), firstPage));
+        long clientNanos = time(() -> cashCardRepository.findByOwner(OWNER, PageRequest.of(0, CARDS)).getContent().stream()
+                .filter(cashCard -> cashCard.getAmount() >= 10.0 && cashCard.getAmount() <= 100.0)
+                .sorted((a, b) -> Double.compare(a.getAmount(), b.getAmount()))
+                .limit(100)
+                .toList());
+
+        System.out.printf("amount range over %,d cards: server filter %.2f ms/op, client filter %.2f ms/op%n",
+                CARDS, serverNanos / 1e6, clientNanos / 1e6);
+        assertThat(serverNanos).isLessThan(clientNanos);
+    }
+
+    private static long time(Runnable query) {
+        for (int i = 0; i < 3; i++) {
+            query.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            query.run();
+        }
+        return (System.nanoTime() - start) / ROUNDS;
+    }
+}
@@ -21,6 +21,12 @@ class CashCardJsonTest {
     @Autowired
     private JacksonTester<CashCard[]> jsonList;
 
+    @Autowired
+    private JacksonTester<CashCardView> viewJson;
+
+    @Autowired
+    private JacksonTester<CashCardView[]> viewJsonList;
+
     private CashCard[] cashCards;
 
     @BeforeEach
@@ -75,4 +81,13 @@ class CashCardJsonTest {
                 """;
         assertThat(jsonList.parse(expected)).isEqualTo(cashCards);
     }
+
+    @Test
+    void cashCardViewKeepsTheEntityJsonContract() throws IOException {
+        assertThat(viewJson.write(new CashCardView(99L, 123.45, "sarah1"))).isStrictlyEqualToJson("single.json");
+        assertThat(viewJsonList.write(new CashCardView[] {
+                new CashCardView(99L, 123.45, "sarah1"),
+                new CashCardView(100L, 1.00, "sarah1"),
+                new CashCardView(101L, 150.00, "sarah1")})).isStrictlyEqualToJson("list.json");
+    }
 }
@@ -0,0 +1,97 @@
+package example.cashcard;
+
+import java.lang.management.ManagementFactory;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.sun.management.ThreadMXBean;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares listing a page of cards as {@link CashCardView} projections against loading
+ * managed entities, in time and bytes allocated per listed card.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CashCardProjectionBenchmark {
+
+    private static final String OWNER = "bench-owner";
+    private static final int CARDS = 100_000;
+    private static final int PAGE_SIZE = 1_000;
+    private static final int ROUNDS = 50;
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    CashCardRepository cashCardRepository;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("INSERT INTO users (username, password) VALUES (?, 'x')", OWNER);
+        for (int offset = 0; offset < CARDS; offset += 10_000) {
+            jdbcTemplate.batchUpdate("INSERT INTO cash_cards (amount, owner) VALUES (?, ?)",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            ps.setDouble(1, ThreadLocalRandom.current().nextInt(0, 100_000) / 100.0);
+                            ps.setString(2, OWNER);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return 10_000;
+                        }
+                    });
+        }
+    }
+
+    @Test
+    void projectionVersusManagedEntities() {
+        var specification = CashCardSpecifications.ownedBy(List.of(OWNER));
+        var page = PageRequest.of(3, PAGE_SIZE, Sort.by("amount"));
+
+        var views = measure(() -> cashCardRepository.findViews(specification, page));
+        var entities = measure(() -> cashCardRepository.findAll(specification, page).getContent());
+
+        System.out.printf("page of %,d cards: views %.2f ms/op %,d B/card, entities %.2f ms/op %,d B/card%n",
+                PAGE_SIZE, views.nanos() / 1e6, views.bytes() / PAGE_SIZE,
+                entities.nanos() / 1e6, entities.bytes() / PAGE_SIZE);
+        assertThat(views.bytes()).isLessThan(entities.bytes());
+        assertThat(views.nanos()).isLessThan(entities.nanos());
+    }
+
+    private static Result measure(Runnable query) {
+        for (int i = 0; i < 3; i++) {
+            query.run();
+        }
+        long allocatedAtStart = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            query.run();
+        }
+        return new Result((System.nanoTime() - start) / ROUNDS,
+                (THREADS.getCurrentThreadAllocatedBytes() - allocatedAtStart) / ROUNDS);
+    }
+
+    private record Result(long nanos, long bytes) {
+    }
+}
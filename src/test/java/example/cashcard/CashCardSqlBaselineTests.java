@@ -0,0 +1,81 @@
+package example.cashcard;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.client.RestClient;
+
+import example.support.SqlBaseline;
+import example.support.SqlCapture;
+
+/**
+ * Statement counts per cash card endpoint. The near caches are off here, and only here, so
+ * every call issues the statements its SQL baseline expects; the other suites keep the
+ * caches the application runs with.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "cashcard.cache.ttl=PT0S")
+@Import(SqlCapture.Config.class)
+class CashCardSqlBaselineTests {
+
+    @LocalServerPort
+    int port;
+
+    RestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = RestClient.builder()
+            .baseUrl("http://localhost:" + port)
+            .defaultHeaders(headers -> headers.setBasicAuth("sarah1", "abc123"))
+            .build();
+        SqlCapture.reset();
+    }
+
+    @Test
+    void shouldFetchACashCardWithinItsSqlBaseline() {
+        client.get().uri("/cashcards/99").retrieve().toBodilessEntity();
+
+        SqlBaseline.assertMatches("get-cashcard", SqlCapture.await("GET /cashcards/{requestedId}"));
+    }
+
+    @Test
+    void shouldListCashCardsWithinItsSqlBaseline() {
+        client.get().uri("/cashcards").retrieve().toBodilessEntity();
+
+        SqlBaseline.assertMatches("list-cashcards", SqlCapture.await("GET /cashcards"));
+    }
+
+    @Test
+    void shouldFetchManyCashCardsWithinItsSqlBaseline() {
+        client.get().uri("/cashcards?ids=99,100,101").retrieve().toBodilessEntity();
+
+        SqlBaseline.assertMatches("get-cashcards-by-ids", SqlCapture.await("GET /cashcards"));
+    }
+
+    @Test
+    @DirtiesContext
+    void shouldCreateACashCardWithinItsSqlBaseline() {
+        client.post().uri("/cashcards").body(new CashCard(null, 250.00, null)).retrieve().toBodilessEntity();
+
+        SqlBaseline.assertMatches("create-cashcard", SqlCapture.await("POST /cashcards"));
+    }
+
+    @Test
+    @DirtiesContext
+    void shouldUpdateACashCardWithinItsSqlBaseline() {
+        client.put().uri("/cashcards/99").body(new CashCard(null, 19.99, null)).retrieve().toBodilessEntity();
+
+        SqlBaseline.assertMatches("update-cashcard", SqlCapture.await("PUT /cashcards/{requestedId}"));
+    }
+
+    @Test
+    @DirtiesContext
+    void shouldDeleteACashCardWithinItsSqlBaseline() {
+        client.delete().uri("/cashcards/99").retrieve().toBodilessEntity();
+
+        SqlBaseline.assertMatches("delete-cashcard", SqlCapture.await("DELETE /cashcards/{requestedId}"));
+    }
+}
@@ -0,0 +1,106 @@
+package example.cashcard;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+/**
+ * Load harness for large listings: fetches pages of 100, 500 and 1000 cards over
+ * HTTP/1.1 without compression, HTTP/1.1 with gzip and h2c with gzip, reporting bytes on
+ * the wire and latency percentiles. The h2c runs issue their requests concurrently over
+ * a single connection, the way several dashboard fetches would share one.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.compression.enabled=true",
+        "server.compression.min-response-size=2KB",
+        "server.compression.mime-types=application/json",
+        "server.http2.enabled=true"
+})
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CashCardTransportBenchmark {
+
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder().encodeToString("kumar2:xyz789".getBytes());
+    private static final int REQUESTS = 200;
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.batchUpdate("INSERT INTO cash_cards (amount, owner) VALUES (?, 'kumar2')",
+                IntStream.range(0, 1_000)
+                        .mapToObj(i -> new Object[] { i * 1.01 })
+                        .toList());
+    }
+
+    @Test
+    void compareTransports() throws Exception {
+        for (int size : new int[] { 100, 500, 1_000 }) {
+            run("http/1.1 identity", HttpClient.Version.HTTP_1_1, null, size);
+            run("http/1.1 gzip    ", HttpClient.Version.HTTP_1_1, "gzip", size);
+            run("h2c gzip         ", HttpClient.Version.HTTP_2, "gzip", size);
+        }
+    }
+
+    private void run(String name, HttpClient.Version version, String acceptEncoding, int size) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(version).build();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/cashcards?size=" + size))
+                .header("Authorization", AUTHORIZATION);
+        if (acceptEncoding != null) {
+            builder.header("Accept-Encoding", acceptEncoding);
+        }
+        HttpRequest request = builder.build();
+        for (int i = 0; i < 20; i++) {
+            client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        }
+
+        long[] latencies = new long[REQUESTS];
+        long bytes = 0;
+        if (version == HttpClient.Version.HTTP_2) {
+            @SuppressWarnings("unchecked")
+            CompletableFuture<Long>[] inFlight = new CompletableFuture[REQUESTS];
+            for (int i = 0; i < REQUESTS; i++) {
+                long start = System.nanoTime();
+                int slot = i;
+                inFlight[i] = client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                        .thenApply(response -> {
+                            latencies[slot] = System.nanoTime() - start;
+                            return (long) response.body().length;
+                        });
+            }
+            for (CompletableFuture<Long> response : inFlight) {
+                bytes += response.get();
+            }
+        } else {
+            for (int i = 0; i < REQUESTS; i++) {
+                long start = System.nanoTime();
+                bytes += client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+                latencies[i] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%4d cards  %s  %,8d bytes/response  p50 %6.2f ms  p99 %6.2f ms%n",
+                size, name, bytes / REQUESTS,
+                latencies[REQUESTS / 2] / 1e6, latencies[REQUESTS * 99 / 100] / 1e6);
+    }
+}
@@ -0,0 +1,83 @@
+package example.cashcard;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Base64;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.compression.enabled=true",
+        "server.compression.min-response-size=2KB",
+        "server.compression.mime-types=application/json,application/cbor",
+        "server.http2.enabled=true"
+})
+@DirtiesContext
+class CashCardTransportTests {
+
+    static final String AUTHORIZATION = "Basic " + Base64.getEncoder().encodeToString("kumar2:xyz789".getBytes());
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seedLargeListing() {
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cash_cards WHERE owner = 'kumar2'", Integer.class) < 150) {
+            for (int i = 0; i < 150; i++) {
+                jdbcTemplate.update("INSERT INTO cash_cards (amount, owner) VALUES (?, 'kumar2')", i + 0.5);
+            }
+        }
+    }
+
+    @Test
+    void shouldGzipALargeListingWhenTheClientAcceptsIt() throws Exception {
+        HttpResponse<byte[]> plain = fetch(HttpClient.Version.HTTP_1_1, null);
+        HttpResponse<byte[]> gzipped = fetch(HttpClient.Version.HTTP_1_1, "gzip");
+
+        assertThat(plain.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(gzipped.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(gzipped.body().length).isLessThan(plain.body().length / 2);
+    }
+
+    @Test
+    void shouldNotCompressSmallResponses() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/cashcards?size=1"))
+                .header("Authorization", AUTHORIZATION)
+                .header("Accept-Encoding", "gzip")
+                .build();
+        HttpResponse<byte[]> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(response.headers().firstValue("Content-Encoding")).isEmpty();
+    }
+
+    @Test
+    void shouldUpgradeCleartextConnectionsToHttp2() throws Exception {
+        HttpResponse<byte[]> response = fetch(HttpClient.Version.HTTP_2, "gzip");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.version()).isEqualTo(HttpClient.Version.HTTP_2);
+    }
+
+    HttpResponse<byte[]> fetch(HttpClient.Version version, String acceptEncoding) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/cashcards?size=150"))
+                .header("Authorization", AUTHORIZATION);
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        HttpClient client = HttpClient.newBuilder().version(version).build();
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -0,0 +1,69 @@
+package example.cashcard;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongIntHashMapTest {
+
+    @Test
+    void shouldStoreAndReplaceValues() {
+        var map = new LongIntHashMap(4);
+        map.put(99L, 1);
+        map.put(100L, 2);
+        map.put(99L, 3);
+
+        assertThat(map.get(99L)).isEqualTo(3);
+        assertThat(map.get(100L)).isEqualTo(2);
+        assertThat(map.get(101L)).isEqualTo(LongIntHashMap.MISSING);
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRejectTheEmptySlotMarker() {
+        assertThatThrownBy(() -> new LongIntHashMap(4).put(0L, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldMatchAHashMapThroughGrowthAndRemoval() {
+        var map = new LongIntHashMap(16);
+        Map<Long, Integer> expected = new HashMap<>();
+        var random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1 + random.nextInt(20_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key) != null);
+            } else {
+                int value = random.nextInt(50);
+                map.put(key, value);
+                expected.put(key, value);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = 1; key <= 20_000; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, LongIntHashMap.MISSING));
+        }
+    }
+
+    @Test
+    void shouldRemoveEveryKeyWithAValue() {
+        var map = new LongIntHashMap(16);
+        for (long key = 1; key <= 1_000; key++) {
+            map.put(key, (int) (key % 3));
+        }
+
+        assertThat(map.removeValue(1)).isEqualTo(334);
+
+        assertThat(map.size()).isEqualTo(666);
+        map.forEach((key, value) -> assertThat(value).isNotEqualTo(1));
+        assertThat(map.get(999L)).isEqualTo(0);
+    }
+}
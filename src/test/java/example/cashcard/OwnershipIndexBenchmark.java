@@ -0,0 +1,119 @@
+package example.cashcard;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the ownership check through the in-memory index against the
+ * {@code existsByIdAndOwner} query it replaces, over a large card table.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OwnershipIndexBenchmark {
+
+    private static final int OWNERS = 1_000;
+    private static final int CARDS = 500_000;
+    private static final int CHECKS = 10_000;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    CashCardRepository cashCardRepository;
+
+    @Autowired
+    OwnershipIndex ownershipIndex;
+
+    private long firstId;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, password) VALUES (?, 'x')",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setString(1, "bench-owner" + i);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return OWNERS;
+                    }
+                });
+        firstId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM cash_cards", Long.class);
+        for (int offset = 0; offset < CARDS; offset += 10_000) {
+            int base = offset;
+            jdbcTemplate.batchUpdate("INSERT INTO cash_cards (amount, owner) VALUES (?, ?)",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            ps.setDouble(1, 1.0);
+                            ps.setString(2, "bench-owner" + (base + i) % OWNERS);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return 10_000;
+                        }
+                    });
+        }
+        // Seeded behind the index's back, so the consistency check has to pick every card up
+        assertThat(ownershipIndex.rebuild()).isGreaterThanOrEqualTo(CARDS);
+    }
+
+    @Test
+    void secondConsistencyCheckFindsNothingToRepair() {
+        assertThat(ownershipIndex.rebuild()).isZero();
+    }
+
+    @Test
+    void indexLookupVersusExistsQuery() {
+        long[] ids = ThreadLocalRandom.current().longs(CHECKS, firstId, firstId + CARDS).toArray();
+        String[] owners = new String[CHECKS];
+        for (int i = 0; i < CHECKS; i++) {
+            owners[i] = "bench-owner" + ThreadLocalRandom.current().nextInt(OWNERS);
+        }
+
+        long indexNanos = time(() -> {
+            for (int i = 0; i < CHECKS; i++) {
+                owners[i].equals(ownershipIndex.ownerOf(ids[i]));
+            }
+        });
+        long queryNanos = time(() -> {
+            for (int i = 0; i < CHECKS; i++) {
+                cashCardRepository.existsByIdAndOwner(ids[i], owners[i]);
+            }
+        });
+
+        System.out.printf("%,d ownership checks over %,d cards: index %.3f ms, exists query %.3f ms%n",
+                CHECKS, CARDS, indexNanos / 1e6, queryNanos / 1e6);
+        assertThat(indexNanos).isLessThan(queryNanos);
+    }
+
+    private static long time(Runnable query) {
+        for (int i = 0; i < 3; i++) {
+            query.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            query.run();
+        }
+        return (System.nanoTime() - start) / ROUNDS;
+    }
+}
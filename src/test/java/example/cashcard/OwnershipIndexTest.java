@@ -0,0 +1,197 @@
+package example.cashcard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import example.shard.ShardRouter;
+import example.shard.ShardingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the index against an embedded database with the application schema. The rebuild's
+ * scan can be interrupted at its first row to write to the index while it runs.
+ */
+class OwnershipIndexTest {
+
+    EmbeddedDatabase database;
+    JdbcTemplate jdbcTemplate;
+    SimpleMeterRegistry meterRegistry;
+    Runnable duringScan;
+    OwnershipIndex index;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.update("INSERT INTO users (username, password) VALUES ('anna', 'x'), ('ben', 'x'), ('cleo', 'x')");
+        jdbcTemplate.update("INSERT INTO cash_cards (id, amount, owner) VALUES (1, 10, 'anna'), (2, 20, 'anna'), (3, 30, 'ben')");
+        meterRegistry = new SimpleMeterRegistry();
+        index = new OwnershipIndex(scanning(database), new ShardRouter(new ShardingProperties(false, 64, null, null, null, null)),
+                meterRegistry);
+        index.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    private JdbcTemplate scanning(DataSource dataSource) {
+        return new JdbcTemplate(dataSource) {
+            @Override
+            public void query(String sql, RowCallbackHandler handler) {
+                super.query(sql, (RowCallbackHandler) row -> {
+                    var hook = duringScan;
+                    duringScan = null;
+                    if (hook != null) {
+                        hook.run();
+                    }
+                    handler.processRow(row);
+                });
+            }
+        };
+    }
+
+    @Test
+    void shouldLoadEveryCard() {
+        assertThat(index.ownerOf(1)).isEqualTo("anna");
+        assertThat(index.ownerOf(3)).isEqualTo("ben");
+        assertThat(index.ownerOf(4)).isNull();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldReplayWritesMadeWhileARebuildScans() {
+        duringScan = () -> {
+            // Not visible to the scan, as if its transaction had not committed yet
+            index.put(4, "cleo");
+            index.remove(1);
+            index.removeOwner("ben");
+        };
+
+        assertThat(index.rebuild()).isZero();
+
+        assertThat(index.ownerOf(4)).isEqualTo("cleo");
+        assertThat(index.ownerOf(1)).isNull();
+        assertThat(index.ownerOf(2)).isEqualTo("anna");
+        assertThat(index.ownerOf(3)).isNull();
+    }
+
+    @Test
+    void shouldNotLoseWritesMadeByOtherThreadsAcrossRebuilds() throws Exception {
+        int writers = 4;
+        int cardsPerWriter = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        var start = new CountDownLatch(1);
+        List<Future<?>> work = new ArrayList<>();
+        try {
+            for (int writer = 0; writer < writers; writer++) {
+                long firstId = 1_000 + (long) writer * cardsPerWriter;
+                var owner = "writer" + writer;
+                jdbcTemplate.update("INSERT INTO users (username, password) VALUES (?, 'x')", owner);
+                // Commit first and update the index afterwards, as CashCardService does
+                work.add(executor.submit(() -> {
+                    start.await();
+                    for (long id = firstId; id < firstId + cardsPerWriter; id++) {
+                        jdbcTemplate.update("INSERT INTO cash_cards (id, amount, owner) VALUES (?, 1, ?)", id, owner);
+                        index.put(id, owner);
+                        // Every other card is deleted again straight away
+                        if (id % 2 == 0) {
+                            jdbcTemplate.update("DELETE FROM cash_cards WHERE id = ?", id);
+                            index.remove(id);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            while (work.stream().anyMatch(future -> !future.isDone())) {
+                index.rebuild();
+            }
+            for (Future<?> future : work) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int writer = 0; writer < writers; writer++) {
+            long firstId = 1_000 + (long) writer * cardsPerWriter;
+            for (long id = firstId; id < firstId + cardsPerWriter; id++) {
+                assertThat(index.ownerOf(id)).as("card %d", id).isEqualTo(id % 2 == 0 ? null : "writer" + writer);
+            }
+        }
+        assertThat(index.rebuild()).isZero();
+    }
+
+    @Test
+    void shouldOnlyRemoveOnceTheTransactionCommits() {
+        var transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(database));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            index.remove(1);
+            index.removeOwner("ben");
+            assertThat(index.ownerOf(1)).isEqualTo("anna");
+            assertThat(index.ownerOf(3)).isEqualTo("ben");
+        });
+        assertThat(index.ownerOf(1)).isNull();
+        assertThat(index.ownerOf(3)).isNull();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            index.remove(2);
+            status.setRollbackOnly();
+        });
+        assertThat(index.ownerOf(2)).isEqualTo("anna");
+    }
+
+    @Test
+    void shouldCountTheEntriesARebuildRepairs() {
+        // Missing, wrong and outlived entries, one each
+        jdbcTemplate.update("INSERT INTO cash_cards (id, amount, owner) VALUES (4, 40, 'cleo')");
+        jdbcTemplate.update("UPDATE cash_cards SET owner = 'cleo' WHERE id = 3");
+        jdbcTemplate.update("DELETE FROM cash_cards WHERE id = 2");
+
+        assertThat(index.rebuild()).isEqualTo(3);
+
+        assertThat(index.ownerOf(4)).isEqualTo("cleo");
+        assertThat(index.ownerOf(3)).isEqualTo("cleo");
+        assertThat(index.ownerOf(2)).isNull();
+        assertThat(meterRegistry.counter("cashcard.ownership.repairs").count()).isEqualTo(3.0);
+        assertThat(index.rebuild()).isZero();
+    }
+
+    @Test
+    void shouldFindArchivedCards() {
+        jdbcTemplate.update("""
+                INSERT INTO cash_cards_archive (id, amount, owner, created_at, updated_at, archived_at)
+                VALUES (5, 0, 'ben', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+                """);
+
+        assertThat(index.rebuild()).isEqualTo(1);
+        assertThat(index.ownerOf(5)).isEqualTo("ben");
+    }
+}
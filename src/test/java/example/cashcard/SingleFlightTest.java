@@ -0,0 +1,118 @@
+package example.cashcard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+    private static final int CALLERS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String, String> flights = new SingleFlight<>("test", meterRegistry);
+
+    @Test
+    void shouldRunConcurrentIdenticalQueriesOnce() throws Exception {
+        var executions = new AtomicInteger();
+        var release = new CountDownLatch(1);
+
+        List<Future<String>> results = callConcurrently(() -> flights.execute("sarah1", () -> {
+            executions.incrementAndGet();
+            await(release);
+            return "page";
+        }), release);
+
+        for (var result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("page");
+        }
+        assertThat(executions).hasValue(1);
+        assertThat(flights.collapseRatio()).isEqualTo((CALLERS - 1) / (double) CALLERS);
+        assertThat(meterRegistry.get("cashcard.singleflight.calls").tag("result", "shared").counter().count())
+                .isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void shouldShareTheExceptionWithEveryWaiter() throws Exception {
+        var release = new CountDownLatch(1);
+
+        List<Future<String>> results = callConcurrently(() -> flights.execute("sarah1", () -> {
+            await(release);
+            throw new IllegalStateException("boom");
+        }), release);
+
+        for (var result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasRootCauseInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void shouldNotKeepResultsOnceTheQueryFinished() {
+        var executions = new AtomicInteger();
+
+        flights.execute("sarah1", () -> "page " + executions.incrementAndGet());
+        flights.execute("sarah1", () -> "page " + executions.incrementAndGet());
+        flights.execute("kumar2", () -> "page " + executions.incrementAndGet());
+
+        assertThat(executions).hasValue(3);
+        assertThat(flights.collapseRatio()).isZero();
+    }
+
+    @Test
+    void forgottenFlightsAreNotJoined() throws Exception {
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<String> before = executor.submit(() -> flights.execute("sarah1", () -> {
+                started.countDown();
+                await(release);
+                return "before the write";
+            }));
+            started.await(5, TimeUnit.SECONDS);
+
+            flights.forget("sarah1"::equals);
+
+            assertThat(flights.execute("sarah1", () -> "after the write")).isEqualTo("after the write");
+            release.countDown();
+            assertThat(before.get(5, TimeUnit.SECONDS)).isEqualTo("before the write");
+        }
+    }
+
+    private static List<Future<String>> callConcurrently(Callable<String> call, CountDownLatch release)
+            throws InterruptedException {
+        var arrived = new CountDownLatch(CALLERS);
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(CALLERS)) {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> {
+                    arrived.countDown();
+                    return call.call();
+                }));
+            }
+            arrived.await(5, TimeUnit.SECONDS);
+            // Gives the last callers time to join the flight before it completes
+            Thread.sleep(200);
+            release.countDown();
+        }
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
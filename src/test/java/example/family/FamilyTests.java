@@ -0,0 +1,183 @@
+package example.family;
+
+import java.net.URI;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.client.RestClient;
+
+import com.jayway.jsonpath.JsonPath;
+import net.minidev.json.JSONArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class FamilyTests {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    RestClient.Builder builder;
+
+    @TestConfiguration
+    static class RestClientTestConfig {
+        @Bean
+        RestClient.Builder builder() {
+            return RestClient.builder();
+        }
+    }
+
+    private RestClient client(String username, String password) {
+        return builder
+                .baseUrl("http://localhost:" + port)
+                .defaultHeaders(headers -> headers.setBasicAuth(username, password))
+                .build();
+    }
+
+    @Test
+    void shouldCreateAFamilyWithTheCreatorAsParent() {
+        RestClient client = client("kumar2", "xyz789");
+
+        ResponseEntity<Void> response = client.post()
+                .uri("/families")
+                .body(new CreateFamilyRequest("Kumar family"))
+                .retrieve()
+                .toEntity(Void.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        URI location = response.getHeaders().getLocation();
+
+        ResponseEntity<String> members = client.get()
+                .uri(location)
+                .retrieve()
+                .toEntity(String.class);
+        assertThat(members.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JSONArray roles = JsonPath.parse(members.getBody()).read("$[?(@.username == 'kumar2')].role");
+        assertThat(roles).containsExactly("PARENT");
+    }
+
+    @Test
+    void shouldNotLetAParentReachAnInvitedChildsCardsBeforeTheyAccept() {
+        RestClient parent = client("kumar2", "xyz789");
+        RestClient child = client("sarah1", "abc123");
+        URI location = parent.post()
+                .uri("/families")
+                .body(new CreateFamilyRequest("Kumar family"))
+                .retrieve()
+                .toEntity(Void.class)
+                .getHeaders().getLocation();
+        String familyId = location.getPath().substring(location.getPath().lastIndexOf('/') + 1);
+
+        ResponseEntity<Void> response = parent.post()
+                .uri(location + "/members")
+                .body(new AddFamilyMemberRequest("sarah1", FamilyRole.CHILD))
+                .retrieve()
+                .toEntity(Void.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+
+        assertThat(status(parent, "/cashcards/99")).isEqualTo(HttpStatus.NOT_FOUND);
+        String members = parent.get().uri(location).retrieve().body(String.class);
+        assertThat(JsonPath.parse(members).read("$[*].username", JSONArray.class)).containsExactly("kumar2");
+        String invites = child.get().uri("/families/invites").retrieve().body(String.class);
+        assertThat(JsonPath.parse(invites).read("$[*].invitedBy", JSONArray.class)).containsExactly("kumar2");
+
+        ResponseEntity<Void> accepted = child.post()
+                .uri("/families/invites/" + familyId)
+                .retrieve()
+                .toEntity(Void.class);
+        assertThat(accepted.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        assertThat(status(parent, "/cashcards/99")).isEqualTo(HttpStatus.OK);
+        assertThat(child.get().uri("/families/invites").retrieve().body(String.class)).isEqualTo("[]");
+    }
+
+    @Test
+    void shouldGrantNothingForADeclinedInvite() {
+        RestClient parent = client("sarah1", "abc123");
+        RestClient invited = client("kumar2", "xyz789");
+        parent.post()
+                .uri("/families/10/members")
+                .body(new AddFamilyMemberRequest("kumar2", FamilyRole.CHILD))
+                .retrieve()
+                .toBodilessEntity();
+
+        ResponseEntity<Void> declined = invited.delete()
+                .uri("/families/invites/10")
+                .retrieve()
+                .toEntity(Void.class);
+        assertThat(declined.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        assertThat(invited.post().uri("/families/invites/10").exchange((req, clientResponse) -> clientResponse.getStatusCode()))
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(status(parent, "/cashcards/102")).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldNotInviteAUserTwice() {
+        RestClient parent = client("sarah1", "abc123");
+        parent.post()
+                .uri("/families/10/members")
+                .body(new AddFamilyMemberRequest("kumar2", FamilyRole.CHILD))
+                .retrieve()
+                .toBodilessEntity();
+
+        HttpStatusCode status = parent.post()
+                .uri("/families/10/members")
+                .body(new AddFamilyMemberRequest("kumar2", FamilyRole.CHILD))
+                .exchange((req, clientResponse) -> clientResponse.getStatusCode());
+
+        assertThat(status).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void shouldNotLetAChildAddMembers() {
+        ResponseEntity<Void> response = client("timmy", "abc123").post()
+                .uri("/families/10/members")
+                .body(new AddFamilyMemberRequest("kumar2", FamilyRole.CHILD))
+                .exchange((req, clientResponse) -> {
+                    return ResponseEntity.status(clientResponse.getStatusCode())
+                            .build();
+                });
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void shouldNotShowAFamilyToNonMembers() {
+        ResponseEntity<Void> response = client("kumar2", "xyz789").get()
+                .uri("/families/10")
+                .exchange((req, clientResponse) -> {
+                    return ResponseEntity.status(clientResponse.getStatusCode())
+                            .build();
+                });
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldNotAddAMemberTwice() {
+        ResponseEntity<Void> response = client("sarah1", "abc123").post()
+                .uri("/families/10/members")
+                .body(new AddFamilyMemberRequest("timmy", FamilyRole.CHILD))
+                .exchange((req, clientResponse) -> {
+                    return ResponseEntity.status(clientResponse.getStatusCode())
+                            .build();
+                });
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    private HttpStatusCode status(RestClient client, String uri) {
+        return client.get().uri(uri).exchange((req, clientResponse) -> clientResponse.getStatusCode());
+    }
+}
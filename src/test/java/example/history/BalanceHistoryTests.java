@@ -0,0 +1,216 @@
+package example.history;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import net.minidev.json.JSONArray;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.client.RestClient;
+
+import example.cashcard.CashCard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The jobs only run on startup; the tests drive them
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "cashcard.history.rollup-interval=P1D",
+        "cashcard.history.retention-check-interval=P1D",
+        // Small enough for the purge to go through several batches
+        "cashcard.history.batch-size=2"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BalanceHistoryTests {
+
+    private static final String MAY_2024 = "from=2024-05-01T00:00:00Z&to=2024-06-01T00:00:00Z";
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    BalanceRollups balanceRollups;
+
+    RestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = RestClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .defaultHeaders(headers -> headers.setBasicAuth("sarah1", "abc123"))
+                .build();
+        // Lets the seeded past points be rolled up
+        jdbcTemplate.update("UPDATE balance_rollup_watermark SET rolled_up_to = TIMESTAMP WITH TIME ZONE '1970-01-01 00:00:00+00'");
+    }
+
+    private void record(long cardId, double balance, String at) {
+        jdbcTemplate.update("INSERT INTO balance_points (card_id, balance, recorded_at) VALUES (?, ?, ?)",
+                cardId, balance, Instant.parse(at).atOffset(ZoneOffset.UTC));
+    }
+
+    private void seedMay2024() {
+        record(99, 100.00, "2024-05-01T10:00:05Z");
+        record(99, 40.00, "2024-05-01T10:00:40Z");
+        record(99, 80.00, "2024-05-01T10:30:00Z");
+        record(99, 120.00, "2024-05-02T09:00:00Z");
+    }
+
+    private void update(long cardId, double amount) {
+        client.put()
+                .uri("/cashcards/" + cardId)
+                .body(new CashCard(null, amount, null))
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    private DocumentContext history(long cardId, String query) {
+        ResponseEntity<String> response = client.get()
+                .uri("/cashcards/" + cardId + "/history?" + query)
+                .retrieve()
+                .toEntity(String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return JsonPath.parse(response.getBody());
+    }
+
+    private HttpStatus status(String uri) {
+        return HttpStatus.valueOf(client.get()
+                .uri(uri)
+                .exchange((request, response) -> ResponseEntity.status(response.getStatusCode()).build())
+                .getStatusCode().value());
+    }
+
+    @Test
+    void shouldRecordEveryBalanceACardTakes() {
+        update(99, 50.00);
+        update(99, 75.00);
+
+        DocumentContext history = history(99, "resolution=raw");
+        assertThat(history.read("$.resolution", String.class)).isEqualTo("RAW");
+        JSONArray balances = history.read("$.points[*].last");
+        assertThat(balances).containsExactly(50.0, 75.0);
+    }
+
+    @Test
+    void shouldRecordAnUpdateThatKeepsTheBalance() {
+        update(99, 50.00);
+        update(99, 50.00);
+
+        JSONArray balances = history(99, "resolution=raw").read("$.points[*].last");
+        assertThat(balances).containsExactly(50.0, 50.0);
+    }
+
+    @Test
+    void shouldSummariseEachBucketFromTheRollups() {
+        seedMay2024();
+
+        assertThat(balanceRollups.rollUp()).isEqualTo(3);
+
+        DocumentContext days = history(99, "resolution=day&" + MAY_2024);
+        assertThat(days.read("$.points[*].min", JSONArray.class)).containsExactly(40.0, 120.0);
+        assertThat(days.read("$.points[*].max", JSONArray.class)).containsExactly(100.0, 120.0);
+        assertThat(days.read("$.points[*].last", JSONArray.class)).containsExactly(80.0, 120.0);
+        DocumentContext minutes = history(99, "resolution=minute&" + MAY_2024);
+        assertThat(minutes.read("$.points[*].min", JSONArray.class)).containsExactly(40.0, 80.0, 120.0);
+        assertThat(minutes.read("$.points[*].last", JSONArray.class)).containsExactly(40.0, 80.0, 120.0);
+    }
+
+    @Test
+    void shouldPickTheResolutionFromTheRange() {
+        seedMay2024();
+        balanceRollups.rollUp();
+
+        // A month is drawn by the hour
+        DocumentContext history = history(99, MAY_2024);
+        assertThat(history.read("$.resolution", String.class)).isEqualTo("HOUR");
+        assertThat(history.read("$.points[*].last", JSONArray.class)).containsExactly(80.0, 120.0);
+    }
+
+    @Test
+    void shouldKeepTheRollupsOfExpiredRawPoints() {
+        seedMay2024();
+        balanceRollups.rollUp();
+
+        assertThat(balanceRollups.purge()).isEqualTo(4);
+
+        assertThat(history(99, "resolution=raw&" + MAY_2024).read("$.points", JSONArray.class)).isEmpty();
+        assertThat(history(99, "resolution=day&" + MAY_2024).read("$.points[*].last", JSONArray.class))
+                .containsExactly(80.0, 120.0);
+    }
+
+    @Test
+    void shouldNotExpireRawPointsThatWereNotRolledUp() {
+        seedMay2024();
+
+        assertThat(balanceRollups.purge()).isZero();
+        assertThat(history(99, "resolution=raw&" + MAY_2024).read("$.points", JSONArray.class)).hasSize(4);
+    }
+
+    @Test
+    void shouldIncludeChangesNotRolledUpYet() {
+        seedMay2024();
+        balanceRollups.rollUp();
+        // Newer than the roll-up delay
+        update(99, 50.00);
+
+        JSONArray balances = history(99, "resolution=day&from=2024-05-01T00:00:00Z").read("$.points[*].last");
+        assertThat(balances).containsExactly(80.0, 120.0, 50.0);
+    }
+
+    @Test
+    void shouldDeleteTheHistoryOfDeletedCards() {
+        seedMay2024();
+        balanceRollups.rollUp();
+        client.delete()
+                .uri("/cashcards/99")
+                .retrieve()
+                .toBodilessEntity();
+
+        balanceRollups.purge();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM balance_points WHERE card_id = 99", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM balance_rollups WHERE card_id = 99", Long.class)).isZero();
+    }
+
+    @Test
+    void shouldSweepOrphanedHistoryBatchByBatch() {
+        var cards = new long[] { 5001, 99, 5002, 100, 5003, 101, 5004 };
+        for (long cardId : cards) {
+            record(cardId, 10.00, "2024-05-01T10:00:00Z");
+        }
+        balanceRollups.rollUp();
+        // Recent points are neither rolled up nor past their retention
+        for (long cardId : cards) {
+            record(cardId, 20.00, Instant.now().toString());
+        }
+
+        balanceRollups.purge();
+
+        assertThat(jdbcTemplate.queryForList("SELECT DISTINCT card_id FROM balance_points ORDER BY card_id", Long.class))
+                .containsExactly(99L, 100L, 101L);
+        assertThat(jdbcTemplate.queryForList("SELECT DISTINCT card_id FROM balance_rollups ORDER BY card_id", Long.class))
+                .containsExactly(99L, 100L, 101L);
+    }
+
+    @Test
+    void shouldNotShowTheHistoryOfAnotherOwnersCard() {
+        assertThat(status("/cashcards/102/history")).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldRejectAnUnknownResolutionOrAnEmptyRange() {
+        assertThat(status("/cashcards/99/history?resolution=week")).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(status("/cashcards/99/history?from=2024-06-01T00:00:00Z&to=2024-05-01T00:00:00Z"))
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
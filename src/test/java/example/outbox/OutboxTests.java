@@ -0,0 +1,100 @@
+package example.outbox;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.RestClient;
+
+import example.cashcard.CashCard;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "cashcard.outbox.sink=file",
+        "cashcard.outbox.poll-interval=PT1H"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class OutboxTests {
+
+    @TempDir
+    static Path directory;
+
+    @DynamicPropertySource
+    static void outboxFile(DynamicPropertyRegistry registry) {
+        registry.add("cashcard.outbox.file", () -> directory.resolve("events.log").toString());
+    }
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    OutboxRelay relay;
+
+    @Autowired
+    OutboxEventRepository events;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    RestClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.deleteIfExists(directory.resolve("events.log"));
+        client = RestClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .defaultHeaders(headers -> headers.setBasicAuth("sarah1", "abc123"))
+                .build();
+    }
+
+    @Test
+    void shouldRecordAnEventForEveryMutationInTheOutbox() {
+        var location = client.post().uri("/cashcards").body(new CashCard(null, 5.0, null))
+                .retrieve().toEntity(Void.class).getHeaders().getLocation();
+        client.put().uri(location).body(new CashCard(null, 6.0, null)).retrieve().toEntity(Void.class);
+        client.delete().uri(location).retrieve().toEntity(Void.class);
+
+        assertThat(events.findAll())
+                .extracting(OutboxEvent::getEventType)
+                .containsExactly("CASH_CARD_CREATED", "CASH_CARD_UPDATED", "CASH_CARD_DELETED");
+    }
+
+    @Test
+    void shouldNotRecordAnEventWhenTheMutationIsRejected() {
+        ResponseEntity<Void> response = client.delete().uri("/cashcards/102")
+                .exchange((request, clientResponse) -> ResponseEntity.status(clientResponse.getStatusCode()).build());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(events.count()).isZero();
+    }
+
+    @Test
+    void shouldDrainTheOutboxIntoTheSink() throws Exception {
+        client.post().uri("/cashcards").body(new CashCard(null, 5.0, null)).retrieve().toEntity(Void.class);
+        client.put().uri("/cashcards/99").body(new CashCard(null, 7.0, null)).retrieve().toEntity(Void.class);
+        assertThat(meterRegistry.get("cashcard.outbox.published").counter().count()).isZero();
+
+        relay.drain();
+
+        List<String> lines = Files.readAllLines(directory.resolve("events.log"));
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).contains("CASH_CARD_CREATED");
+        assertThat(lines.get(1)).contains("CASH_CARD_UPDATED").contains("\"amount\":7.0");
+        assertThat(events.count()).isZero();
+        assertThat(meterRegistry.get("cashcard.outbox.published").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("cashcard.outbox.pending").gauge().value()).isZero();
+    }
+}
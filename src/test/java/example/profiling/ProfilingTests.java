@@ -0,0 +1,182 @@
+package example.profiling;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import jdk.jfr.consumer.RecordingStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.client.RestClient;
+
+import example.cashcard.CashCard;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "cashcard.admin.usernames=sarah1")
+@DirtiesContext
+class ProfilingTests {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    RestClient client;
+
+    RecordingStream stream;
+
+    final List<RecordedEvent> events = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        client = RestClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .defaultHeaders(headers -> headers.setBasicAuth("sarah1", "abc123"))
+                .build();
+        stream = new RecordingStream();
+        for (String name : List.of(EndpointEvent.NAME, AuthenticationEvent.NAME, RepositoryEvent.NAME)) {
+            stream.enable(name);
+            stream.onEvent(name, events::add);
+        }
+        stream.startAsync();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.close();
+    }
+
+    @Test
+    void shouldRecordTheEndpointWithOwnerSqlAndAllocation() throws Exception {
+        client.post().uri("/cashcards").body(new CashCard(null, 42.0, null)).retrieve().toBodilessEntity();
+
+        var event = awaitEvent(EndpointEvent.NAME, e -> "POST /cashcards".equals(e.getString("endpoint")));
+        assertThat(event.getInt("ownerHash")).isEqualTo(Profiling.ownerHash("sarah1"));
+        assertThat(event.getLong("sqlCount")).isPositive();
+        assertThat(event.getLong("allocated")).isPositive();
+        assertThat(event.getInt("status")).isEqualTo(201);
+    }
+
+    @Test
+    void shouldRecordTheRoutePatternRatherThanThePath() throws Exception {
+        client.get().uri("/cashcards/99").retrieve().toBodilessEntity();
+
+        awaitEvent(EndpointEvent.NAME, e -> "GET /cashcards/{requestedId}".equals(e.getString("endpoint")));
+    }
+
+    @Test
+    void shouldRecordAuthentication() throws Exception {
+        client.get().uri("/cashcards/99").retrieve().toBodilessEntity();
+
+        var event = awaitEvent(AuthenticationEvent.NAME, e -> e.getInt("ownerHash") == Profiling.ownerHash("sarah1"));
+        assertThat(event.getBoolean("found")).isTrue();
+    }
+
+    @Test
+    void shouldRecordRepositoryCallsWithTheirStatements() throws Exception {
+        client.post().uri("/cashcards").body(new CashCard(null, 42.0, null)).retrieve().toBodilessEntity();
+
+        var event = awaitEvent(RepositoryEvent.NAME, e -> "CashCardRepository.save".equals(e.getString("method")));
+        assertThat(event.getInt("ownerHash")).isEqualTo(Profiling.ownerHash("sarah1"));
+        assertThat(event.getLong("sqlCount")).isPositive();
+    }
+
+    @Test
+    void shouldRecordConnectionHoldTimePerRoute() throws Exception {
+        client.put().uri("/cashcards/99").body(new CashCard(null, 19.99, null)).retrieve().toBodilessEntity();
+
+        var deadline = System.nanoTime() + TIMEOUT.toNanos();
+        Timer timer = null;
+        while (timer == null && System.nanoTime() < deadline) {
+            timer = meterRegistry.find("cashcard.request.connection.hold")
+                    .tags("method", "PUT", "uri", "/cashcards/{requestedId}").timer();
+            Thread.sleep(50);
+        }
+        assertThat(timer).isNotNull();
+        assertThat(timer.totalTime(TimeUnit.NANOSECONDS)).isPositive();
+    }
+
+    @Test
+    void shouldServeAnOnDemandRecording(@TempDir Path directory) throws Exception {
+        ResponseEntity<Void> started = client.post().uri("/admin/profiling/recordings?duration=PT1S")
+                .retrieve().toBodilessEntity();
+        assertThat(started.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        URI location = started.getHeaders().getLocation();
+
+        client.get().uri("/cashcards").retrieve().toBodilessEntity();
+        byte[] recording = null;
+        var deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (recording == null && System.nanoTime() < deadline) {
+            ResponseEntity<byte[]> response = client.get().uri(location).retrieve().toEntity(byte[].class);
+            if (response.getStatusCode() == HttpStatus.OK) {
+                recording = response.getBody();
+            } else {
+                Thread.sleep(200);
+            }
+        }
+        assertThat(recording).isNotNull();
+
+        var file = Files.write(directory.resolve("recording.jfr"), recording);
+        assertThat(RecordingFile.readAllEvents(file))
+                .anyMatch(e -> e.getEventType().getName().equals(EndpointEvent.NAME));
+        // Served once, then discarded
+        assertThat(status(client.get().uri(location))).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(status(client.delete().uri(location))).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldOnlyCountRunningRecordingsTowardsTheLimit() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(status(client.post().uri("/admin/profiling/recordings?duration=PT1S"))).isEqualTo(HttpStatus.ACCEPTED);
+        }
+        assertThat(status(client.post().uri("/admin/profiling/recordings?duration=PT1S"))).isEqualTo(HttpStatus.CONFLICT);
+
+        // None of the three is downloaded, yet once they stop a new one may start
+        HttpStatus status = HttpStatus.CONFLICT;
+        var deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (status == HttpStatus.CONFLICT && System.nanoTime() < deadline) {
+            Thread.sleep(200);
+            status = status(client.post().uri("/admin/profiling/recordings?duration=PT1S"));
+        }
+        assertThat(status).isEqualTo(HttpStatus.ACCEPTED);
+    }
+
+    private static HttpStatus status(RestClient.RequestHeadersSpec<?> request) {
+        return HttpStatus.valueOf(request.exchange((req, response) -> response.getStatusCode()).value());
+    }
+
+    private RecordedEvent awaitEvent(String name, Predicate<RecordedEvent> matching) throws InterruptedException {
+        var deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            for (RecordedEvent event : events) {
+                if (event.getEventType().getName().equals(name) && matching.test(event)) {
+                    return event;
+                }
+            }
+            Thread.sleep(50);
+        }
+        return fail("No matching " + name + " event within " + TIMEOUT);
+    }
+}
@@ -0,0 +1,100 @@
+package example.replica;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.client.RestClient;
+
+import com.jayway.jsonpath.JsonPath;
+
+import example.cashcard.CashCard;
+import net.minidev.json.JSONArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two H2 databases play primary and replica. The replica is seeded once and never
+ * replicated to, so a value only found there proves a read was served by it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica-tests-primary",
+        "cashcard.replica.url=" + ReplicaTests.REPLICA_URL
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ReplicaTests {
+    static final String REPLICA_URL = "jdbc:h2:mem:replica-tests-replica;DB_CLOSE_DELAY=-1";
+    private static final double REPLICA_AMOUNT = 999.0;
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void seedReplica() {
+        var replica = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+        var replicaJdbc = new JdbcTemplate(replica);
+        replicaJdbc.execute("DROP ALL OBJECTS");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql"), new ClassPathResource("data.sql")).execute(replica);
+        replicaJdbc.update("UPDATE cash_cards SET amount = ? WHERE id IN (99, 102)", REPLICA_AMOUNT);
+        replicaJdbc.update("INSERT INTO users (username, password) SELECT 'replica-only', password FROM users WHERE username = 'sarah1'");
+    }
+
+    @Test
+    void shouldServeCardReadsFromTheReplica() {
+        assertThat(amountOf(client("sarah1"), 99)).isEqualTo(REPLICA_AMOUNT);
+
+        String list = client("sarah1").get().uri("/cashcards").retrieve().body(String.class);
+        JSONArray amounts = JsonPath.parse(list).read("$[?(@.id == 99)].amount");
+        assertThat(((Number) amounts.getFirst()).doubleValue()).isEqualTo(REPLICA_AMOUNT);
+    }
+
+    @Test
+    void shouldAuthenticateAndLookUpUsersOnTheReplica() {
+        ResponseEntity<String> response = client("replica-only").get().uri("/users/replica-only")
+                .retrieve().toEntity(String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE username = 'replica-only'", Integer.class)).isZero();
+    }
+
+    @Test
+    void shouldReadYourOwnWritesFromThePrimary() {
+        var sarah = client("sarah1");
+        sarah.put().uri("/cashcards/99").body(new CashCard(null, 5.0, null)).retrieve().toBodilessEntity();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT amount FROM cash_cards WHERE id = 99", Double.class)).isEqualTo(5.0);
+        assertThat(amountOf(sarah, 99)).isEqualTo(5.0);
+    }
+
+    @Test
+    void shouldKeepOtherOwnersOnTheReplicaAfterAWrite() {
+        client("sarah1").put().uri("/cashcards/99").body(new CashCard(null, 5.0, null)).retrieve().toBodilessEntity();
+
+        assertThat(amountOf(client("kumar2"), 102)).isEqualTo(REPLICA_AMOUNT);
+    }
+
+    private static double amountOf(RestClient client, long id) {
+        String body = client.get().uri("/cashcards/" + id).retrieve().body(String.class);
+        return JsonPath.parse(body).<Number>read("$.amount").doubleValue();
+    }
+
+    private RestClient client(String username) {
+        var password = username.equals("kumar2") ? "xyz789" : "abc123";
+        return RestClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .defaultHeaders(headers -> headers.setBasicAuth(username, password))
+                .build();
+    }
+}
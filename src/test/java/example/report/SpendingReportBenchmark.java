@@ -0,0 +1,125 @@
+package example.report;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import example.shard.ShardRouter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * Aggregates a year of synthetic spending (millions of ledger rows for one family) with a
+ * single query against the fork-join split into weekly partitions, and compares a cold
+ * monthly report with one served from the cached finished days.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SpendingReportBenchmark {
+
+    private static final List<String> FAMILY = List.of("bench-parent", "bench-child1", "bench-child2", "bench-child3");
+    private static final String[] CATEGORIES = { "food", "transport", "games", "books", "clothes", "school" };
+    private static final int ROWS = 2_000_000;
+    private static final int BATCH = 10_000;
+    private static final LocalDate YEAR_START = LocalDate.of(2025, 1, 1);
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    ShardRouter shards;
+
+    @Autowired
+    SpendingAggregator aggregator;
+
+    @Autowired
+    SpendingReportService spendingReportService;
+
+    @BeforeAll
+    void seed() {
+        for (String owner : FAMILY) {
+            jdbcTemplate.update("INSERT INTO users (username, password) VALUES (?, 'x')", owner);
+        }
+        long yearSeconds = 365L * 24 * 60 * 60;
+        for (int offset = 0; offset < ROWS; offset += BATCH) {
+            jdbcTemplate.batchUpdate("INSERT INTO card_transactions (card_id, owner, amount, category, occurred_at) VALUES (?, ?, ?, ?, ?)",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            var random = ThreadLocalRandom.current();
+                            int member = random.nextInt(FAMILY.size());
+                            ps.setLong(1, 1_000 + member * 10L + random.nextInt(3));
+                            ps.setString(2, FAMILY.get(member));
+                            ps.setDouble(3, -random.nextInt(1, 5_000) / 100.0);
+                            ps.setString(4, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                            ps.setObject(5, YEAR_START.atStartOfDay().atOffset(ZoneOffset.UTC).plusSeconds(random.nextLong(yearSeconds)));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return BATCH;
+                        }
+                    });
+        }
+    }
+
+    @Test
+    void forkJoinPartitionsVersusOneQuery() {
+        var end = YEAR_START.plusYears(1);
+        try (var sequential = new SpendingAggregator(namedParameterJdbcTemplate, shards, 1, 366)) {
+            var expected = sequential.aggregate(FAMILY, YEAR_START, end).total();
+            assertThat(aggregator.aggregate(FAMILY, YEAR_START, end).total()).isCloseTo(expected, offset(0.01));
+
+            long oneQuery = time(() -> sequential.aggregate(FAMILY, YEAR_START, end));
+            long forkJoin = time(() -> aggregator.aggregate(FAMILY, YEAR_START, end));
+
+            System.out.printf("year of %,d ledger rows: one query %.1f ms, fork-join over weekly partitions %.1f ms (%d workers)%n",
+                    ROWS, oneQuery / 1e6, forkJoin / 1e6, Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    @Test
+    void cachedFinishedMonthVersusColdAggregation() {
+        var month = YearMonth.of(2025, 6);
+        long cold = time(() -> aggregator.aggregate(FAMILY, month.atDay(1), month.plusMonths(1).atDay(1)));
+        spendingReportService.monthly(FAMILY, month);
+        long cached = time(() -> spendingReportService.monthly(FAMILY, month));
+
+        System.out.printf("monthly report over %,d ledger rows: cold aggregation %.2f ms, cached finished month %.3f ms%n",
+                ROWS, cold / 1e6, cached / 1e6);
+        assertThat(cached).isLessThan(cold);
+    }
+
+    private static long time(Runnable work) {
+        for (int i = 0; i < 3; i++) {
+            work.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            work.run();
+        }
+        return (System.nanoTime() - start) / ROUNDS;
+    }
+}
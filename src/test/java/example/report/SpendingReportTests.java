@@ -0,0 +1,179 @@
+package example.report;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import net.minidev.json.JSONArray;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.client.RestClient;
+
+import example.cashcard.CashCard;
+import example.user.AccountDeletionService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class SpendingReportTests {
+
+    // A finished month: its totals are cached once computed
+    private static final YearMonth PAST = YearMonth.of(2024, 5);
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    AccountDeletionService accountDeletionService;
+
+    RestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = client("sarah1", "abc123");
+    }
+
+    private RestClient client(String username, String password) {
+        return RestClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .defaultHeaders(headers -> headers.setBasicAuth(username, password))
+                .build();
+    }
+
+    private void spend(long cardId, String owner, double amount, String category, LocalDate day) {
+        jdbcTemplate.update("INSERT INTO card_transactions (card_id, owner, amount, category, occurred_at) VALUES (?, ?, ?, ?, ?)",
+                cardId, owner, -amount, category, day.atTime(12, 0).atOffset(ZoneOffset.UTC));
+    }
+
+    private DocumentContext report(RestClient client, String query) {
+        ResponseEntity<String> response = client.get()
+                .uri("/cashcards/reports" + query)
+                .retrieve()
+                .toEntity(String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return JsonPath.parse(response.getBody());
+    }
+
+    private HttpStatus status(RestClient client, String uri) {
+        return HttpStatus.valueOf(client.get()
+                .uri(uri)
+                .exchange((request, response) -> ResponseEntity.status(response.getStatusCode()).build())
+                .getStatusCode().value());
+    }
+
+    @Test
+    void shouldReportASpendRecordedByAnUpdateInTheCurrentMonth() {
+        client.put()
+                .uri("/cashcards/99?category=food")
+                .body(new CashCard(null, 100.45, null))
+                .retrieve()
+                .toBodilessEntity();
+
+        DocumentContext report = report(client, "");
+        assertThat(report.read("$.month", String.class)).isEqualTo(YearMonth.now(ZoneOffset.UTC).toString());
+        assertThat(report.read("$.totalSpent", Double.class)).isEqualTo(23.0);
+        assertThat(report.read("$.byCard[0].cardId", Integer.class)).isEqualTo(99);
+        assertThat(report.read("$.byCategory[0].category", String.class)).isEqualTo("food");
+        JSONArray trend = report.read("$.trend[*].spent");
+        assertThat(trend).hasSize(6).endsWith(23.0);
+    }
+
+    @Test
+    void shouldNotCountDepositsAsSpending() {
+        client.put()
+                .uri("/cashcards/100")
+                .body(new CashCard(null, 50.00, null))
+                .retrieve()
+                .toBodilessEntity();
+
+        assertThat(report(client, "").read("$.totalSpent", Double.class)).isZero();
+    }
+
+    @Test
+    void shouldBreakAPastMonthDownByCardCategoryAndWeek() {
+        spend(99, "sarah1", 10.00, "food", LocalDate.of(2024, 5, 1));
+        spend(99, "sarah1", 5.50, "transport", LocalDate.of(2024, 5, 8));
+        spend(101, "sarah1", 20.00, "food", LocalDate.of(2024, 5, 9));
+        spend(101, "sarah1", 99.00, "food", LocalDate.of(2024, 6, 1));
+
+        DocumentContext report = report(client, "?month=" + PAST);
+        assertThat(report.read("$.totalSpent", Double.class)).isEqualTo(35.5);
+        JSONArray cards = report.read("$.byCard[*].cardId");
+        assertThat(cards).containsExactly(101, 99);
+        JSONArray categories = report.read("$.byCategory[*].category");
+        assertThat(categories).containsExactly("food", "transport");
+        // May 2024 starts on a Wednesday
+        JSONArray weeks = report.read("$.byWeek[*].weekStart");
+        assertThat(weeks).containsExactly("2024-05-01", "2024-05-06");
+        JSONArray weekTotals = report.read("$.byWeek[*].spent");
+        assertThat(weekTotals).containsExactly(10.0, 25.5);
+    }
+
+    @Test
+    void shouldServeAFinishedMonthFromItsCachedTotals() {
+        spend(99, "sarah1", 10.00, "food", LocalDate.of(2024, 5, 1));
+        assertThat(report(client, "?month=" + PAST).read("$.totalSpent", Double.class)).isEqualTo(10.0);
+
+        // Written straight to the table, so nothing tells the cache
+        spend(99, "sarah1", 7.00, "food", LocalDate.of(2024, 5, 2));
+
+        assertThat(report(client, "?month=" + PAST).read("$.totalSpent", Double.class)).isEqualTo(10.0);
+    }
+
+    @Test
+    void shouldIncludeTheChildrensSpendingInAParentsFamilyReport() {
+        spend(99, "sarah1", 10.00, "food", LocalDate.of(2024, 5, 3));
+        spend(103, "timmy", 4.00, "toys", LocalDate.of(2024, 5, 3));
+        spend(102, "kumar2", 50.00, "food", LocalDate.of(2024, 5, 3));
+
+        DocumentContext parentReport = report(client, "?month=" + PAST + "&family=10");
+        assertThat(parentReport.read("$.totalSpent", Double.class)).isEqualTo(14.0);
+        JSONArray owners = parentReport.read("$.byCard[*].owner");
+        assertThat(owners).containsExactly("sarah1", "timmy");
+
+        DocumentContext childReport = report(client("timmy", "abc123"), "?month=" + PAST + "&family=10");
+        assertThat(childReport.read("$.totalSpent", Double.class)).isEqualTo(4.0);
+    }
+
+    @Test
+    void shouldNotReportAFamilyToNonMembers() {
+        assertThat(status(client("kumar2", "xyz789"), "/cashcards/reports?family=10")).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldRejectAMonthThatHasNotStarted() {
+        var next = YearMonth.now(ZoneOffset.UTC).plusMonths(1);
+        assertThat(status(client, "/cashcards/reports?month=" + next)).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void shouldRejectAnInvalidCategory() {
+        ResponseEntity<Void> response = client.put()
+                .uri("/cashcards/99?category=Not a category")
+                .body(new CashCard(null, 1.00, null))
+                .exchange((request, clientResponse) -> ResponseEntity.status(clientResponse.getStatusCode()).build());
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void shouldDeleteTheTransactionHistoryWithTheAccount() {
+        spend(102, "kumar2", 50.00, "food", LocalDate.of(2024, 5, 3));
+
+        accountDeletionService.deleteAccount("kumar2");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM card_transactions WHERE owner = 'kumar2'", Integer.class)).isZero();
+    }
+}
@@ -0,0 +1,52 @@
+package example.shard;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConsistentHashRingTest {
+    private static final List<String> KEYS = IntStream.range(0, 10_000).mapToObj(i -> "user" + i).toList();
+
+    @Test
+    void shouldMapAKeyToTheSameShardEveryTime() {
+        var ring = new ConsistentHashRing(List.of("a", "b", "c"), 64);
+        var again = new ConsistentHashRing(List.of("c", "b", "a"), 64);
+
+        for (String key : KEYS) {
+            assertThat(again.nodeFor(key)).isEqualTo(ring.nodeFor(key));
+        }
+    }
+
+    @Test
+    void shouldSpreadKeysAcrossShards() {
+        var ring = new ConsistentHashRing(List.of("a", "b", "c"), 64);
+
+        Map<String, Integer> counts = new HashMap<>();
+        KEYS.forEach(key -> counts.merge(ring.nodeFor(key), 1, Integer::sum));
+
+        assertThat(counts).containsOnlyKeys("a", "b", "c");
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(2_000, 4_700));
+    }
+
+    @Test
+    void shouldOnlyMoveKeysOntoAnAddedShard() {
+        var before = new ConsistentHashRing(List.of("a", "b", "c"), 64);
+        var after = new ConsistentHashRing(List.of("a", "b", "c", "d"), 64);
+
+        var moved = KEYS.stream().filter(key -> !before.nodeFor(key).equals(after.nodeFor(key))).toList();
+
+        assertThat(moved).allSatisfy(key -> assertThat(after.nodeFor(key)).isEqualTo("d"));
+        assertThat(moved.size()).isBetween(1_500, 3_500);
+    }
+
+    @Test
+    void shouldRejectAnEmptyRing() {
+        assertThatThrownBy(() -> new ConsistentHashRing(List.of(), 64)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,106 @@
+package example.shard;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.client.RestClient;
+
+import example.FamilyCashCardApplication;
+import example.cashcard.CashCard;
+import example.user.UserRegistrationRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the application more than once against the same shards. With
+ * {@code DB_CLOSE_DELAY=-1} the H2 databases outlive each context, the way persistent
+ * shards outlive a restart.
+ */
+class ShardRestartTests {
+    private static final String PASSWORD = "password123";
+    private static final List<String> OWNERS = IntStream.range(0, 8).mapToObj(i -> "restarted" + i).toList();
+
+    @Test
+    void shouldKeepHandingOutUnusedCardIdsAfterARestart() {
+        var shards = List.of("restart-m", "restart-z");
+        List<Long> ids = new ArrayList<>();
+        Map<String, Long> blocks;
+        try (var context = start(shards)) {
+            for (String owner : OWNERS) {
+                anonymous(context).post().uri("/users/register").body(new UserRegistrationRequest(owner, PASSWORD))
+                        .retrieve().toBodilessEntity();
+                ids.add(createCard(context, owner));
+            }
+            blocks = blocks(context, shards);
+        }
+
+        try (var context = start(shards)) {
+            assertThat(blocks(context, shards)).isEqualTo(blocks);
+            for (String owner : OWNERS) {
+                ids.add(createCard(context, owner));
+            }
+        }
+
+        assertThat(ids).doesNotHaveDuplicates();
+        for (int i = 0; i < OWNERS.size(); i++) {
+            assertThat(ids.get(i + OWNERS.size()) / ShardDataSources.ID_BLOCK).isEqualTo(ids.get(i) / ShardDataSources.ID_BLOCK);
+        }
+    }
+
+    @Test
+    void shouldKeepTheBlocksOfExistingShardsWhenOneThatSortsFirstIsAdded() {
+        Map<String, Long> before;
+        try (var context = start(List.of("added-m", "added-z"))) {
+            before = blocks(context, List.of("added-m", "added-z"));
+        }
+
+        try (var context = start(List.of("added-a", "added-m", "added-z"))) {
+            var after = blocks(context, List.of("added-a", "added-m", "added-z"));
+            assertThat(after).containsAllEntriesOf(before);
+            assertThat(before).doesNotContainValue(after.get("added-a"));
+        }
+    }
+
+    private static ConfigurableApplicationContext start(List<String> shards) {
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.sql.init.mode=never",
+                "cashcard.sharding.enabled=true"));
+        for (String shard : shards) {
+            properties.add("cashcard.sharding.shards." + shard + ".url=jdbc:h2:mem:" + shard + ";DB_CLOSE_DELAY=-1");
+            properties.add("cashcard.sharding.shards." + shard + ".username=sa");
+        }
+        return new SpringApplicationBuilder(FamilyCashCardApplication.class)
+                .properties(properties.toArray(String[]::new))
+                .run();
+    }
+
+    private static Map<String, Long> blocks(ConfigurableApplicationContext context, List<String> shards) {
+        var dataSources = context.getBean(ShardDataSources.class);
+        Map<String, Long> blocks = new HashMap<>();
+        shards.forEach(shard -> blocks.put(shard, dataSources.idBlock(shard)));
+        return blocks;
+    }
+
+    private static long createCard(ConfigurableApplicationContext context, String owner) {
+        var location = client(context).defaultHeaders(headers -> headers.setBasicAuth(owner, PASSWORD)).build()
+                .post().uri("/cashcards").body(new CashCard(null, 10.0, null))
+                .retrieve().toBodilessEntity().getHeaders().getLocation();
+        var path = location.getPath();
+        return Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+    }
+
+    private static RestClient anonymous(ConfigurableApplicationContext context) {
+        return client(context).build();
+    }
+
+    private static RestClient.Builder client(ConfigurableApplicationContext context) {
+        return RestClient.builder().baseUrl("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+    }
+}
@@ -0,0 +1,61 @@
+package example.shard;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardRouterTest {
+    // On different lock stripes
+    private static final String PARENT = "parent";
+    private static final String CHILD = "child";
+
+    private final ShardRouter router = new ShardRouter(new ShardingProperties(false, 64, null, null, null, null));
+
+    @Test
+    void shouldGiveUpCrossedMovesInsteadOfDeadlocking() throws Exception {
+        var bothBound = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            var first = executor.submit(movingWhileBound(PARENT, CHILD, bothBound));
+            var second = executor.submit(movingWhileBound(CHILD, PARENT, bothBound));
+
+            // Each request holds the stripe the other one needs, so at least one gives up
+            assertThat(List.of(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS))).contains(false);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldMoveAnOwnerOnTheStripeTheCallerIsBoundToAndKeepTheBinding() throws Exception {
+        try (var binding = router.bind(PARENT)) {
+            assertThat(router.whileMoving(PARENT, Duration.ofMillis(100), () -> { })).isTrue();
+
+            // The caller's read hold is back, so another mover has to wait for the request
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                var other = executor.submit(() -> router.whileMoving(PARENT, Duration.ofMillis(100), () -> { }));
+                assertThat(other.get(5, TimeUnit.SECONDS)).isFalse();
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private Callable<Boolean> movingWhileBound(String caller, String moved, CyclicBarrier bothBound) {
+        return () -> {
+            try (var binding = router.bind(caller)) {
+                bothBound.await();
+                return router.whileMoving(moved, Duration.ofMillis(200), () -> { });
+            }
+        };
+    }
+}
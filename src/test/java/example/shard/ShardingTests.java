@@ -0,0 +1,258 @@
+package example.shard;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import com.jayway.jsonpath.JsonPath;
+import net.minidev.json.JSONArray;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.client.RestClient;
+
+import example.cashcard.CashCard;
+import example.family.AddFamilyMemberRequest;
+import example.family.CreateFamilyRequest;
+import example.family.FamilyRole;
+import example.history.BalanceRollups;
+import example.user.UserRegistrationRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Three embedded H2 databases stand in for shards; two start on the ring and the third is
+ * added by the rebalancer.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.sql.init.mode=never",
+        "cashcard.sharding.enabled=true",
+        "cashcard.sharding.shards.shard-a.url=jdbc:h2:mem:shard-a",
+        "cashcard.sharding.shards.shard-a.username=sa",
+        "cashcard.sharding.shards.shard-b.url=jdbc:h2:mem:shard-b",
+        "cashcard.sharding.shards.shard-b.username=sa",
+        "cashcard.sharding.shards.shard-c.url=jdbc:h2:mem:shard-c",
+        "cashcard.sharding.shards.shard-c.username=sa",
+        "cashcard.sharding.ring=shard-a,shard-b",
+        "cashcard.admin.usernames=owner0"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ShardingTests {
+    private static final String PASSWORD = "password123";
+    private static final List<String> OWNERS = IntStream.range(0, 24).mapToObj(i -> "owner" + i).toList();
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    ShardRouter router;
+
+    @Autowired
+    ShardDataSources shards;
+
+    @Autowired
+    ShardRebalancer rebalancer;
+
+    @Autowired
+    BalanceRollups rollups;
+
+    @BeforeEach
+    void registerOwnersWithOneCardEach() {
+        var anonymous = RestClient.builder().baseUrl("http://localhost:" + port).build();
+        for (String owner : OWNERS) {
+            anonymous.post().uri("/users/register").body(new UserRegistrationRequest(owner, PASSWORD))
+                    .retrieve().toBodilessEntity();
+            clientFor(owner).post().uri("/cashcards").body(new CashCard(null, 10.0, null))
+                    .retrieve().toBodilessEntity();
+        }
+    }
+
+    @Test
+    void shouldKeepEveryOwnersRowsOnTheirShard() {
+        for (String owner : OWNERS) {
+            assertRowsOnlyOn(router.shardFor(owner), owner);
+            assertThat(listedIds(owner)).hasSize(1);
+        }
+        assertThat(ownersOn("shard-a")).isPositive();
+        assertThat(ownersOn("shard-b")).isPositive();
+        assertThat(ownersOn("shard-c")).isZero();
+    }
+
+    @Test
+    void shouldGiveEveryShardItsOwnRangeOfCardIds() {
+        for (String owner : OWNERS) {
+            long id = ((Number) listedIds(owner).getFirst()).longValue();
+            assertThat(id / ShardDataSources.ID_BLOCK).isEqualTo(shards.idBlock(router.shardFor(owner)));
+        }
+    }
+
+    @Test
+    void shouldGiveEveryShardADifferentBlock() {
+        assertThat(router.shards().stream().map(shards::idBlock).distinct()).hasSize(3);
+    }
+
+    @Test
+    void shouldMoveOwnersOntoAnAddedShardWithoutLosingCards() {
+        var idsBefore = OWNERS.stream().map(this::listedIds).toList();
+
+        var report = rebalancer.rebalance(List.of("shard-a", "shard-b", "shard-c"));
+
+        assertThat(report.moved()).isPositive();
+        assertThat(report.pinned()).isEmpty();
+        assertThat(router.ring()).containsExactly("shard-a", "shard-b", "shard-c");
+        assertThat(ownersOn("shard-c")).isEqualTo(report.moved());
+        for (int i = 0; i < OWNERS.size(); i++) {
+            var owner = OWNERS.get(i);
+            assertRowsOnlyOn(router.shardFor(owner), owner);
+            assertThat(listedIds(owner)).isEqualTo(idsBefore.get(i));
+        }
+    }
+
+    @Test
+    void shouldMoveTheBalanceHistoryOfMovedCards() {
+        var cards = OWNERS.stream().map(owner -> ((Number) listedIds(owner).getFirst()).longValue()).toList();
+        for (int i = 0; i < OWNERS.size(); i++) {
+            shards.jdbcTemplate(router.shardFor(OWNERS.get(i))).update("""
+                    INSERT INTO balance_rollups (card_id, resolution, bucket_start, min_balance, max_balance, last_balance)
+                    VALUES (?, 'DAY', ?, 10, 10, 10)
+                    """, cards.get(i), Timestamp.from(Instant.now().truncatedTo(ChronoUnit.DAYS)));
+        }
+
+        var report = rebalancer.rebalance(List.of("shard-a", "shard-b", "shard-c"));
+        // The sweep for history of cards that are gone must not take moved cards' history
+        rollups.purge();
+
+        assertThat(report.moved()).isPositive();
+        for (int i = 0; i < OWNERS.size(); i++) {
+            var home = router.shardFor(OWNERS.get(i));
+            for (String shard : router.shards()) {
+                var jdbcTemplate = shards.jdbcTemplate(shard);
+                long expected = shard.equals(home) ? 1 : 0;
+                assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM balance_points WHERE card_id = ?", Long.class, cards.get(i)))
+                        .as("points of card %d on %s", cards.get(i), shard).isEqualTo(expected);
+                assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM balance_rollups WHERE card_id = ?", Long.class, cards.get(i)))
+                        .as("rollups of card %d on %s", cards.get(i), shard).isEqualTo(expected);
+            }
+        }
+        int moved = IntStream.range(0, OWNERS.size()).filter(i -> router.shardFor(OWNERS.get(i)).equals("shard-c")).findFirst().orElseThrow();
+        String history = clientFor(OWNERS.get(moved)).get().uri("/cashcards/" + cards.get(moved) + "/history?resolution=raw")
+                .retrieve().body(String.class);
+        assertThat(JsonPath.parse(history).read("$.points", JSONArray.class)).hasSize(1);
+    }
+
+    @Test
+    void shouldPinFamilyMembersInsteadOfMovingThem() {
+        var next = new ConsistentHashRing(List.of("shard-a", "shard-b", "shard-c"), router.virtualNodes());
+        var owner = OWNERS.stream().filter(candidate -> next.nodeFor(candidate).equals("shard-c")).findFirst().orElseThrow();
+        var shard = router.shardFor(owner);
+        var created = clientFor(owner).post().uri("/families").body(new CreateFamilyRequest("Pinned family"))
+                .retrieve().toBodilessEntity();
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+        var report = rebalancer.rebalance(List.of("shard-a", "shard-b", "shard-c"));
+
+        assertThat(report.pinned()).containsEntry(owner, shard);
+        assertThat(router.shardFor(owner)).isEqualTo(shard);
+        assertRowsOnlyOn(shard, owner);
+        assertThat(listedIds(owner)).hasSize(1);
+    }
+
+    @Test
+    void shouldMoveAMemberFromAnotherShardNextToTheirFamily() {
+        var parent = OWNERS.stream().filter(owner -> router.shardFor(owner).equals("shard-a")).findFirst().orElseThrow();
+        var child = OWNERS.stream().filter(owner -> router.shardFor(owner).equals("shard-b")).findFirst().orElseThrow();
+        var childCard = ((Number) listedIds(child).getFirst()).longValue();
+        var family = clientFor(parent).post().uri("/families").body(new CreateFamilyRequest("Split family"))
+                .retrieve().toBodilessEntity().getHeaders().getLocation().getPath();
+
+        var invited = clientFor(parent).post().uri(family + "/members").body(new AddFamilyMemberRequest(child, FamilyRole.CHILD))
+                .retrieve().toBodilessEntity();
+
+        // The invite waits on the child's own shard and moves nothing yet
+        assertThat(invited.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(router.shardFor(child)).isEqualTo("shard-b");
+        assertThat(shards.jdbcTemplate("shard-b").queryForObject(
+                "SELECT COUNT(*) FROM family_invites WHERE username = ?", Long.class, child)).isEqualTo(1);
+        var familyId = family.substring(family.lastIndexOf('/') + 1);
+
+        var accepted = clientFor(child).post().uri("/families/invites/" + familyId).retrieve().toBodilessEntity();
+
+        assertThat(accepted.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(router.shardFor(child)).isEqualTo("shard-a");
+        assertRowsOnlyOn("shard-a", child);
+        assertThat(shards.jdbcTemplate("shard-a").queryForList("SELECT username FROM pinned_owners", String.class))
+                .containsExactly(child);
+        for (String candidate : router.shards()) {
+            assertThat(shards.jdbcTemplate(candidate).queryForObject("SELECT COUNT(*) FROM family_invites", Long.class))
+                    .as("invites on %s", candidate).isZero();
+        }
+        // The parent reaches the child's card, alone and in the family listing
+        assertThat(clientFor(parent).get().uri("/cashcards/" + childCard).retrieve().toBodilessEntity().getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        String familyCards = clientFor(parent).get().uri("/cashcards?family=" + familyId)
+                .retrieve().body(String.class);
+        assertThat(JsonPath.parse(familyCards).read("$..id", JSONArray.class)).hasSize(2);
+        assertThat(listedIds(child)).singleElement()
+                .satisfies(id -> assertThat(((Number) id).longValue()).isEqualTo(childCard));
+    }
+
+    @Test
+    void shouldLeaveAMemberInPlaceWhenJoiningTheFamilyFails() {
+        var child = OWNERS.stream().filter(owner -> router.shardFor(owner).equals("shard-b")).findFirst().orElseThrow();
+
+        assertThatThrownBy(() -> rebalancer.colocate(child, "shard-a", shard -> {
+            throw new IllegalStateException("join failed");
+        })).hasMessage("join failed");
+
+        assertThat(router.shardFor(child)).isEqualTo("shard-b");
+        assertRowsOnlyOn("shard-b", child);
+        assertThat(shards.jdbcTemplate("shard-a").queryForObject("SELECT COUNT(*) FROM pinned_owners", Long.class)).isZero();
+    }
+
+    @Test
+    void shouldRejectARingWithUnknownShards() {
+        var status = clientFor("owner0").post().uri("/admin/shards/rebalance").body(List.of("shard-a", "shard-x"))
+                .exchange((request, response) -> response.getStatusCode());
+
+        assertThat(status).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(router.ring()).containsExactly("shard-a", "shard-b");
+    }
+
+    private void assertRowsOnlyOn(String shard, String owner) {
+        for (String candidate : router.shards()) {
+            var jdbcTemplate = shards.jdbcTemplate(candidate);
+            long users = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE username = ?", Long.class, owner);
+            long cards = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cash_cards WHERE owner = ?", Long.class, owner);
+            // The deposit that opened the card
+            long transactions = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM card_transactions WHERE owner = ?", Long.class, owner);
+            long expected = candidate.equals(shard) ? 1 : 0;
+            assertThat(users).as("users of %s on %s", owner, candidate).isEqualTo(expected);
+            assertThat(cards).as("cards of %s on %s", owner, candidate).isEqualTo(expected);
+            assertThat(transactions).as("transactions of %s on %s", owner, candidate).isEqualTo(expected);
+        }
+    }
+
+    private long ownersOn(String shard) {
+        return shards.jdbcTemplate(shard).queryForObject("SELECT COUNT(*) FROM users", Long.class);
+    }
+
+    private JSONArray listedIds(String owner) {
+        String body = clientFor(owner).get().uri("/cashcards").retrieve().body(String.class);
+        return JsonPath.parse(body).read("$..id");
+    }
+
+    private RestClient clientFor(String owner) {
+        return RestClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .defaultHeaders(headers -> headers.setBasicAuth(owner, PASSWORD))
+                .build();
+    }
+}
@@ -0,0 +1,17 @@
+package example.support;
+
+import example.profiling.SqlStatementCounter;
+
+/**
+ * Test replacement for {@link SqlStatementCounter}, configured in the test
+ * {@code application.properties}: keeps counting for the JFR events and also hands each
+ * statement to {@link SqlCapture} when the thread is serving a captured request.
+ */
+public class CapturingStatementInspector extends SqlStatementCounter {
+
+    @Override
+    public String inspect(String sql) {
+        SqlCapture.record(sql);
+        return super.inspect(sql);
+    }
+}
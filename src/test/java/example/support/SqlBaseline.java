@@ -0,0 +1,68 @@
+package example.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the statements of a captured request with its baseline in
+ * {@code src/test/resources/sql-baselines/<name>.properties}, one {@code type=count} line per
+ * statement type. Any difference fails, fewer statements too, so an improvement is recorded
+ * by updating the file; {@code ./gradlew test -PupdateSqlBaselines} rewrites them all.
+ */
+public final class SqlBaseline {
+    private static final String DIRECTORY = "sql-baselines";
+    private static final boolean UPDATE = Boolean.getBoolean("sql.baselines.update");
+
+    private SqlBaseline() {
+    }
+
+    public static void assertMatches(String name, SqlCapture.Call call) {
+        var actual = call.countsByType();
+        if (UPDATE) {
+            write(name, call, actual);
+            return;
+        }
+        var expected = read(name);
+        assertThat(actual)
+                .as("SQL statements of %s against baseline %s.properties:%n  %s", call.endpoint(), name,
+                        String.join("\n  ", call.statements()))
+                .isEqualTo(expected);
+    }
+
+    private static Map<String, Integer> read(String name) {
+        var properties = new Properties();
+        try (InputStream in = SqlBaseline.class.getResourceAsStream("/" + DIRECTORY + "/" + name + ".properties")) {
+            assertThat(in).as("Missing SQL baseline %s.properties; run ./gradlew test -PupdateSqlBaselines", name).isNotNull();
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Map<String, Integer> expected = new TreeMap<>();
+        properties.stringPropertyNames().forEach(type -> expected.put(type, Integer.valueOf(properties.getProperty(type).strip())));
+        return expected;
+    }
+
+    private static void write(String name, SqlCapture.Call call, Map<String, Integer> counts) {
+        var file = Path.of("src", "test", "resources", DIRECTORY, name + ".properties");
+        try {
+            Files.createDirectories(file.getParent());
+            try (Writer out = Files.newBufferedWriter(file)) {
+                out.write("# " + call.endpoint() + "\n");
+                for (var entry : counts.entrySet()) {
+                    out.write(entry.getKey() + "=" + entry.getValue() + "\n");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
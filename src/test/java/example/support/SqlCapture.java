@@ -0,0 +1,113 @@
+package example.support;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Collects the SQL statements Hibernate prepares while serving each HTTP request, including
+ * authentication. Import {@link Config} into a {@code @SpringBootTest}, make the call, then
+ * {@link #await(String)} the endpoint and compare it with {@link SqlBaseline}.
+ */
+public final class SqlCapture {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final ThreadLocal<List<String>> CURRENT = new ThreadLocal<>();
+    private static final LinkedBlockingQueue<Call> CALLS = new LinkedBlockingQueue<>();
+
+    private SqlCapture() {
+    }
+
+    /**
+     * Statements of one request; {@code endpoint} is the method and route pattern, as in
+     * {@code GET /cashcards/{requestedId}}.
+     */
+    public record Call(String endpoint, List<String> statements) {
+
+        /**
+         * Statement counts by leading keyword ({@code select}, {@code insert}, ...).
+         */
+        public Map<String, Integer> countsByType() {
+            Map<String, Integer> counts = new TreeMap<>();
+            for (String sql : statements) {
+                var keyword = sql.strip().split("\\s+", 2)[0].toLowerCase(Locale.ROOT);
+                counts.merge(keyword, 1, Integer::sum);
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * Waits for the next captured request to {@code endpoint}, dropping calls to others.
+     */
+    public static Call await(String endpoint) {
+        var deadline = System.nanoTime() + TIMEOUT.toNanos();
+        try {
+            while (System.nanoTime() < deadline) {
+                var call = CALLS.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (call != null && call.endpoint().equals(endpoint)) {
+                    return call;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return fail("No request to " + endpoint + " captured within " + TIMEOUT);
+    }
+
+    public static void reset() {
+        CALLS.clear();
+    }
+
+    static void record(String sql) {
+        var statements = CURRENT.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    public static class Config {
+
+        @Bean
+        FilterRegistrationBean<OncePerRequestFilter> sqlCaptureFilter() {
+            var registration = new FilterRegistrationBean<OncePerRequestFilter>(new OncePerRequestFilter() {
+                @Override
+                protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                        throws ServletException, IOException {
+                    var statements = new ArrayList<String>();
+                    CURRENT.set(statements);
+                    try {
+                        chain.doFilter(request, response);
+                    } finally {
+                        CURRENT.remove();
+                        CALLS.add(new Call(request.getMethod() + " "
+                                + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE), List.copyOf(statements)));
+                    }
+                }
+            });
+            // Ahead of Spring Security, so authentication queries are counted too
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+            return registration;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package example.user;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void shouldAlwaysFindWhatWasPut() {
+        var filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user-" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("user-" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void shouldStayNearItsFalsePositiveRateWhenFull() {
+        var filter = new BloomFilter(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.put("user-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+    }
+
+    @Test
+    void shouldSizeForTheRequestedRate() {
+        var filter = new BloomFilter(1_000_000, 0.01);
+
+        // About 9.6 bits and 7 hashes per expected value at 1%
+        assertThat(filter.bitSize()).isBetween(9_500_000L, 9_700_000L);
+        assertThat(filter.hashCount()).isEqualTo(7);
+    }
+
+    @Test
+    void shouldReportEverythingAbsentWhenEmpty() {
+        var filter = new BloomFilter(100, 0.01);
+
+        assertThat(filter.mightContain("sarah1")).isFalse();
+        assertThat(filter.mightContain("")).isFalse();
+    }
+}
@@ -1,20 +1,34 @@
 package example.user;
 
+import java.time.Duration;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.web.client.RestClient;
 
+import example.cache.InvalidationTransport;
+import example.cache.NearCache;
+import example.cache.NearCaches;
+import example.shard.ShardRouter;
+import example.support.SqlBaseline;
+import example.support.SqlCapture;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "cashcard.account-deletion.async-threshold=2")
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Import(SqlCapture.Config.class)
 public class UserTests {
     
     @LocalServerPort
@@ -23,6 +37,18 @@ public class UserTests {
     @Autowired
     RestClient.Builder builder;
 
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    AccountDeletionService accountDeletionService;
+
+    @Autowired
+    InvalidationTransport invalidationTransport;
+
+    @Autowired
+    ShardRouter shards;
+
     @TestConfiguration
     static class RestClientTestConfig {
         @Bean
@@ -314,6 +340,33 @@ public class UserTests {
         assertThat(verifyResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
     }
 
+    @Test
+    void shouldInvalidateTheCachedAccountOnEveryNodeWhenThePasswordChanges() {
+        unauthenticatedClient().post()
+                .uri("/users/register")
+                .body(new UserRegistrationRequest("cacheduser", "oldpassword"))
+                .retrieve()
+                .toEntity(Void.class);
+        client("cacheduser", "oldpassword").get().uri("/users/cacheduser").retrieve().toEntity(String.class);
+
+        // A second node sharing the invalidation transport, with the account cached
+        var otherNode = new NearCaches(invalidationTransport, new SimpleMeterRegistry(), Duration.ofMinutes(1), 100);
+        NearCache<String, String> otherUsers = otherNode.create("users");
+        otherUsers.get("cacheduser", key -> "cached");
+
+        client("cacheduser", "oldpassword").put()
+                .uri("/users/cacheduser/change-password")
+                .body(new ChangePasswordRequest("oldpassword", "NewPass123"))
+                .retrieve()
+                .toEntity(Void.class);
+
+        assertThat(otherUsers.get("cacheduser", key -> "reloaded")).isEqualTo("reloaded");
+        ResponseEntity<Void> oldPassword = client("cacheduser", "oldpassword").get()
+                .uri("/users/cacheduser")
+                .exchange((req, clientResponse) -> ResponseEntity.status(clientResponse.getStatusCode()).build());
+        assertThat(oldPassword.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
     @Test
     void shouldNotChangePasswordWithWrongCurrentPassword() {
         // Register user
@@ -531,4 +584,206 @@ public class UserTests {
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
     }
+
+    @Test
+    void shouldDeleteAccountTogetherWithItsCashCardsAndMemberships() {
+        RestClient client = client("timmy", "abc123");
+        recordHistory(103);
+
+        ResponseEntity<Void> response = client.method(org.springframework.http.HttpMethod.DELETE)
+                .uri("/users/timmy")
+                .body("abc123")
+                .retrieve()
+                .toEntity(Void.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(count("SELECT COUNT(*) FROM users WHERE username = 'timmy'")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM cash_cards WHERE owner = 'timmy'")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM family_members WHERE username = 'timmy'")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM balance_points WHERE card_id = 103")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM balance_rollups WHERE card_id = 103")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM outbox_events WHERE event_type = 'ACCOUNT_DELETED'")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReportAnAccountDeletedSinceItsPasswordWasCheckedAsNotFound() {
+        assertThat(accountDeletionService.deleteAccount("hank-owns-no-cards")).isEqualTo(AccountDeletionService.Outcome.DELETED);
+
+        assertThat(accountDeletionService.deleteAccount("hank-owns-no-cards")).isEqualTo(AccountDeletionService.Outcome.NOT_FOUND);
+    }
+
+    @Test
+    void shouldPurgeALargeAccountInTheBackground() {
+        RestClient client = client("sarah1", "abc123");
+        jdbcTemplate.update("""
+                INSERT INTO cash_cards_archive (id, amount, owner, created_at, updated_at, archived_at)
+                VALUES (9001, 0, 'sarah1', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+                """);
+        recordHistory(99);
+        recordHistory(9001);
+
+        ResponseEntity<Void> response = client.method(org.springframework.http.HttpMethod.DELETE)
+                .uri("/users/sarah1")
+                .body("abc123")
+                .retrieve()
+                .toEntity(Void.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+
+        // Locked out straight away, even before the cards are gone
+        ResponseEntity<String> verifyResponse = client.get()
+                .uri("/users/sarah1")
+                .exchange((req, clientResponse) -> {
+                    return ResponseEntity.status(clientResponse.getStatusCode())
+                            .build();
+                });
+        assertThat(verifyResponse.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(count("SELECT COUNT(*) FROM family_members WHERE username = 'sarah1'")).isZero();
+
+        accountDeletionService.purgePendingAccounts();
+
+        assertThat(count("SELECT COUNT(*) FROM users WHERE username = 'sarah1'")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM cash_cards WHERE owner = 'sarah1'")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM cash_cards_archive WHERE owner = 'sarah1'")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM balance_points WHERE card_id IN (99, 9001)")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM balance_rollups WHERE card_id IN (99, 9001)")).isZero();
+    }
+
+    @Test
+    void shouldNotServeADeletedAccountsCachedCardsToSomeoneRegisteringTheSameName() {
+        assertThat(status(client("timmy", "abc123"), "/cashcards/103")).isEqualTo(HttpStatus.OK);
+        client("timmy", "abc123").method(org.springframework.http.HttpMethod.DELETE)
+                .uri("/users/timmy")
+                .body("abc123")
+                .retrieve()
+                .toBodilessEntity();
+
+        register("timmy", "password123");
+
+        assertThat(status(client("timmy", "password123"), "/cashcards/103")).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(status(client("timmy", "password123"), "/cashcards/103/history")).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldNotServeAPurgedAccountsCachedCardsToSomeoneRegisteringTheSameName() {
+        assertThat(status(client("sarah1", "abc123"), "/cashcards/99")).isEqualTo(HttpStatus.OK);
+        client("sarah1", "abc123").method(org.springframework.http.HttpMethod.DELETE)
+                .uri("/users/sarah1")
+                .body("abc123")
+                .retrieve()
+                .toBodilessEntity();
+        accountDeletionService.purgePendingAccounts();
+
+        register("sarah1", "password123");
+
+        assertThat(status(client("sarah1", "password123"), "/cashcards/99")).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private void register(String username, String password) {
+        ResponseEntity<Void> response = unauthenticatedClient().post()
+                .uri("/users/register")
+                .body(new UserRegistrationRequest(username, password))
+                .retrieve()
+                .toEntity(Void.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    }
+
+    private HttpStatus status(RestClient client, String uri) {
+        return HttpStatus.valueOf(client.get()
+                .uri(uri)
+                .exchange((request, response) -> ResponseEntity.status(response.getStatusCode()).build())
+                .getStatusCode().value());
+    }
+
+    private void recordHistory(long cardId) {
+        jdbcTemplate.update("INSERT INTO balance_points (card_id, balance, recorded_at) VALUES (?, 1, CURRENT_TIMESTAMP)", cardId);
+        jdbcTemplate.update("""
+                INSERT INTO balance_rollups (card_id, resolution, bucket_start, min_balance, max_balance, last_balance)
+                VALUES (?, 'DAY', CURRENT_DATE, 1, 1, 1)
+                """, cardId);
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+
+    // ========== USERNAME AVAILABILITY TESTS ==========
+
+    @Test
+    void shouldReportATakenUsernameAsUnavailable() {
+        Boolean available = unauthenticatedClient().get()
+                .uri("/users/available/sarah1")
+                .retrieve()
+                .body(Boolean.class);
+
+        assertThat(available).isFalse();
+    }
+
+    @Test
+    void shouldReportAUsernameAsUnavailableOnceRegistered() {
+        RestClient client = unauthenticatedClient();
+        assertThat(client.get().uri("/users/available/freshname").retrieve().body(Boolean.class)).isTrue();
+
+        client.post()
+                .uri("/users/register")
+                .body(new UserRegistrationRequest("freshname", "password123"))
+                .retrieve()
+                .toBodilessEntity();
+
+        assertThat(client.get().uri("/users/available/freshname").retrieve().body(Boolean.class)).isFalse();
+    }
+
+    @Test
+    void shouldAnswerAFreeUsernameWithoutQueryingTheDatabase() {
+        SqlCapture.reset();
+        Boolean available = unauthenticatedClient().get()
+                .uri("/users/available/nobody-has-this")
+                .retrieve()
+                .body(Boolean.class);
+
+        assertThat(available).isTrue();
+        assertThat(SqlCapture.await("GET /users/available/{username}").countsByType()).isEmpty();
+    }
+
+    @Test
+    void shouldKnowAboutUsernamesTakenOnAnotherNode() {
+        // A second node sharing the database and the invalidation transport
+        var otherNode = new UsernameFilter(jdbcTemplate, shards, invalidationTransport, new SimpleMeterRegistry(), 1000, 0.01);
+        otherNode.rebuild();
+        assertThat(otherNode.mightExist("registered-here")).isFalse();
+
+        jdbcTemplate.update("INSERT INTO users (username, password) VALUES ('registered-there', 'x')");
+        otherNode.add("registered-there");
+        register("registered-here", "password123");
+
+        Boolean available = unauthenticatedClient().get()
+                .uri("/users/available/registered-there")
+                .retrieve()
+                .body(Boolean.class);
+        assertThat(available).isFalse();
+        assertThat(otherNode.mightExist("registered-here")).isTrue();
+    }
+
+    // ========== SQL STATEMENT BASELINES ==========
+    // Every test starts from a fresh context, so the account cache is cold on the first call
+
+    @Test
+    void shouldRegisterWithinItsSqlBaseline() {
+        SqlCapture.reset();
+        unauthenticatedClient().post()
+                .uri("/users/register")
+                .body(new UserRegistrationRequest("baselineuser", "password123"))
+                .retrieve()
+                .toBodilessEntity();
+
+        SqlBaseline.assertMatches("register-user", SqlCapture.await("POST /users/register"));
+    }
+
+    @Test
+    void shouldFetchTheCurrentUserWithinItsSqlBaseline() {
+        SqlCapture.reset();
+        client("sarah1", "abc123").get().uri("/users/sarah1").retrieve().toBodilessEntity();
+
+        SqlBaseline.assertMatches("get-user", SqlCapture.await("GET /users/{username}"));
+    }
 }
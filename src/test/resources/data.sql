@@ -5,4 +5,10 @@ INSERT INTO USERS (username, password) VALUES ('hank-owns-no-cards', '$2a$10$StB
 INSERT INTO CASH_CARDS(ID, AMOUNT, OWNER) VALUES (99, 123.45, 'sarah1');
 INSERT INTO CASH_CARDS(ID, AMOUNT, OWNER) VALUES (100, 1.00, 'sarah1');
 INSERT INTO CASH_CARDS(ID, AMOUNT, OWNER) VALUES (101, 150.00, 'sarah1');
-INSERT INTO CASH_CARDS(ID, AMOUNT, OWNER) VALUES (102, 200.00, 'kumar2');
\ No newline at end of file
+INSERT INTO CASH_CARDS(ID, AMOUNT, OWNER) VALUES (102, 200.00, 'kumar2');
+INSERT INTO USERS (username, password) VALUES ('timmy', '$2a$10$1VWQBQGgFurYEeMvFT2NDem.Gt2rU/wqyiBraRCJOCRaxPFn6IlUi');
+INSERT INTO CASH_CARDS(ID, AMOUNT, OWNER) VALUES (103, 25.00, 'timmy');
+
+INSERT INTO FAMILIES(ID, NAME) VALUES (10, 'Sarah family');
+INSERT INTO FAMILY_MEMBERS(FAMILY_ID, USERNAME, ROLE) VALUES (10, 'sarah1', 'PARENT');
+INSERT INTO FAMILY_MEMBERS(FAMILY_ID, USERNAME, ROLE) VALUES (10, 'timmy', 'CHILD');